@@ -0,0 +1,97 @@
+package com.clarkson.sot.dungeon;
+
+import com.clarkson.sot.utils.BlockKeys;
+import com.clarkson.sot.utils.LongKeyTable;
+
+import java.util.Arrays;
+
+/**
+ * Sparse 3D occupancy grid of integer axis-aligned boxes, used for collision checks while
+ * DungeonGenerator lays out a blueprint. Boxes are registered in every coarse cell they overlap,
+ * so an intersection test only looks at boxes sharing a cell with the query instead of every
+ * placed segment. Boxes are only ever added: a failed attempt discards its whole grid.
+ *
+ * All bounds are inclusive block coordinates, matching Area.intersects.
+ * Not thread-safe: each generation attempt owns its own grid.
+ */
+public final class BlueprintOccupancyGrid {
+
+    private static final int CELL_SHIFT = 4; // 16-block cells
+    private static final int INITIAL_CELLS = 32;
+
+    // Box storage: 6 ints per box (minX, minY, minZ, maxX, maxY, maxZ), indexed in insertion order
+    private int[] bounds = new int[6 * 16];
+    private int size;
+
+    private final LongKeyTable<Cell> cells = new LongKeyTable<>(INITIAL_CELLS); // Packed cell key -> boxes overlapping it
+
+    /** Adds a box to the grid. */
+    public void insert(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        if (minX > maxX || minY > maxY || minZ > maxZ) {
+            throw new IllegalArgumentException("Box min corner must not exceed max corner");
+        }
+        int id = size++;
+        if (id * 6 == bounds.length) bounds = Arrays.copyOf(bounds, bounds.length * 2);
+        int offset = id * 6;
+        bounds[offset] = minX;
+        bounds[offset + 1] = minY;
+        bounds[offset + 2] = minZ;
+        bounds[offset + 3] = maxX;
+        bounds[offset + 4] = maxY;
+        bounds[offset + 5] = maxZ;
+
+        for (int cx = minX >> CELL_SHIFT; cx <= maxX >> CELL_SHIFT; cx++) {
+            for (int cy = minY >> CELL_SHIFT; cy <= maxY >> CELL_SHIFT; cy++) {
+                for (int cz = minZ >> CELL_SHIFT; cz <= maxZ >> CELL_SHIFT; cz++) {
+                    long key = BlockKeys.pack(cx, cy, cz);
+                    Cell cell = cells.get(key);
+                    if (cell == null) {
+                        cell = new Cell();
+                        cells.put(key, cell);
+                    }
+                    cell.add(id);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks whether the given box overlaps any box in the grid (touching faces count as overlap).
+     * @return true if an intersecting box exists.
+     */
+    public boolean intersects(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        if (size == 0) return false;
+        for (int cx = minX >> CELL_SHIFT; cx <= maxX >> CELL_SHIFT; cx++) {
+            for (int cy = minY >> CELL_SHIFT; cy <= maxY >> CELL_SHIFT; cy++) {
+                for (int cz = minZ >> CELL_SHIFT; cz <= maxZ >> CELL_SHIFT; cz++) {
+                    Cell cell = cells.get(BlockKeys.pack(cx, cy, cz));
+                    if (cell == null) continue;
+                    int[] ids = cell.ids;
+                    for (int i = 0, n = cell.count; i < n; i++) {
+                        int offset = ids[i] * 6;
+                        if (minX <= bounds[offset + 3] && maxX >= bounds[offset]
+                                && minY <= bounds[offset + 4] && maxY >= bounds[offset + 1]
+                                && minZ <= bounds[offset + 5] && maxZ >= bounds[offset + 2]) {
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /** @return Number of boxes currently in the grid. */
+    public int size() { return size; }
+
+    /** Indices of the boxes overlapping one cell. */
+    private static final class Cell {
+        int[] ids = new int[4];
+        int count;
+
+        void add(int id) {
+            if (count == ids.length) ids = Arrays.copyOf(ids, count * 2);
+            ids[count++] = id;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.clarkson.sot.dungeon;
+
+/**
+ * Maps the depth of the segment a coin spawns in to the coin's base score value.
+ * Evaluated when a {@link DungeonBlueprint} is built (once per distinct depth), never per coin or per instance.
+ */
+@FunctionalInterface
+public interface CoinValueCurve {
+
+    /** 5 points at the hub, plus one for every two segments of depth. */
+    CoinValueCurve DEFAULT = depth -> 5 + depth / 2;
+
+    /**
+     * @param depth Depth of the coin's segment (0 for the hub).
+     * @return The coin's base value; negative values are treated as 0.
+     */
+    int valueAt(int depth);
+}
@@ -6,8 +6,6 @@ import org.bukkit.World;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable; // For hubLocation potentially
 
-import com.clarkson.sot.dungeon.segment.PlacedSegment;
-
 import java.util.*;
 
 /**
@@ -30,6 +28,7 @@ public class Dungeon {
     private final List<Location> sandSpawnLocations;
     private final List<Location> coinSpawnLocations;
     private final List<Location> itemSpawnLocations;
+    private final SegmentLocator segmentLocator; // Segment lookup by location over the placed segments
     // TODO: Add List<Location> deathCageLocations;
 
     /**
@@ -46,6 +45,7 @@ public class Dungeon {
      * @param sandSpawnLocations List of absolute sand spawn locations.
      * @param coinSpawnLocations List of absolute coin spawn locations.
      * @param itemSpawnLocations List of absolute general item spawn locations.
+     * @param segmentLocator Index of the segments placed for this instance.
      */
     public Dungeon(@NotNull UUID teamId, @NotNull World world, @NotNull Location origin, @NotNull DungeonBlueprint blueprint,
                    @Nullable Location hubLocation, // Hub location might technically fail to calculate?
@@ -53,7 +53,8 @@ public class Dungeon {
                    @NotNull Map<VaultColor, Location> keySpawnLocations,
                    @NotNull List<Location> sandSpawnLocations,
                    @NotNull List<Location> coinSpawnLocations,
-                   @NotNull List<Location> itemSpawnLocations) {
+                   @NotNull List<Location> itemSpawnLocations,
+                   @NotNull SegmentLocator segmentLocator) {
 
         this.instanceId = UUID.randomUUID(); // Generate unique ID for this run
         this.teamId = Objects.requireNonNull(teamId, "Team ID cannot be null");
@@ -68,6 +69,7 @@ public class Dungeon {
         this.sandSpawnLocations = Collections.unmodifiableList(new ArrayList<>(sandSpawnLocations));
         this.coinSpawnLocations = Collections.unmodifiableList(new ArrayList<>(coinSpawnLocations));
         this.itemSpawnLocations = Collections.unmodifiableList(new ArrayList<>(itemSpawnLocations));
+        this.segmentLocator = Objects.requireNonNull(segmentLocator, "Segment locator cannot be null");
     }
 
     // --- Getters ---
@@ -91,23 +93,16 @@ public class Dungeon {
         return Collections.emptyList();
     }
 
+    /** @return The index of this instance's segments by location. */
+    @NotNull public SegmentLocator getSegmentLocator() { return segmentLocator; }
+
     /**
-     * Helper method to get the depth associated with a segment containing a specific location.
-     * Requires iterating through the PlacedSegments managed by DungeonManager.
-     * NOTE: Consider if this logic better belongs in DungeonManager.
+     * Gets the depth of the segment containing a location.
      * @param location Absolute world location.
-     * @param placedSegments The list of segments placed in the world for this instance.
      * @return The depth of the segment, or 0 if not found.
      */
-    public int getDepthAtLocation(@NotNull Location location, @NotNull List<PlacedSegment> placedSegments) {
-         if (!world.equals(location.getWorld())) return 0;
-         for (PlacedSegment segment : placedSegments) {
-             // Assumes Area class has a suitable contains method
-             if (segment.getWorldBounds().contains(location)) {
-                 return segment.getDepth();
-             }
-         }
-         return 0; // Default depth if outside known segments
-     }
+    public int getDepthAtLocation(@NotNull Location location) {
+        return segmentLocator.depthAt(location);
+    }
 
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package com.clarkson.sot.dungeon;
 import com.clarkson.sot.dungeon.segment.PlacedSegment;
 import com.clarkson.sot.entities.Area; // Import the Area class
 import org.bukkit.Location; // Needed for Area's internal representation
+import org.bukkit.Material;
 import org.bukkit.util.Vector;
 import org.jetbrains.annotations.NotNull;
 
@@ -11,13 +12,18 @@ import java.util.*;
 /**
  * Represents the complete blueprint of a dungeon layout, generated once.
  * Contains the list of segments with their relative origins, pre-calculated
- * relative locations for features (hub, vaults, keys, spawns), and the
+ * relative locations for features (hub, vaults, keys, spawns, segment doors), and the
  * overall relative bounding box (using Area) of the generated layout.
+ * Each coin and item spawn also records the index and depth of the segment it belongs to, and each coin its
+ * value from the {@link CoinValueCurve}, so instances populate floor items without any spatial lookup.
  * All locations/vectors are relative to a conceptual (0,0,0) origin.
  * Note: The Locations within the relativeBounds Area will have a null world.
  */
 public class DungeonBlueprint {
 
+    // Master seed this layout was generated from (replayable via DungeonGenerator)
+    private final long seed;
+
     // List of segments with origins relative to the blueprint's 0,0,0
     private final List<PlacedSegment> relativeSegments;
 
@@ -28,6 +34,14 @@ public class DungeonBlueprint {
     private final List<Vector> sandSpawnRelativeLocations;
     private final List<Vector> coinSpawnRelativeLocations;
     private final List<Vector> itemSpawnRelativeLocations;
+    private final List<DoorPlacement> doorPlacements; // Segment doors, consolidated from segment metadata
+
+    // Per spawn, parallel to the spawn lists: owning segment (index into relativeSegments) and its depth
+    private final int[] coinSpawnSegmentIndices;
+    private final int[] coinSpawnDepths;
+    private final int[] coinSpawnValues; // Base value of each coin, from the CoinValueCurve
+    private final int[] itemSpawnSegmentIndices;
+    private final int[] itemSpawnDepths;
 
     // --- Changed: Use Area for Relative Bounding Box ---
     private final Area relativeBounds; // Represents bounds using relative Locations (null world)
@@ -36,13 +50,18 @@ public class DungeonBlueprint {
      * Constructor - Typically called by DungeonGenerator after generation.
      * Takes lists/maps of relative locations/segments and the calculated relative Area bounds.
      */
-    public DungeonBlueprint(@NotNull List<PlacedSegment> relativeSegments,
+    public DungeonBlueprint(long seed,
+                            @NotNull List<PlacedSegment> relativeSegments,
                             @NotNull Vector hubRelativeLocation,
                             @NotNull Map<VaultColor, Vector> vaultMarkerRelativeLocations,
                             @NotNull Map<VaultColor, Vector> keySpawnRelativeLocations,
                             @NotNull List<Vector> sandSpawnRelativeLocations,
                             @NotNull List<Vector> coinSpawnRelativeLocations,
                             @NotNull List<Vector> itemSpawnRelativeLocations,
+                            @NotNull int[] coinSpawnSegmentIndices,
+                            @NotNull int[] itemSpawnSegmentIndices,
+                            @NotNull CoinValueCurve coinValueCurve,
+                            @NotNull List<DoorPlacement> doorPlacements,
                             @NotNull Area relativeBounds // Changed parameter
                            ) {
 
@@ -54,6 +73,14 @@ public class DungeonBlueprint {
         Objects.requireNonNull(sandSpawnRelativeLocations, "sandSpawnRelativeLocations cannot be null");
         Objects.requireNonNull(coinSpawnRelativeLocations, "coinSpawnRelativeLocations cannot be null");
         Objects.requireNonNull(itemSpawnRelativeLocations, "itemSpawnRelativeLocations cannot be null");
+        Objects.requireNonNull(coinSpawnSegmentIndices, "coinSpawnSegmentIndices cannot be null");
+        Objects.requireNonNull(itemSpawnSegmentIndices, "itemSpawnSegmentIndices cannot be null");
+        Objects.requireNonNull(coinValueCurve, "coinValueCurve cannot be null");
+        Objects.requireNonNull(doorPlacements, "doorPlacements cannot be null");
+        if (coinSpawnSegmentIndices.length != coinSpawnRelativeLocations.size()
+                || itemSpawnSegmentIndices.length != itemSpawnRelativeLocations.size()) {
+            throw new IllegalArgumentException("Spawn segment indices must match the spawn locations one to one");
+        }
         Objects.requireNonNull(relativeBounds, "relativeBounds cannot be null");
         // Optional: Add check to ensure world is null in relativeBounds locations?
         // if (relativeBounds.getMinPoint().getWorld() != null || relativeBounds.getMaxPoint().getWorld() != null) {
@@ -62,6 +89,7 @@ public class DungeonBlueprint {
 
 
         // Store immutable copies
+        this.seed = seed;
         this.relativeSegments = Collections.unmodifiableList(new ArrayList<>(relativeSegments));
         this.hubRelativeLocation = hubRelativeLocation.clone();
         this.vaultMarkerRelativeLocations = Collections.unmodifiableMap(new HashMap<>(vaultMarkerRelativeLocations));
@@ -69,11 +97,20 @@ public class DungeonBlueprint {
         this.sandSpawnRelativeLocations = Collections.unmodifiableList(new ArrayList<>(sandSpawnRelativeLocations));
         this.coinSpawnRelativeLocations = Collections.unmodifiableList(new ArrayList<>(coinSpawnRelativeLocations));
         this.itemSpawnRelativeLocations = Collections.unmodifiableList(new ArrayList<>(itemSpawnRelativeLocations));
+        this.doorPlacements = Collections.unmodifiableList(new ArrayList<>(doorPlacements));
+        this.coinSpawnSegmentIndices = coinSpawnSegmentIndices.clone();
+        this.coinSpawnDepths = depthsOf(this.coinSpawnSegmentIndices, this.relativeSegments);
+        this.coinSpawnValues = valuesOf(this.coinSpawnDepths, coinValueCurve);
+        this.itemSpawnSegmentIndices = itemSpawnSegmentIndices.clone();
+        this.itemSpawnDepths = depthsOf(this.itemSpawnSegmentIndices, this.relativeSegments);
         this.relativeBounds = relativeBounds; // Store the Area object (Area itself is effectively immutable once constructed)
     }
 
     // --- Getters ---
 
+    /** @return The master seed this layout was generated from. */
+    public long getSeed() { return seed; }
+
     @NotNull public List<PlacedSegment> getRelativeSegments() { return relativeSegments; }
     @NotNull public Vector getHubRelativeLocation() { return hubRelativeLocation; }
     @NotNull public Map<VaultColor, Vector> getVaultMarkerRelativeLocations() { return vaultMarkerRelativeLocations; }
@@ -81,6 +118,41 @@ public class DungeonBlueprint {
     @NotNull public List<Vector> getSandSpawnRelativeLocations() { return sandSpawnRelativeLocations; }
     @NotNull public List<Vector> getCoinSpawnRelativeLocations() { return coinSpawnRelativeLocations; }
     @NotNull public List<Vector> getItemSpawnRelativeLocations() { return itemSpawnRelativeLocations; }
+    @NotNull public List<DoorPlacement> getDoorPlacements() { return doorPlacements; }
+
+    /** @return Index (into {@link #getRelativeSegments()}) of the segment coin spawn {@code i} belongs to. */
+    public int getCoinSpawnSegmentIndex(int i) { return coinSpawnSegmentIndices[i]; }
+    /** @return Depth of the segment coin spawn {@code i} belongs to. */
+    public int getCoinSpawnDepth(int i) { return coinSpawnDepths[i]; }
+    /** @return Base value of the coin at spawn {@code i}. */
+    public int getCoinSpawnValue(int i) { return coinSpawnValues[i]; }
+    /** @return Index (into {@link #getRelativeSegments()}) of the segment item spawn {@code i} belongs to. */
+    public int getItemSpawnSegmentIndex(int i) { return itemSpawnSegmentIndices[i]; }
+    /** @return Depth of the segment item spawn {@code i} belongs to. */
+    public int getItemSpawnDepth(int i) { return itemSpawnDepths[i]; }
+
+    private static int[] depthsOf(int[] segmentIndices, List<PlacedSegment> segments) {
+        int[] depths = new int[segmentIndices.length];
+        for (int i = 0; i < segmentIndices.length; i++) {
+            depths[i] = segments.get(segmentIndices[i]).getDepth();
+        }
+        return depths;
+    }
+
+    /** Evaluates the curve once per distinct depth. */
+    private static int[] valuesOf(int[] depths, CoinValueCurve curve) {
+        int maxDepth = 0;
+        for (int depth : depths) maxDepth = Math.max(maxDepth, depth);
+        int[] valueByDepth = new int[maxDepth + 1];
+        Arrays.fill(valueByDepth, -1);
+        int[] values = new int[depths.length];
+        for (int i = 0; i < depths.length; i++) {
+            int depth = Math.max(0, depths[i]);
+            if (valueByDepth[depth] < 0) valueByDepth[depth] = Math.max(0, curve.valueAt(depth));
+            values[i] = valueByDepth[depth];
+        }
+        return values;
+    }
 
     // --- Changed: Getter for Relative Bounds ---
     /**
@@ -110,4 +182,27 @@ public class DungeonBlueprint {
         // Or return new Vector(relativeBounds.getWidth() + 1, relativeBounds.getHeight() + 1, relativeBounds.getDepth() + 1); if Area calculates size correctly.
     }
 
+    /**
+     * A segment door positioned in the blueprint: its block bounds and lock block relative to the
+     * blueprint origin, and its closed material. DoorManager offsets these by an instance origin to
+     * create SegmentDoors without inspecting the world.
+     */
+    public static final class DoorPlacement {
+        private final Vector boundsMin;
+        private final Vector boundsMax;
+        private final Vector lock;
+        private final Material material;
+
+        public DoorPlacement(@NotNull Vector boundsMin, @NotNull Vector boundsMax, @NotNull Vector lock, @NotNull Material material) {
+            this.boundsMin = Objects.requireNonNull(boundsMin, "boundsMin cannot be null").clone();
+            this.boundsMax = Objects.requireNonNull(boundsMax, "boundsMax cannot be null").clone();
+            this.lock = Objects.requireNonNull(lock, "lock cannot be null").clone();
+            this.material = Objects.requireNonNull(material, "material cannot be null");
+        }
+
+        @NotNull public Vector getBoundsMin() { return boundsMin.clone(); }
+        @NotNull public Vector getBoundsMax() { return boundsMax.clone(); }
+        @NotNull public Vector getLock() { return lock.clone(); }
+        @NotNull public Material getMaterial() { return material; }
+    }
 }
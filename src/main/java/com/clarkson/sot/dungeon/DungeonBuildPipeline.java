@@ -0,0 +1,240 @@
+package com.clarkson.sot.dungeon;
+
+import com.clarkson.sot.dungeon.DungeonManager.BuildStage;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.UUID;
+import java.util.logging.Level;
+
+/**
+ * Builds queued dungeon instances across several ticks instead of all at once.
+ * Each tick, build steps (segment pastes, feature setup, floor item spawns, teleports) are run
+ * from the front of the queue until the per-tick time budget is used up, so game start no longer
+ * freezes the server. Teams are built one after another; each team's callback fires as soon as
+ * its own instance is ready. Instance cleanups are queued and budgeted the same way.
+ */
+public class DungeonBuildPipeline {
+
+    /** Notified on the main thread when a submitted instance has finished building. */
+    public interface BuildCallback {
+        void onBuildFinished(@NotNull DungeonManager manager, boolean success);
+    }
+
+    private final Plugin plugin;
+    private final long tickBudgetNanos;
+    private final Deque<BuildJob> queue;
+    private int pendingBuilds; // Build (not cleanup) jobs in the queue
+    @Nullable private BukkitTask task;
+
+    /**
+     * @param plugin           The main plugin instance.
+     * @param tickBudgetMillis Maximum time spent building per server tick (at least one step always runs).
+     */
+    public DungeonBuildPipeline(@NotNull Plugin plugin, double tickBudgetMillis) {
+        this.plugin = plugin;
+        this.tickBudgetNanos = (long) (Math.max(0.1, tickBudgetMillis) * 1_000_000L);
+        this.queue = new ArrayDeque<>();
+    }
+
+    /**
+     * Queues an instance build. Must be called on the main thread.
+     *
+     * @param manager           The team's DungeonManager (not yet built).
+     * @param playersToTeleport Team members to teleport to the hub once the instance is built.
+     * @param callback          Called once the build completes or fails.
+     */
+    public void submit(@NotNull DungeonManager manager, @NotNull Collection<UUID> playersToTeleport, @NotNull BuildCallback callback) {
+        if (!manager.beginBuild(playersToTeleport)) {
+            callback.onBuildFinished(manager, false);
+            return;
+        }
+        queue.addLast(new BuildJob(manager, callback, null));
+        pendingBuilds++;
+        ensureRunning();
+    }
+
+    /**
+     * Queues a staged cleanup of an instance (see DungeonManager.beginCleanup). Must be called on the main thread.
+     * Cleanups run in queue order, so an instance built later at the same origin is only built after it is cleared.
+     *
+     * @param onFinished Run on the main thread once the cleanup is done (e.g. to recycle the instance's world slot).
+     */
+    public void submitCleanup(@NotNull DungeonManager manager, @Nullable Runnable onFinished) {
+        if (!manager.beginCleanup()) {
+            if (onFinished != null) onFinished.run();
+            return;
+        }
+        queue.addLast(new BuildJob(manager, null, onFinished));
+        ensureRunning();
+    }
+
+    private void ensureRunning() {
+        if (task == null) {
+            task = new BukkitRunnable() {
+                @Override
+                public void run() {
+                    tick();
+                }
+            }.runTaskTimer(plugin, 1L, 1L);
+        }
+    }
+
+    /** @return true while any submitted instance is still being built. */
+    public boolean hasPendingBuilds() {
+        return pendingBuilds > 0;
+    }
+
+    /** @return The number of instances still queued or building. */
+    public int getPendingBuildCount() {
+        return pendingBuilds;
+    }
+
+    /**
+     * Abandons all queued builds without invoking their callbacks. Queued cleanups keep running.
+     * Partially built instances are left for the instance cleanup to remove.
+     */
+    public void cancelAll() {
+        queue.removeIf(job -> {
+            if (job.isCleanup()) return false;
+            job.manager.failBuild();
+            return true;
+        });
+        pendingBuilds = 0;
+        if (queue.isEmpty()) stopTask();
+    }
+
+    private void tick() {
+        long deadline = System.nanoTime() + tickBudgetNanos;
+        BuildJob job;
+        do {
+            job = queue.peekFirst();
+            if (job == null) {
+                stopTask();
+                return;
+            }
+            if (job.isCleanup()) {
+                runCleanupStep(job);
+                continue;
+            }
+            boolean moreSteps;
+            try {
+                moreSteps = job.manager.runNextBuildStep();
+            } catch (RuntimeException e) {
+                plugin.getLogger().log(Level.SEVERE, "Unexpected error while building dungeon instance for team " + job.manager.getTeamId(), e);
+                job.manager.failBuild();
+                moreSteps = false;
+            }
+            logStageChange(job);
+            if (!moreSteps) {
+                queue.pollFirst();
+                finish(job);
+            } else if (job.manager.isAwaitingAsyncWork()) {
+                break; // Off-thread paste preparation still running; retry next tick
+            }
+        } while (System.nanoTime() < deadline);
+
+        BuildJob current = queue.peekFirst();
+        if (current != null && !current.isCleanup()) {
+            sendProgress(current);
+        }
+    }
+
+    private void runCleanupStep(@NotNull BuildJob job) {
+        boolean moreSteps;
+        try {
+            moreSteps = job.manager.runNextCleanupStep();
+        } catch (RuntimeException e) {
+            plugin.getLogger().log(Level.SEVERE, "Unexpected error while cleaning up dungeon instance for team " + job.manager.getTeamId(), e);
+            moreSteps = false;
+        }
+        if (!moreSteps) {
+            queue.pollFirst();
+            long elapsedMillis = (System.nanoTime() - job.startedAtNanos) / 1_000_000L;
+            plugin.getLogger().info("Dungeon cleanup for team " + job.manager.getTeamId() + " finished in " + elapsedMillis + " ms.");
+            if (job.onCleanupFinished != null) {
+                try {
+                    job.onCleanupFinished.run();
+                } catch (RuntimeException e) {
+                    plugin.getLogger().log(Level.SEVERE, "Error in dungeon cleanup callback for team " + job.manager.getTeamId(), e);
+                }
+            }
+        }
+    }
+
+    private void finish(@NotNull BuildJob job) {
+        pendingBuilds--;
+        boolean success = job.manager.getBuildStage() == BuildStage.COMPLETE;
+        long elapsedMillis = (System.nanoTime() - job.startedAtNanos) / 1_000_000L;
+        plugin.getLogger().info("Dungeon build for team " + job.manager.getTeamId() + (success ? " completed" : " FAILED")
+                + " in " + elapsedMillis + " ms (" + job.manager.getBuildStepsDone() + "/" + job.manager.getBuildStepsTotal() + " steps).");
+        try {
+            if (job.callback != null) job.callback.onBuildFinished(job.manager, success);
+        } catch (RuntimeException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error in dungeon build callback for team " + job.manager.getTeamId(), e);
+        }
+    }
+
+    private void logStageChange(@NotNull BuildJob job) {
+        BuildStage stage = job.manager.getBuildStage();
+        if (stage != job.lastLoggedStage) {
+            job.lastLoggedStage = stage;
+            plugin.getLogger().fine("Dungeon build for team " + job.manager.getTeamId() + " entered stage " + stage
+                    + " (" + job.manager.getBuildStepsDone() + "/" + job.manager.getBuildStepsTotal() + " steps)");
+        }
+    }
+
+    /** Shows build progress in the action bar of the team members waiting for this instance. */
+    private void sendProgress(@NotNull BuildJob job) {
+        int total = Math.max(1, job.manager.getBuildStepsTotal());
+        int percent = Math.min(100, job.manager.getBuildStepsDone() * 100 / total);
+        if (percent == job.lastReportedPercent) return;
+        job.lastReportedPercent = percent;
+        Component message = Component.text("Building your dungeon... " + percent + "%", NamedTextColor.YELLOW);
+        for (UUID memberId : job.manager.getPlayersToTeleport()) {
+            Player player = Bukkit.getPlayer(memberId);
+            if (player != null && player.isOnline()) {
+                player.sendActionBar(message);
+            }
+        }
+    }
+
+    private void stopTask() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /** A queued build (or cleanup, if it has no callback) and its reporting state. */
+    private static final class BuildJob {
+        final DungeonManager manager;
+        @Nullable final BuildCallback callback;
+        @Nullable final Runnable onCleanupFinished;
+        final long startedAtNanos = System.nanoTime();
+        @Nullable BuildStage lastLoggedStage;
+        int lastReportedPercent = -1;
+
+        BuildJob(DungeonManager manager, @Nullable BuildCallback callback, @Nullable Runnable onCleanupFinished) {
+            this.manager = manager;
+            this.callback = callback;
+            this.onCleanupFinished = onCleanupFinished;
+        }
+
+        boolean isCleanup() {
+            return callback == null;
+        }
+    }
+}
@@ -3,11 +3,13 @@ package com.clarkson.sot.dungeon;
 // --- Imports (Ensure all needed imports are present) ---
 import com.clarkson.sot.dungeon.segment.PlacedSegment;
 import com.clarkson.sot.dungeon.segment.Segment;
+import com.clarkson.sot.dungeon.segment.SegmentCatalog;
 import com.clarkson.sot.dungeon.segment.Segment.RelativeEntryPoint;
 import com.clarkson.sot.dungeon.segment.SegmentType;
 import com.clarkson.sot.dungeon.segment.Direction; // Assuming this is the correct package
+import com.clarkson.sot.utils.SchematicCache;
 import com.clarkson.sot.utils.StructureLoader;
-import com.clarkson.sot.entities.Area; // May be needed for collision detection
+import com.clarkson.sot.entities.Area; // Blueprint bounds
 
 // WorldEdit imports
 import com.sk89q.worldedit.math.BlockVector3;
@@ -22,7 +24,10 @@ import org.jetbrains.annotations.Nullable;
 // Java imports
 import java.io.File;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
 
 
 /**
@@ -30,7 +35,8 @@ import java.util.stream.Collectors;
  * Creates a relative layout (DungeonBlueprint) based on loaded Segment templates.
  * Includes logic for colored branches, vaults, keys, and depth rules.
  *
- * This file defines the method signatures without implementation.
+ * Generation is a pure function of (loaded segment catalogue, seed): every attempt owns its
+ * own GenerationContext, so several seeded candidates can run in parallel off the main thread.
  */
 public class DungeonGenerator {
 
@@ -38,13 +44,12 @@ public class DungeonGenerator {
 
     private final Plugin plugin;
     private final StructureLoader structureLoader;
-    private List<Segment> availableSegments; // Templates loaded from files
-    private final Random random;
+    private final SchematicCache schematicCache; // Warmed up whenever templates are (re)loaded
+    private volatile SegmentCatalog segmentCatalog; // Immutable index of templates loaded from files
+    private volatile CoinValueCurve coinValueCurve = CoinValueCurve.DEFAULT; // Values coins when a blueprint is built
     private static final int MAX_DEPTH = 10; // Example
     private static final int MAX_TOTAL_SEGMENTS = 50; // Example
-    // Track placed vaults/keys during generation
-    private Set<VaultColor> keysPlacedInDFS;
-    private Set<VaultColor> vaultsPlacedInDFS;
+    private static final int GENERATION_CANDIDATES = 5; // Seeded attempts run in parallel per generation
 
     // --- Generation Configuration ---
     // Example Depth Ranges for Vaults (Min inclusive, Max inclusive)
@@ -73,24 +78,28 @@ public class DungeonGenerator {
     /**
      * Constructor for DungeonGenerator.
      *
-     * @param plugin The main plugin instance.
+     * @param plugin         The main plugin instance.
+     * @param schematicCache The shared schematic cache to warm up when templates are loaded.
      */
-    public DungeonGenerator(@NotNull Plugin plugin) {
+    public DungeonGenerator(@NotNull Plugin plugin, @NotNull SchematicCache schematicCache) {
         // Implementation omitted
         this.plugin = plugin;
         this.structureLoader = new StructureLoader(plugin);
-        this.availableSegments = new ArrayList<>();
-        this.random = new Random();
-        this.keysPlacedInDFS = new HashSet<>();
-        this.vaultsPlacedInDFS = new HashSet<>();
+        this.schematicCache = schematicCache;
+        this.segmentCatalog = SegmentCatalog.build(List.of());
         // throw new UnsupportedOperationException("Constructor implementation not provided."); // Remove throw if implementing
     }
 
     // --- Public API Methods ---
 
+    /** Sets how coin values scale with depth in blueprints generated from now on. */
+    public void setCoinValueCurve(@NotNull CoinValueCurve coinValueCurve) {
+        this.coinValueCurve = Objects.requireNonNull(coinValueCurve, "coinValueCurve cannot be null");
+    }
+
 /**
      * Loads segment templates from JSON files in the specified data directory.
-     * Populates the internal list of available segments.
+     * Builds the SegmentCatalog used for candidate selection.
      *
      * @param dataFolder The plugin's data folder where segment JSON files reside.
      * @return true if templates were loaded successfully and are valid (including finding a HUB), false otherwise.
@@ -111,73 +120,135 @@ public class DungeonGenerator {
          }
 
         // Use the StructureLoader to load templates from JSON files in the data folder
-        this.availableSegments = structureLoader.loadSegmentTemplates(dataFolder);
+        List<Segment> loadedSegments = structureLoader.loadSegmentTemplates(dataFolder);
 
         // Check if loading was successful and if essential segments exist
-        if (this.availableSegments == null || this.availableSegments.isEmpty()) {
+        if (loadedSegments == null || loadedSegments.isEmpty()) {
             // StructureLoader logs details, but we add a summary warning here
             plugin.getLogger().warning("No dungeon segment templates were loaded successfully from " + dataFolder.getPath());
-            this.availableSegments = new ArrayList<>(); // Ensure list is not null
+            this.segmentCatalog = SegmentCatalog.build(List.of()); // Ensure catalog is not null
             // Decide if this is fatal - likely yes if no segments load
             return false;
         }
 
+        // Publish an immutable catalog so in-flight generations never see a half-loaded index
+        this.segmentCatalog = SegmentCatalog.build(loadedSegments);
+
         // Validate that at least one hub segment exists
-        if (findHubTemplate() == null) {
+        if (this.segmentCatalog.getHub() == null) {
              plugin.getLogger().severe("CRITICAL: No segment template with type 'HUB' found! Dungeon generation requires a Hub segment.");
              return false; // Cannot generate without a hub
         }
 
-        plugin.getLogger().info("Successfully loaded " + this.availableSegments.size() + " segment templates.");
+        plugin.getLogger().info("Successfully loaded " + this.segmentCatalog.size() + " segment templates.");
+
+        // Parse every referenced schematic now rather than during the first game start
+        Set<String> schematicFileNames = new LinkedHashSet<>();
+        for (Segment segment : loadedSegments) {
+            schematicFileNames.add(segment.getSchematicFileName());
+        }
+        schematicCache.warmUp(schematicFileNames);
         return true;
     }
     /**
      * Generates the dungeon layout blueprint using DFS. This is the main entry point
      * for creating the relative structure of the dungeon before it's instantiated.
-     * Attempts to generate distinct branches for vaults and validates the result.
-     * May retry generation a few times if validation fails.
+     * Runs several seeded candidates in parallel on the common ForkJoinPool; the valid candidate
+     * with the lowest index wins, so the same seed and segment catalogue always yield the same layout.
+     * Safe to call from any thread. The returned future completes on a pool thread, so callers
+     * must hop back to the server thread before touching the world.
+     *
+     * @param seed The master seed for this generation. Log it to replay a layout later.
+     * @return A future completing with the DungeonBlueprint, or with null if every candidate failed validation.
+     */
+    @NotNull
+    public CompletableFuture<DungeonBlueprint> generateDungeonLayoutAsync(long seed) {
+        final SegmentCatalog catalog = this.segmentCatalog; // Snapshot for the whole generation
+        final AtomicInteger bestValidCandidate = new AtomicInteger(Integer.MAX_VALUE);
+        plugin.getLogger().info("Starting dungeon layout generation with seed " + seed + " (" + GENERATION_CANDIDATES + " parallel candidates)...");
+
+        List<CompletableFuture<DungeonBlueprint>> candidates = new ArrayList<>(GENERATION_CANDIDATES);
+        for (int i = 0; i < GENERATION_CANDIDATES; i++) {
+            final int candidateIndex = i;
+            candidates.add(CompletableFuture.supplyAsync(
+                    () -> runCandidate(catalog, seed, candidateIndex, bestValidCandidate), ForkJoinPool.commonPool()));
+        }
+
+        // Chain in index order: take candidate 0 if valid, otherwise fall through to candidate 1, and so on
+        CompletableFuture<DungeonBlueprint> result = candidates.get(0);
+        for (int i = 1; i < candidates.size(); i++) {
+            final CompletableFuture<DungeonBlueprint> next = candidates.get(i);
+            result = result.thenCompose(blueprint -> blueprint != null ? CompletableFuture.completedFuture(blueprint) : next);
+        }
+        return result.thenApply(blueprint -> {
+            if (blueprint == null) {
+                plugin.getLogger().severe("Failed to generate a valid dungeon layout for seed " + seed + " after " + GENERATION_CANDIDATES + " candidates.");
+            }
+            return blueprint;
+        });
+    }
+
+    /**
+     * Blocking variant of {@link #generateDungeonLayoutAsync(long)}. Do not call from the server thread.
      *
-     * @return A DungeonBlueprint object representing the relative layout, or null if generation fails or validation fails after retries.
+     * @param seed The master seed for this generation.
+     * @return A DungeonBlueprint object representing the relative layout, or null if all candidates fail validation.
+     */
+    @Nullable
+    public DungeonBlueprint generateDungeonLayout(long seed) {
+        return generateDungeonLayoutAsync(seed).join();
+    }
+
+    /**
+     * Runs a single generation candidate. Never throws; failures are logged and reported as null.
      */
     @Nullable
-    public DungeonBlueprint generateDungeonLayout() {
-        int maxRetries = 5; // Example retry limit
-        for (int attempt = 1; attempt <= maxRetries; attempt++) {
-            plugin.getLogger().info("Starting dungeon layout generation attempt " + attempt + "/" + maxRetries + "...");
-            DungeonBlueprint blueprint = attemptGeneration();
+    private DungeonBlueprint runCandidate(@NotNull SegmentCatalog catalog, long seed, int candidateIndex, @NotNull AtomicInteger bestValidCandidate) {
+        GenerationContext context = new GenerationContext(catalog, candidateSeed(seed, candidateIndex), candidateIndex, bestValidCandidate);
+        try {
+            DungeonBlueprint blueprint = attemptGeneration(context, seed);
             if (blueprint != null) {
-                plugin.getLogger().info("Dungeon layout generated successfully on attempt " + attempt);
-                return blueprint; // Success
+                bestValidCandidate.accumulateAndGet(candidateIndex, Math::min);
+                plugin.getLogger().info("Dungeon layout candidate " + candidateIndex + " generated successfully (seed " + seed + ")");
+            } else if (!context.isSuperseded()) {
+                plugin.getLogger().warning("Dungeon generation candidate " + candidateIndex + " failed validation or generation.");
             }
-            plugin.getLogger().warning("Dungeon generation attempt " + attempt + " failed validation or generation. Retrying...");
+            return blueprint;
+        } catch (RuntimeException e) {
+            plugin.getLogger().log(Level.SEVERE, "Dungeon generation candidate " + candidateIndex + " threw an exception", e);
+            return null;
         }
-        plugin.getLogger().severe("Failed to generate a valid dungeon layout after " + maxRetries + " attempts.");
-        return null; // Failed after all retries
+    }
+
+    /** Derives a well-spread per-candidate seed from the master seed. */
+    private static long candidateSeed(long seed, int candidateIndex) {
+        return new SplittableRandom(seed + candidateIndex * 0x9E3779B97F4A7C15L).nextLong();
     }
 
     /**
      * Attempts a single run of the dungeon generation process.
-     * Called by generateDungeonLayout.
+     * Called by runCandidate. All mutable state lives in the given context.
+     * @param context The per-attempt generation state.
+     * @param seed    The master seed, recorded on the blueprint.
      * @return A potentially valid DungeonBlueprint, or null if generation fails internally.
      */
     @Nullable
-    private DungeonBlueprint attemptGeneration() {
+    private DungeonBlueprint attemptGeneration(@NotNull GenerationContext context, long seed) {
         // --- Initialization for this attempt ---
-        List<PlacedSegment> placedSegments = new ArrayList<>();
-        Set<BlockVector3> occupiedOrigins = new HashSet<>();
+        List<PlacedSegment> placedSegments = context.placedSegments;
         Map<VaultColor, Vector> vaultMarkerRelativeLocations = new HashMap<>();
         Map<VaultColor, Vector> keySpawnRelativeLocations = new HashMap<>();
         List<Vector> sandSpawnRelativeLocations = new ArrayList<>();
         List<Vector> coinSpawnRelativeLocations = new ArrayList<>();
         List<Vector> itemSpawnRelativeLocations = new ArrayList<>();
+        List<Integer> coinSpawnSegmentIndices = new ArrayList<>();
+        List<Integer> itemSpawnSegmentIndices = new ArrayList<>();
+        List<DungeonBlueprint.DoorPlacement> doorPlacements = new ArrayList<>();
         Vector hubRelativeLocation = null;
-        // Reset placed trackers for this attempt
-        keysPlacedInDFS.clear(); // Tracks Red, Green, Gold keys placed by DFS
-        vaultsPlacedInDFS.clear(); // Tracks Blue, Red, Green, Gold vaults placed by DFS
 
         // --- Pre-checks ---
-        if (availableSegments.isEmpty()) { /* ... error log ... */ return null; }
-        Segment hubTemplate = findHubTemplate();
+        if (context.catalog.isEmpty()) { /* ... error log ... */ return null; }
+        Segment hubTemplate = context.catalog.getHub();
         if (hubTemplate == null) { /* ... error log ... */ return null; }
 
         // --- Place Hub ---
@@ -185,7 +256,7 @@ public class DungeonGenerator {
         Location relativeHubOriginLoc = new Location(null, hubOriginBV3.x(), hubOriginBV3.y(), hubOriginBV3.z());
         PlacedSegment hubPlacedSegment = new PlacedSegment(hubTemplate, relativeHubOriginLoc, 0);
         placedSegments.add(hubPlacedSegment);
-        occupiedOrigins.add(hubOriginBV3);
+        occupy(context.occupancy, hubOriginBV3, hubTemplate);
         hubRelativeLocation = new Vector(hubOriginBV3.x(), hubOriginBV3.y(), hubOriginBV3.z());
         // NOTE: Do NOT assume Hub contains Blue Vault. Hub contains Blue Key location metadata.
         // The actual Blue Key item is placed by VaultManager later.
@@ -194,7 +265,7 @@ public class DungeonGenerator {
 
         // --- Start DFS for each Colored Branch + Key Branches ---
         List<RelativeEntryPoint> hubExits = new ArrayList<>(hubTemplate.getEntryPoints());
-        Collections.shuffle(hubExits, random);
+        Collections.shuffle(hubExits, context.random);
 
         // Define branches needed: 3 Vaults (R, G, Gold) + potentially dedicated key branches or general filler
         VaultColor[] targetVaults = {VaultColor.RED, VaultColor.GREEN, VaultColor.GOLD, VaultColor.BLUE};
@@ -212,15 +283,19 @@ public class DungeonGenerator {
             } else {
                 plugin.getLogger().info("Starting DFS from hub exit " + hubEntryPoint.getDirection() + " for general/key path (targetBranchColor=null).");
             }
-            generatePathRecursive(hubPlacedSegment, hubEntryPoint, placedSegments, occupiedOrigins, 1, branchColor);
+            generatePathRecursive(context, hubPlacedSegment, hubEntryPoint, 1, branchColor);
         }
 
+        // A lower-index candidate already won; skip the post-processing work
+        if (context.isSuperseded()) return null;
+
 
         // --- Post-DFS: Consolidate, Calculate Bounds, Validate ---
         if (placedSegments.size() <= 1) { /* ... log warning ... */ return null; }
 
         // Consolidate features (this populates the maps based on placed segments)
-        consolidateFeatureLocations(placedSegments, vaultMarkerRelativeLocations, keySpawnRelativeLocations, sandSpawnRelativeLocations, coinSpawnRelativeLocations, itemSpawnRelativeLocations);
+        consolidateFeatureLocations(placedSegments, vaultMarkerRelativeLocations, keySpawnRelativeLocations, sandSpawnRelativeLocations, coinSpawnRelativeLocations, itemSpawnRelativeLocations,
+                coinSpawnSegmentIndices, itemSpawnSegmentIndices, doorPlacements);
 
         // Calculate Bounds
         Vector relativeMinVec = calculateRelativeMinBounds(placedSegments);
@@ -254,9 +329,10 @@ public class DungeonGenerator {
 
         // --- Create and Return Blueprint ---
         return new DungeonBlueprint(
-                placedSegments, hubRelativeLocation, vaultMarkerRelativeLocations, keySpawnRelativeLocations,
+                seed, placedSegments, hubRelativeLocation, vaultMarkerRelativeLocations, keySpawnRelativeLocations,
                 sandSpawnRelativeLocations, coinSpawnRelativeLocations, itemSpawnRelativeLocations,
-                blueprintBounds
+                toIntArray(coinSpawnSegmentIndices), toIntArray(itemSpawnSegmentIndices), coinValueCurve,
+                doorPlacements, blueprintBounds
         );
     }
 
@@ -266,22 +342,25 @@ public class DungeonGenerator {
      * Recursive Depth-First Search function to generate dungeon paths.
      * Selects, places, and connects segments, then calls itself for new exits.
      *
+     * @param context           (In/Out) Per-attempt state: placed segments, occupancy grid, placed vaults/keys, random.
      * @param currentSegment    The segment instance (in the blueprint) we are currently extending from.
      * @param connectionPoint   The entry point on currentSegment we are connecting *from*.
-     * @param placedSegments    (In/Out) List of all segments placed so far in the blueprint.
-     * @param occupiedOrigins   (In/Out) Set of BlockVector3 relative origins already occupied.
      * @param currentDepth      The current depth (number of segments) from the hub segment.
      * @param targetBranchColor The VaultColor this branch is intended to lead to, or null if it's a general/key path.
      */
     private void generatePathRecursive(
+            @NotNull GenerationContext context,
             @NotNull PlacedSegment currentSegment,
             @NotNull RelativeEntryPoint connectionPoint,
-            @NotNull List<PlacedSegment> placedSegments,
-            @NotNull Set<BlockVector3> occupiedOrigins,
             int currentDepth,
             @Nullable VaultColor targetBranchColor) {
 
+        List<PlacedSegment> placedSegments = context.placedSegments;
+
         // --- Base Cases / Termination Conditions ---
+        if (context.isSuperseded()) {
+            return; // Another candidate already produced the winning layout
+        }
         if (currentDepth >= MAX_DEPTH) {
             return; // Reached max depth for this branch
         }
@@ -293,6 +372,7 @@ public class DungeonGenerator {
         // --- Select Next Segment Template ---
         Direction requiredDirection = connectionPoint.getDirection().getOpposite();
         Segment nextSegmentTemplate = selectNextSegment(
+            context,
             currentSegment.getSegmentTemplate(),
             requiredDirection,
             currentDepth,
@@ -319,7 +399,7 @@ public class DungeonGenerator {
         BlockVector3 nextSegmentOrigin = calculatePlacementOrigin(currentSegmentOrigin, connectionPoint, nextEntryPoint);
 
         // --- Check Collision ---
-        if (checkCollision(nextSegmentOrigin, nextSegmentTemplate, occupiedOrigins, placedSegments)) {
+        if (checkCollision(context.occupancy, nextSegmentOrigin, nextSegmentTemplate)) {
             // plugin.getLogger().finest("DFS collision detected for " + nextSegmentTemplate.getName() + " at " + nextSegmentOrigin + ". Stopping branch.");
             return; // Collision detected, stop this branch
         }
@@ -329,20 +409,20 @@ public class DungeonGenerator {
         PlacedSegment nextPlacedSegment = new PlacedSegment(nextSegmentTemplate, relativeNextOriginLoc, currentDepth); // Pass currentDepth
 
         placedSegments.add(nextPlacedSegment);
-        occupiedOrigins.add(nextSegmentOrigin);
+        occupy(context.occupancy, nextSegmentOrigin, nextSegmentTemplate);
         // plugin.getLogger().finer("DFS placed segment " + nextSegmentTemplate.getName() + " at relative origin " + nextSegmentOrigin + " (Depth: " + currentDepth + ", Branch: "+ targetBranchColor + ")");
 
         // --- Update Global Placed Vaults/Keys Tracking ---
         VaultColor placedVault = nextSegmentTemplate.getContainedVault();
         if (placedVault != null) {
-            if (vaultsPlacedInDFS.add(placedVault)) { // .add() returns true if the element was not already present
+            if (context.vaultsPlaced.add(placedVault)) { // .add() returns true if the element was not already present
                  plugin.getLogger().info("Placed " + placedVault + " vault segment (" + nextSegmentTemplate.getName() + ") at depth " + currentDepth);
             }
         }
         VaultColor placedKey = nextSegmentTemplate.getContainedVaultKey();
          // We don't track the blue key this way as it's placed specially
         if (placedKey != null && placedKey != VaultColor.BLUE) {
-             if (keysPlacedInDFS.add(placedKey)) {
+             if (context.keysPlaced.add(placedKey)) {
                   plugin.getLogger().info("Placed " + placedKey + " key segment (" + nextSegmentTemplate.getName() + ") at depth " + currentDepth);
              }
         }
@@ -351,40 +431,22 @@ public class DungeonGenerator {
         // --- Recursive Calls for New Segment's Outgoing Connections ---
         // Shuffle exits to add more randomness to path exploration order
         List<RelativeEntryPoint> outgoingExits = new ArrayList<>(nextSegmentTemplate.getEntryPoints());
-        Collections.shuffle(outgoingExits, random);
+        Collections.shuffle(outgoingExits, context.random);
 
         for (RelativeEntryPoint outgoingEntryPoint : outgoingExits) {
             // Don't go back through the entry point we just came from
             if (outgoingEntryPoint.getDirection() != requiredDirection) {
                 // Pass the targetBranchColor down the same branch
-                generatePathRecursive(nextPlacedSegment, outgoingEntryPoint, placedSegments, occupiedOrigins, currentDepth + 1, targetBranchColor);
+                generatePathRecursive(context, nextPlacedSegment, outgoingEntryPoint, currentDepth + 1, targetBranchColor);
             }
         }
     }
 
-    /**
-     * Finds the first segment template with type HUB.
-     *
-     * @return The hub Segment template, or null if none is found.
-     */
-    @Nullable
-    private Segment findHubTemplate() {
-        if (availableSegments == null || availableSegments.isEmpty()) {
-            return null;
-        }
-        for (Segment segment : availableSegments) {
-            // Check type, ensuring type is not null
-            if (segment.getType() != null && segment.getType() == SegmentType.HUB) {
-                return segment;
-            }
-        }
-        return null; // No segment with type HUB found
-    }
-
     /**
      * Selects a suitable segment template to connect to the current path based on various criteria,
      * including the target vault color for the current branch and depth-based probabilities.
      *
+     * @param context           Per-attempt state (segment catalog, placed vaults/keys, random).
      * @param previousSegment   The template of the segment being connected *from*.
      * @param requiredDirection The direction the new segment needs an entry point for (opposite of the connection).
      * @param currentDepth      The current depth in the dungeon, used for applying depth-based rules.
@@ -393,34 +455,27 @@ public class DungeonGenerator {
      */
     @Nullable
     private Segment selectNextSegment(
+            @NotNull GenerationContext context,
             @NotNull Segment previousSegment,
             @NotNull Direction requiredDirection,
             int currentDepth,
             @Nullable VaultColor targetBranchColor
             ) {
 
-        // 1. Filter basic candidates (must connect, not hub, not immediate backtrack maybe)
-        List<Segment> candidates = availableSegments.stream()
-                .filter(s -> s.getType() != SegmentType.HUB) // Cannot place another hub
-                .filter(s -> s.hasEntryPointInDirection(requiredDirection)) // Must have correct entry point
-                // Optional: Prevent placing the exact same segment type immediately?
-                // .filter(s -> s.getType() != previousSegment.getType() || s.getType() == SegmentType.CORRIDOR)
-                .collect(Collectors.toList());
-
-        if (candidates.isEmpty()) {
-            return null; // No segments can physically connect
-        }
+        final SegmentCatalog catalog = context.catalog;
+        final Random random = context.random;
+        // 1. Basic candidates are all non-hub templates with an entry point facing requiredDirection.
+        // Optional: Prevent placing the exact same segment type immediately? (would mask out previousSegment.getType())
+        final int candidateTypes = SegmentCatalog.NON_HUB_TYPES;
+        boolean targetVaultExcluded = false; // Whether target vault segments were removed from the general pool
 
         // 2. Prioritize Vault Placement if on a Vault Branch
-        if (targetBranchColor != null && !vaultsPlacedInDFS.contains(targetBranchColor)) {
+        if (targetBranchColor != null && !context.vaultsPlaced.contains(targetBranchColor)) {
             MinMax range = VAULT_DEPTH_RANGES.get(targetBranchColor);
             if (range != null && currentDepth >= range.min && currentDepth <= range.max) {
                 // Find segments containing the target vault
-                 List<Segment> vaultCandidates = candidates.stream()
-                         .filter(s -> s.getContainedVault() == targetBranchColor)
-                         .collect(Collectors.toList());
-
-                 if (!vaultCandidates.isEmpty()) {
+                final int targetVaultBit = SegmentCatalog.colorBit(targetBranchColor);
+                 if (catalog.totalWeight(requiredDirection, candidateTypes, targetVaultBit, SegmentCatalog.ANY_COLOR) > 0) {
                      boolean shouldPlaceVault = false;
                      if (currentDepth == range.max) {
                          shouldPlaceVault = true; // Force placement at max depth
@@ -434,8 +489,8 @@ public class DungeonGenerator {
                      }
 
                      if (shouldPlaceVault) {
-                         // Return a random segment from the vault candidates
-                         return vaultCandidates.get(random.nextInt(vaultCandidates.size()));
+                         // Return a weighted random segment from the vault candidates
+                         return catalog.pick(requiredDirection, candidateTypes, targetVaultBit, SegmentCatalog.ANY_COLOR, random);
                      }
                  } else {
                      // Log if we are forced to place but have no candidates
@@ -447,51 +502,51 @@ public class DungeonGenerator {
             }
             // If vault placement wasn't triggered/possible, remove vault segments for this color from general pool
             // to avoid placing it too early or accidentally.
-            final VaultColor finalTarget = targetBranchColor; // Needed for lambda
-             candidates.removeIf(s -> s.getContainedVault() == finalTarget);
+            targetVaultExcluded = true;
         }
+        final int keyRoomVaultMask = targetVaultExcluded
+                ? SegmentCatalog.ANY_COLOR & ~SegmentCatalog.colorBit(targetBranchColor)
+                : SegmentCatalog.ANY_COLOR;
 
          // 3. Prioritize Key Placement (if not on a vault branch or vault not placed)
          // Example: Prioritize Red Key in Puzzle Room
-         if (!keysPlacedInDFS.contains(VaultColor.RED)) {
+         if (!context.keysPlaced.contains(VaultColor.RED)) {
              MinMax range = KEY_DEPTH_RANGES.get(VaultColor.RED);
              if (range != null && currentDepth >= range.min && currentDepth <= range.max) {
-                 List<Segment> keyCandidates = candidates.stream()
-                         .filter(s -> s.getType() == SegmentType.PUZZLE && s.getContainedVaultKey() == VaultColor.RED)
-                         .collect(Collectors.toList());
-                 if (!keyCandidates.isEmpty()) {
-                     // Add probability logic if desired, or just place if found
+                 // Add probability logic if desired, or just place if found
+                 Segment keySegment = catalog.pick(requiredDirection, SegmentCatalog.typeBit(SegmentType.PUZZLE),
+                         keyRoomVaultMask, SegmentCatalog.colorBit(VaultColor.RED), random);
+                 if (keySegment != null) {
                      plugin.getLogger().finest("Prioritizing Red Key placement at depth " + currentDepth);
-                     return keyCandidates.get(random.nextInt(keyCandidates.size()));
+                     return keySegment;
                  }
              }
          }
          // Example: Prioritize Gold Key in Lava Parkour
-         if (!keysPlacedInDFS.contains(VaultColor.GOLD)) {
+         if (!context.keysPlaced.contains(VaultColor.GOLD)) {
               MinMax range = KEY_DEPTH_RANGES.get(VaultColor.GOLD);
               if (range != null && currentDepth >= range.min && currentDepth <= range.max) {
-                  List<Segment> keyCandidates = candidates.stream()
-                          .filter(s -> s.getType() == SegmentType.LAVA_PARKOUR && s.getContainedVaultKey() == VaultColor.GOLD)
-                          .collect(Collectors.toList());
-                  if (!keyCandidates.isEmpty()) {
+                  Segment keySegment = catalog.pick(requiredDirection, SegmentCatalog.typeBit(SegmentType.LAVA_PARKOUR),
+                          keyRoomVaultMask, SegmentCatalog.colorBit(VaultColor.GOLD), random);
+                  if (keySegment != null) {
                       plugin.getLogger().finest("Prioritizing Gold Key placement at depth " + currentDepth);
-                      return keyCandidates.get(random.nextInt(keyCandidates.size()));
+                      return keySegment;
                   }
               }
           }
          // Add similar logic for Green Key if needed
 
-
-        // 4. Filter out segments containing *any* vault or key if they shouldn't be placed now
-         candidates.removeIf(s -> s.getContainedVault() != null && (targetBranchColor == null || s.getContainedVault() != targetBranchColor)); // Remove vaults not matching branch target
-         candidates.removeIf(s -> s.getContainedVaultKey() != null && s.getContainedVaultKey() != VaultColor.BLUE); // Remove segments containing R,G,Gold keys unless prioritized above
-
-        // 5. Final Selection from remaining candidates
-        if (candidates.isEmpty()) {
-            return null; // No suitable non-vault/non-key segment found
+        // 4. Exclude segments containing *any* vault or key if they shouldn't be placed now:
+        // only vault-free segments (plus the branch's own vault once it is no longer excluded),
+        // and only segments without a R/G/Gold key (Blue key segments are allowed)
+        int fillerVaultMask = SegmentCatalog.colorBit(null);
+        if (targetBranchColor != null && !targetVaultExcluded) {
+            fillerVaultMask |= SegmentCatalog.colorBit(targetBranchColor);
         }
-        // Choose randomly from the suitable remaining candidates
-        return candidates.get(random.nextInt(candidates.size()));
+        final int fillerKeyMask = SegmentCatalog.colorBit(null) | SegmentCatalog.colorBit(VaultColor.BLUE);
+
+        // 5. Final weighted selection from remaining candidates (null if no suitable non-vault/non-key segment found)
+        return catalog.pick(requiredDirection, candidateTypes, fillerVaultMask, fillerKeyMask, random);
     }
 
     @NotNull
@@ -513,77 +568,39 @@ public class DungeonGenerator {
 
     /**
      * Checks if placing a segment with the given template at the potential origin would cause a collision
-     * with any already placed segments using bounding box intersection. Also performs a quick origin check.
+     * with any already placed segments, using the attempt's occupancy grid (inclusive bounds, like Area.intersects).
      *
-     * @param potentialOrigin   The potential relative origin (BlockVector3) for the new segment.
+     * @param occupancy          The occupancy grid holding the bounds of all placed segments.
+     * @param potentialOrigin    The potential relative origin (BlockVector3) for the new segment.
      * @param newSegmentTemplate The template of the segment to be placed.
-     * @param occupiedOrigins   The set of already occupied relative origins (for fast check).
-     * @param placedSegments    The list of segments already placed (for bounding box checks).
      * @return true if a collision is detected, false otherwise.
      */
     private boolean checkCollision(
+            @NotNull BlueprintOccupancyGrid occupancy,
             @NotNull BlockVector3 potentialOrigin,
-            @NotNull Segment newSegmentTemplate,
-            @NotNull Set<BlockVector3> occupiedOrigins,
-            @NotNull List<PlacedSegment> placedSegments) {
-
-        // 1. Basic Origin Check (Fast Exit)
-        if (occupiedOrigins.contains(potentialOrigin)) {
-             // plugin.getLogger().finest("Collision detected (Origin): " + potentialOrigin); // Debug logging
-             return true; // Another segment already starts exactly here
-        }
-
-        // 2. Advanced Bounding Box Check (More Accurate, Slower)
-        Area potentialBounds = calculatePotentialBounds(newSegmentTemplate, potentialOrigin);
-        // Check against all previously placed segments
-        for (PlacedSegment existingSegment : placedSegments) {
-            // Get the relative bounds of the existing segment
-            // PlacedSegment.getWorldBounds() returns an Area with relative Locations (null world) in this blueprint context
-            Area existingBounds = existingSegment.getWorldBounds();
-
-            // Check if the potential new bounds intersect with the existing bounds
-            if (potentialBounds.intersects(existingBounds)) { // Assumes Area.intersects works correctly with relative coords
-                 plugin.getLogger().finest("Collision detected (Bounds): " + newSegmentTemplate.getName()
-                     + " at " + potentialOrigin + " intersects with " + existingSegment.getName()
-                     + " at " + existingSegment.getWorldOrigin().toVector()); // Debug logging
-                 return true; // Volumes overlap
-            }
+            @NotNull Segment newSegmentTemplate) {
+        // Max corner is relative origin + size - 1 (inclusive); Segment guarantees a positive size
+        BlockVector3 size = newSegmentTemplate.getSize();
+        boolean collides = occupancy.intersects(
+                potentialOrigin.x(), potentialOrigin.y(), potentialOrigin.z(),
+                potentialOrigin.x() + size.x() - 1, potentialOrigin.y() + size.y() - 1, potentialOrigin.z() + size.z() - 1);
+        if (collides) {
+            plugin.getLogger().finest("Collision detected (Bounds): " + newSegmentTemplate.getName() + " at " + potentialOrigin); // Debug logging
         }
-
-        // If no collision detected by either check
-        return false;
+        return collides;
     }
 
     /**
-     * Calculates the potential bounding Area (using relative coordinates) for a segment if placed at a given origin.
-     * Needed for advanced collision detection. The Locations in the returned Area will have a null world.
+     * Registers the bounds of a placed segment in the occupancy grid.
      *
-     * @param segmentTemplate The segment template.
-     * @param relativeOrigin  The relative origin (BlockVector3) where the segment would be placed.
-     * @return An Area object representing the relative bounds.
+     * @param occupancy       The occupancy grid to update.
+     * @param origin          The relative origin of the placed segment.
+     * @param segmentTemplate The template that was placed.
      */
-    @NotNull
-    private Area calculatePotentialBounds(@NotNull Segment segmentTemplate, @NotNull BlockVector3 relativeOrigin) {
-        // Get segment size
+    private void occupy(@NotNull BlueprintOccupancyGrid occupancy, @NotNull BlockVector3 origin, @NotNull Segment segmentTemplate) {
         BlockVector3 size = segmentTemplate.getSize();
-        if (size == null || size.x() <= 0 || size.y() <= 0 || size.z() <= 0) {
-            // Handle invalid size, maybe return a zero-size area at origin or throw exception
-            plugin.getLogger().warning("Calculating potential bounds for segment " + segmentTemplate.getName() + " with invalid size: " + size);
-            Location zeroLoc = new Location(null, relativeOrigin.x(), relativeOrigin.y(), relativeOrigin.z());
-            return new Area(zeroLoc, zeroLoc); // Zero-size area
-        }
-
-        // Min corner is the relative origin itself
-        BlockVector3 minCornerBV3 = relativeOrigin;
-        // Max corner is relative origin + size - 1 (inclusive)
-        BlockVector3 maxCornerBV3 = relativeOrigin.add(size.subtract(1, 1, 1));
-
-        // Convert to relative Locations (null world)
-        Location relMinLoc = new Location(null, minCornerBV3.x(), minCornerBV3.y(), minCornerBV3.z());
-        Location relMaxLoc = new Location(null, maxCornerBV3.x(), maxCornerBV3.y(), maxCornerBV3.z());
-
-        // Create and return the Area
-        return new Area(relMinLoc, relMaxLoc);
+        occupancy.insert(origin.x(), origin.y(), origin.z(),
+                origin.x() + size.x() - 1, origin.y() + size.y() - 1, origin.z() + size.z() - 1);
     }
 
      /**
@@ -670,7 +687,7 @@ public class DungeonGenerator {
 
     /**
      * Iterates through all placed segments in the completed blueprint layout and consolidates
-     * the relative locations of all defined features (vaults, keys, spawns) into the final maps/lists
+     * the relative locations of all defined features (vaults, keys, spawns, doors) into the final maps/lists
      * used to construct the DungeonBlueprint object. Converts relative BlockVector3 offsets to relative Bukkit Vectors.
      * Called after DFS is complete.
      *
@@ -680,6 +697,9 @@ public class DungeonGenerator {
      * @param sandSpawnRelativeLocations   (Out) List to populate with relative sand spawn locations (Vector).
      * @param coinSpawnRelativeLocations   (Out) List to populate with relative coin spawn locations (Vector).
      * @param itemSpawnRelativeLocations   (Out) List to populate with relative item spawn locations (Vector).
+     * @param coinSpawnSegmentIndices      (Out) List to populate with the owning segment's index for each coin spawn.
+     * @param itemSpawnSegmentIndices      (Out) List to populate with the owning segment's index for each item spawn.
+     * @param doorPlacements               (Out) List to populate with segment doors positioned relative to the blueprint.
      */
     private void consolidateFeatureLocations(
             @NotNull List<PlacedSegment> placedSegments,
@@ -687,7 +707,10 @@ public class DungeonGenerator {
             @NotNull Map<VaultColor, Vector> keySpawnRelativeLocations,    // Map to populate
             @NotNull List<Vector> sandSpawnRelativeLocations,             // List to populate
             @NotNull List<Vector> coinSpawnRelativeLocations,             // List to populate
-            @NotNull List<Vector> itemSpawnRelativeLocations              // List to populate
+            @NotNull List<Vector> itemSpawnRelativeLocations,             // List to populate
+            @NotNull List<Integer> coinSpawnSegmentIndices,               // List to populate, parallel to coin spawns
+            @NotNull List<Integer> itemSpawnSegmentIndices,               // List to populate, parallel to item spawns
+            @NotNull List<DungeonBlueprint.DoorPlacement> doorPlacements // List to populate
             ) {
 
         // Clear output collections before populating
@@ -696,11 +719,15 @@ public class DungeonGenerator {
         sandSpawnRelativeLocations.clear();
         coinSpawnRelativeLocations.clear();
         itemSpawnRelativeLocations.clear();
+        coinSpawnSegmentIndices.clear();
+        itemSpawnSegmentIndices.clear();
+        doorPlacements.clear();
 
         plugin.getLogger().fine("Consolidating feature locations from " + placedSegments.size() + " placed segments...");
 
         // Iterate through each segment placed in the blueprint
-        for (PlacedSegment placedSegment : placedSegments) {
+        for (int segmentIndex = 0; segmentIndex < placedSegments.size(); segmentIndex++) {
+            PlacedSegment placedSegment = placedSegments.get(segmentIndex);
             Segment template = placedSegment.getSegmentTemplate();
             // Get the origin of this segment RELATIVE to the blueprint's 0,0,0
             Vector segmentRelativeOrigin = placedSegment.getWorldOrigin().toVector();
@@ -750,6 +777,7 @@ public class DungeonGenerator {
                 for (BlockVector3 offset : coinOffsets) {
                      if (offset != null) {
                          coinSpawnRelativeLocations.add(segmentRelativeOrigin.clone().add(new Vector(offset.x(), offset.y(), offset.z())));
+                         coinSpawnSegmentIndices.add(segmentIndex);
                      }
                  }
              }
@@ -760,13 +788,59 @@ public class DungeonGenerator {
                 for (BlockVector3 offset : itemOffsets) {
                      if (offset != null) {
                          itemSpawnRelativeLocations.add(segmentRelativeOrigin.clone().add(new Vector(offset.x(), offset.y(), offset.z())));
+                         itemSpawnSegmentIndices.add(segmentIndex);
                      }
                  }
              }
+
+            // --- Consolidate Segment Doors ---
+            for (Segment.RelativeDoor door : template.getDoors()) {
+                BlockVector3 min = door.getBoundsMin();
+                BlockVector3 max = door.getBoundsMax();
+                BlockVector3 lock = door.getLockOffset();
+                doorPlacements.add(new DungeonBlueprint.DoorPlacement(
+                        segmentRelativeOrigin.clone().add(new Vector(min.x(), min.y(), min.z())),
+                        segmentRelativeOrigin.clone().add(new Vector(max.x(), max.y(), max.z())),
+                        segmentRelativeOrigin.clone().add(new Vector(lock.x(), lock.y(), lock.z())),
+                        door.getMaterial()));
+            }
         }
         plugin.getLogger().fine("Feature consolidation complete.");
     }
 
+    private static int[] toIntArray(List<Integer> values) {
+        int[] array = new int[values.size()];
+        for (int i = 0; i < array.length; i++) array[i] = values.get(i);
+        return array;
+    }
+
+    /**
+     * Mutable state for a single generation attempt. Never shared between attempts,
+     * which is what lets candidates run concurrently.
+     */
+    private static final class GenerationContext {
+        final SegmentCatalog catalog;
+        final Random random;
+        final int candidateIndex;
+        final AtomicInteger bestValidCandidate; // Shared across the candidates of one generation
+        final List<PlacedSegment> placedSegments = new ArrayList<>();
+        final BlueprintOccupancyGrid occupancy = new BlueprintOccupancyGrid(); // Bounds of placed segments
+        final Set<VaultColor> keysPlaced = EnumSet.noneOf(VaultColor.class);   // Red, Green, Gold keys placed by DFS
+        final Set<VaultColor> vaultsPlaced = EnumSet.noneOf(VaultColor.class); // Vaults placed by DFS
+
+        GenerationContext(SegmentCatalog catalog, long randomSeed, int candidateIndex, AtomicInteger bestValidCandidate) {
+            this.catalog = catalog;
+            this.random = new Random(randomSeed);
+            this.candidateIndex = candidateIndex;
+            this.bestValidCandidate = bestValidCandidate;
+        }
+
+        /** @return true if a lower-index candidate has already produced a valid layout. */
+        boolean isSuperseded() {
+            return bestValidCandidate.get() < candidateIndex;
+        }
+    }
+
     // Helper class for depth ranges
     private static class MinMax {
         final int min;
@@ -0,0 +1,308 @@
+package com.clarkson.sot.dungeon;
+
+import com.clarkson.sot.dungeon.segment.PlacedSegment;
+import com.clarkson.sot.utils.BlockKeys;
+import com.sk89q.worldedit.math.BlockVector3;
+
+import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.logging.Level;
+
+/**
+ * Snapshot of one fully pasted dungeon instance, used to replicate it to the other teams' origins
+ * instead of pasting every segment schematic again for each team.
+ *
+ * Capturing takes a ChunkSnapshot (a copy of the chunk's section palettes) of every chunk the
+ * segments overlap, plus copies of their tile entity states, on the main thread. The snapshots are
+ * then decoded off-thread into the non-air blocks inside segment bounds, grouped by chunk section.
+ * Replicas commit those sections a batch at a time with physics disabled, then restore tile entities.
+ *
+ * Only the pasted structure is captured: floor items, sand and features are still set up per instance.
+ */
+public final class DungeonInstanceTemplate {
+
+    private final Plugin plugin;
+    private final Location sourceOrigin;
+    private final int sectionsPerStep;
+    private final CompletableFuture<Sections> sections;
+    private final List<CapturedTileState> tileStates;
+
+    private DungeonInstanceTemplate(Plugin plugin, Location sourceOrigin, int sectionsPerStep,
+                                    CompletableFuture<Sections> sections, List<CapturedTileState> tileStates) {
+        this.plugin = plugin;
+        this.sourceOrigin = sourceOrigin;
+        this.sectionsPerStep = Math.max(1, sectionsPerStep);
+        this.sections = sections;
+        this.tileStates = tileStates;
+    }
+
+    /**
+     * Captures a pasted instance. Must be called on the main thread, after all segments are pasted.
+     *
+     * @param plugin          The main plugin instance (for logging).
+     * @param sourceOrigin    The origin of the captured instance (with a valid world).
+     * @param placedSegments  The instance's segments, in absolute world coordinates.
+     * @param executor        Executor for decoding the snapshots.
+     * @param sectionsPerStep Chunk sections committed per replica step.
+     */
+    @NotNull
+    public static DungeonInstanceTemplate capture(@NotNull Plugin plugin, @NotNull Location sourceOrigin,
+                                                  @NotNull List<PlacedSegment> placedSegments,
+                                                  @NotNull Executor executor, int sectionsPerStep) {
+        World world = sourceOrigin.getWorld();
+        if (world == null) throw new IllegalArgumentException("Source origin must have a world");
+        int originX = sourceOrigin.getBlockX();
+        int originY = sourceOrigin.getBlockY();
+        int originZ = sourceOrigin.getBlockZ();
+
+        // Segment boxes relative to the source origin (inclusive bounds)
+        int[] boxes = new int[placedSegments.size() * 6];
+        Map<Long, ChunkSnapshot> snapshots = new HashMap<>();
+        List<CapturedTileState> tileStates = new ArrayList<>();
+        for (int i = 0; i < placedSegments.size(); i++) {
+            Location min = placedSegments.get(i).getWorldOrigin();
+            BlockVector3 size = placedSegments.get(i).getSegmentTemplate().getSize();
+            int minX = min.getBlockX(), minY = min.getBlockY(), minZ = min.getBlockZ();
+            int maxX = minX + size.x() - 1, maxY = minY + size.y() - 1, maxZ = minZ + size.z() - 1;
+            int offset = i * 6;
+            boxes[offset] = minX - originX;
+            boxes[offset + 1] = minY - originY;
+            boxes[offset + 2] = minZ - originZ;
+            boxes[offset + 3] = maxX - originX;
+            boxes[offset + 4] = maxY - originY;
+            boxes[offset + 5] = maxZ - originZ;
+
+            for (int cx = minX >> 4; cx <= maxX >> 4; cx++) {
+                for (int cz = minZ >> 4; cz <= maxZ >> 4; cz++) {
+                    long key = BlockKeys.packColumn(cx, cz);
+                    if (snapshots.containsKey(key)) continue;
+                    Chunk chunk = world.getChunkAt(cx, cz);
+                    snapshots.put(key, chunk.getChunkSnapshot(false, false, false));
+                    for (BlockState state : chunk.getTileEntities()) {
+                        tileStates.add(new CapturedTileState(state, state.getX() - originX, state.getY() - originY, state.getZ() - originZ));
+                    }
+                }
+            }
+        }
+        // Keep only tile entities that belong to a segment
+        tileStates.removeIf(tile -> !insideAnyBox(boxes, tile.dx, tile.dy, tile.dz));
+
+        CompletableFuture<Sections> sections = CompletableFuture.supplyAsync(
+                () -> Sections.decode(snapshots, boxes, originX, originY, originZ), executor);
+        plugin.getLogger().info("[DungeonInstanceTemplate] Captured " + snapshots.size() + " chunks and "
+                + tileStates.size() + " tile entities from instance at " + sourceOrigin.toVector());
+        return new DungeonInstanceTemplate(plugin, sourceOrigin.clone(), sectionsPerStep, sections, tileStates);
+    }
+
+    /**
+     * Creates a task that replicates the captured structure so that the source origin maps to {@code targetOrigin}.
+     * Steps report WAITING until the snapshots have been decoded.
+     */
+    @NotNull
+    public SegmentPaster.PasteTask createReplica(@NotNull Location targetOrigin) {
+        return new ReplicaTask(targetOrigin);
+    }
+
+    @NotNull
+    public Location getSourceOrigin() {
+        return sourceOrigin.clone();
+    }
+
+    private final class ReplicaTask implements SegmentPaster.PasteTask {
+        private final World world;
+        private final int targetX;
+        private final int targetY;
+        private final int targetZ;
+        @Nullable private Sections decoded;
+        private int nextSection;
+
+        ReplicaTask(Location targetOrigin) {
+            this.world = targetOrigin.getWorld();
+            this.targetX = targetOrigin.getBlockX();
+            this.targetY = targetOrigin.getBlockY();
+            this.targetZ = targetOrigin.getBlockZ();
+        }
+
+        @Override
+        public void prepare() {
+            // Decoding is shared by all replicas and was started at capture time
+        }
+
+        @Override
+        @NotNull
+        public SegmentPaster.PasteStatus step() {
+            if (decoded == null) {
+                if (!sections.isDone()) return SegmentPaster.PasteStatus.WAITING;
+                try {
+                    decoded = sections.join();
+                } catch (CompletionException e) {
+                    plugin.getLogger().log(Level.SEVERE, "[DungeonInstanceTemplate] Decoding instance snapshot failed.", e.getCause());
+                    return SegmentPaster.PasteStatus.FAILED;
+                }
+            }
+            if (world == null) return SegmentPaster.PasteStatus.FAILED;
+
+            int endSection = Math.min(nextSection + sectionsPerStep, decoded.sectionCount());
+            try {
+                decoded.commit(world, targetX, targetY, targetZ, nextSection, endSection);
+                nextSection = endSection;
+                if (nextSection < decoded.sectionCount()) return SegmentPaster.PasteStatus.IN_PROGRESS;
+                for (CapturedTileState tile : tileStates) {
+                    // Restores contents (chests, signs, spawners...); the block itself was already placed
+                    tile.state.copy(new Location(world, targetX + tile.dx, targetY + tile.dy, targetZ + tile.dz)).update(true, false);
+                }
+                return SegmentPaster.PasteStatus.DONE;
+            } catch (RuntimeException e) {
+                plugin.getLogger().log(Level.SEVERE, "[DungeonInstanceTemplate] Replicating instance to " + targetX + "," + targetY + "," + targetZ + " failed.", e);
+                return SegmentPaster.PasteStatus.FAILED;
+            }
+        }
+    }
+
+    private static boolean insideAnyBox(int[] boxes, int x, int y, int z) {
+        for (int offset = 0; offset < boxes.length; offset += 6) {
+            if (x >= boxes[offset] && x <= boxes[offset + 3]
+                    && y >= boxes[offset + 1] && y <= boxes[offset + 4]
+                    && z >= boxes[offset + 2] && z <= boxes[offset + 5]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Non-air blocks inside segment bounds, relative to the source origin and grouped by source chunk section.
+     * Blocks of section {@code s} occupy indices {@code [sectionStarts[s], sectionStarts[s + 1])}.
+     */
+    private static final class Sections {
+        private final int[] coords; // dx, dy, dz per block
+        private final BlockData[] blocks;
+        private final int[] sectionStarts;
+
+        private Sections(int[] coords, BlockData[] blocks, int[] sectionStarts) {
+            this.coords = coords;
+            this.blocks = blocks;
+            this.sectionStarts = sectionStarts;
+        }
+
+        int sectionCount() {
+            return sectionStarts.length - 1;
+        }
+
+        void commit(World world, int targetX, int targetY, int targetZ, int fromSection, int toSection) {
+            for (int i = sectionStarts[fromSection], end = sectionStarts[toSection]; i < end; i++) {
+                world.getBlockAt(targetX + coords[i * 3], targetY + coords[i * 3 + 1], targetZ + coords[i * 3 + 2])
+                        .setBlockData(blocks[i], false); // No physics or neighbour updates
+            }
+        }
+
+        /** Reads the snapshots section by section. Safe to run off the main thread. */
+        static Sections decode(Map<Long, ChunkSnapshot> snapshots, int[] boxes, int originX, int originY, int originZ) {
+            // Source sections touched by any segment box
+            Map<Long, int[]> sectionBoxes = new HashMap<>(); // section key -> indices of overlapping boxes
+            for (int b = 0; b < boxes.length / 6; b++) {
+                int o = b * 6;
+                for (int sx = (boxes[o] + originX) >> 4; sx <= (boxes[o + 3] + originX) >> 4; sx++) {
+                    for (int sy = (boxes[o + 1] + originY) >> 4; sy <= (boxes[o + 4] + originY) >> 4; sy++) {
+                        for (int sz = (boxes[o + 2] + originZ) >> 4; sz <= (boxes[o + 5] + originZ) >> 4; sz++) {
+                            long key = BlockKeys.pack(sx, sy, sz);
+                            int[] ids = sectionBoxes.get(key);
+                            sectionBoxes.put(key, ids == null ? new int[] { b } : appendInt(ids, b));
+                        }
+                    }
+                }
+            }
+            long[] keys = new long[sectionBoxes.size()];
+            int k = 0;
+            for (Long key : sectionBoxes.keySet()) keys[k++] = key;
+            Arrays.sort(keys); // Sections of one chunk column end up next to each other
+
+            int[] coords = new int[4096 * 3];
+            BlockData[] blocks = new BlockData[4096];
+            int[] sectionStarts = new int[keys.length + 1];
+            int count = 0;
+            for (int s = 0; s < keys.length; s++) {
+                sectionStarts[s] = count;
+                int sx = BlockKeys.unpackX(keys[s]), sy = BlockKeys.unpackY(keys[s]), sz = BlockKeys.unpackZ(keys[s]);
+                ChunkSnapshot snapshot = snapshots.get(BlockKeys.packColumn(sx, sz));
+                if (snapshot == null) continue;
+                int[] ids = sectionBoxes.get(keys[s]);
+                for (int id : ids) {
+                    int o = id * 6;
+                    // Clamp the box to this section, in absolute coordinates
+                    int minX = Math.max(boxes[o] + originX, sx << 4), maxX = Math.min(boxes[o + 3] + originX, (sx << 4) + 15);
+                    int minY = Math.max(boxes[o + 1] + originY, sy << 4), maxY = Math.min(boxes[o + 4] + originY, (sy << 4) + 15);
+                    int minZ = Math.max(boxes[o + 2] + originZ, sz << 4), maxZ = Math.min(boxes[o + 5] + originZ, (sz << 4) + 15);
+                    for (int x = minX; x <= maxX; x++) {
+                        for (int y = minY; y <= maxY; y++) {
+                            for (int z = minZ; z <= maxZ; z++) {
+                                if (claimedByEarlierBox(boxes, ids, id, x - originX, y - originY, z - originZ)) continue;
+                                if (snapshot.getBlockType(x & 15, y, z & 15).isAir()) continue; // ignoreAirBlocks
+                                if (count == blocks.length) {
+                                    blocks = Arrays.copyOf(blocks, count * 2);
+                                    coords = Arrays.copyOf(coords, count * 6);
+                                }
+                                coords[count * 3] = x - originX;
+                                coords[count * 3 + 1] = y - originY;
+                                coords[count * 3 + 2] = z - originZ;
+                                blocks[count++] = snapshot.getBlockData(x & 15, y, z & 15);
+                            }
+                        }
+                    }
+                }
+            }
+            sectionStarts[keys.length] = count;
+            return new Sections(Arrays.copyOf(coords, count * 3), Arrays.copyOf(blocks, count), sectionStarts);
+        }
+
+        /** Avoids emitting a block twice where segment boxes touch or overlap. */
+        private static boolean claimedByEarlierBox(int[] boxes, int[] ids, int currentId, int x, int y, int z) {
+            for (int id : ids) {
+                if (id == currentId) return false;
+                int o = id * 6;
+                if (x >= boxes[o] && x <= boxes[o + 3] && y >= boxes[o + 1] && y <= boxes[o + 4]
+                        && z >= boxes[o + 2] && z <= boxes[o + 5]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static int[] appendInt(int[] array, int value) {
+            int[] grown = Arrays.copyOf(array, array.length + 1);
+            grown[array.length] = value;
+            return grown;
+        }
+    }
+
+    /** A tile entity state copied at capture time, with its offset from the source origin. */
+    private static final class CapturedTileState {
+        final BlockState state;
+        final int dx;
+        final int dy;
+        final int dz;
+
+        CapturedTileState(BlockState state, int dx, int dy, int dz) {
+            this.state = state;
+            this.dx = dx;
+            this.dy = dy;
+            this.dz = dz;
+        }
+    }
+}
@@ -3,11 +3,13 @@ package com.clarkson.sot.dungeon;
 // Local project imports
 import com.clarkson.sot.dungeon.segment.PlacedSegment;
 import com.clarkson.sot.dungeon.segment.Segment;
-import com.clarkson.sot.entities.Area;
+import com.clarkson.sot.entities.FloorItem;
 import com.clarkson.sot.events.FloorItemManager;
 import com.clarkson.sot.main.GameManager;
+import com.clarkson.sot.utils.SchematicCache;
 
 // Bukkit/WorldEdit imports
+import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.World;
@@ -21,16 +23,9 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 // WorldEdit imports for pasting & cleanup
-import com.sk89q.worldedit.WorldEdit;
 import com.sk89q.worldedit.bukkit.BukkitAdapter;
 import com.sk89q.worldedit.extent.clipboard.Clipboard;
-import com.sk89q.worldedit.extent.clipboard.io.ClipboardFormat;
-import com.sk89q.worldedit.extent.clipboard.io.ClipboardFormats;
-import com.sk89q.worldedit.extent.clipboard.io.ClipboardReader;
-import com.sk89q.worldedit.session.ClipboardHolder;
 import com.sk89q.worldedit.EditSession;
-import com.sk89q.worldedit.function.operation.Operation;
-import com.sk89q.worldedit.function.operation.Operations;
 import com.sk89q.worldedit.WorldEditException;
 import com.sk89q.worldedit.regions.CuboidRegion; // Import CuboidRegion
 import com.sk89q.worldedit.regions.Region; // Import Region
@@ -38,10 +33,9 @@ import com.sk89q.worldedit.world.block.BlockTypes; // Import BlockTypes
 
 
 // Java imports
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
 import java.util.logging.Level;
 import java.util.stream.Collectors;
 
@@ -59,6 +53,8 @@ public class DungeonManager {
     private final VaultManager vaultManager;
     private final FloorItemManager floorItemManager;
     private final DoorManager doorManager;
+    private final SchematicCache schematicCache; // Shared, read-only clipboards
+    private final SegmentPaster segmentPaster; // Paste backend (fast or plain WorldEdit)
     private final Random random; // Added for probabilities
 
     // --- Instance State ---
@@ -67,12 +63,50 @@ public class DungeonManager {
     private final World world;
     private final DungeonBlueprint blueprintData; // The relative blueprint used
     private final List<PlacedSegment> placedSegmentsInWorld; // Actual segments placed in the world
+    private volatile SegmentLocator segmentLocator = SegmentLocator.empty(); // Built over placedSegmentsInWorld once pasting is done
     // --- Constants ---
     private static final double SAND_SPAWN_CHANCE = 0.4; // Example: 40% chance for sand to spawn at a location
 
     // The consolidated data object with ABSOLUTE locations for this instance
     private Dungeon dungeonData;
 
+    // --- Staged Build State (see beginBuild) ---
+    /** Stages of an instance build, in execution order. */
+    public enum BuildStage { PASTE, FEATURES, FLOOR_ITEMS, TELEPORT, COMPLETE, FAILED }
+    private static final int FEATURE_STEP_COUNT = 3; // Dungeon data, vaults/keys, doors
+    private static final int PASTE_PREPARE_AHEAD = 3; // Segments whose paste is prepared off-thread ahead of the current one
+    @Nullable private BuildStage buildStage; // null until a build is started
+    private int stageCursor; // Index of the next step within the current stage
+    private int buildStepsDone;
+    private int buildStepsTotal;
+    private int pasteFailures;
+    private SegmentPaster.PasteTask[] pasteTasks; // Per blueprint segment, created lazily
+    private boolean awaitingAsyncWork; // Last step could not progress until off-thread work finishes
+    private boolean pasteStarted; // A paste step ran since the last cleanup, so blocks may have been written
+
+    private int sandPlacedCount;
+    private List<UUID> playersToTeleport = Collections.emptyList();
+    // Absolute feature locations computed at build start
+    private Map<VaultColor, Location> absVaultMarkers;
+    private Map<VaultColor, Location> absKeySpawns;
+    private List<Location> absSandSpawns;
+    private List<Location> absCoinSpawns;
+    private List<Location> absItemSpawns;
+    private Location absHubLocation;
+
+    // --- Instancing (see useAsInstanceSource / replicateFrom) ---
+    private int templateSectionsPerStep; // > 0 if this instance should be captured as a template after pasting
+    @Nullable private DungeonInstanceTemplate instanceTemplate; // Captured from this instance
+    @Nullable private DungeonManager instanceSource; // Instance to replicate instead of pasting schematics
+    @Nullable private SegmentPaster.PasteTask replicaTask;
+
+    // --- Cleanup (see beginCleanup) ---
+    private static final int CLEANUP_SLAB_HEIGHT = 8; // Layers of a segment box cleared per cleanup step
+    private final Set<UUID> spawnedEntityIds; // Entities spawned for this instance, removed on cleanup
+    private final Set<Location> changedBlocks; // Blocks set after pasting (sand, vault markers), reset to air on cleanup
+    @Nullable private List<int[]> cleanupBoxes; // Pending inclusive boxes {minX, minY, minZ, maxX, maxY, maxZ}
+    private int cleanupCursor;
+
     /**
      * Constructor for a team's specific DungeonManager instance.
      * Retrieves dependent managers from GameManager.
@@ -91,76 +125,255 @@ public class DungeonManager {
         this.vaultManager = Objects.requireNonNull(gameManager.getVaultManager(), "VaultManager cannot be null via GameManager");
         this.floorItemManager = Objects.requireNonNull(gameManager.getFloorItemManager(), "FloorItemManager cannot be null via GameManager");
         this.doorManager = Objects.requireNonNull(gameManager.getDoorManager(), "DoorManager cannot be null via GameManager");
+        this.schematicCache = Objects.requireNonNull(gameManager.getSchematicCache(), "SchematicCache cannot be null via GameManager");
+        this.segmentPaster = Objects.requireNonNull(gameManager.getSegmentPaster(), "SegmentPaster cannot be null via GameManager");
         this.teamId = Objects.requireNonNull(teamId, "Team ID cannot be null");
         this.dungeonOrigin = Objects.requireNonNull(dungeonOrigin, "Dungeon origin cannot be null");
         this.world = Objects.requireNonNull(dungeonOrigin.getWorld(), "Dungeon origin must have a valid world");
         this.blueprintData = Objects.requireNonNull(blueprintData, "Dungeon blueprint cannot be null");
 
         this.placedSegmentsInWorld = new ArrayList<>();
+        this.spawnedEntityIds = ConcurrentHashMap.newKeySet();
+        this.changedBlocks = ConcurrentHashMap.newKeySet();
         this.dungeonData = null;
         this.random = new Random(); // Initialize Random
     }
+
+    // --- Staged Build ---
+
     /**
-     * Initializes the dungeon instance in the world.
-     * 1. Calculates absolute locations for features.
-     * 2. Pastes segments based on the absolute locations.
-     * 3. Creates the Dungeon data object.
-     * 4. Initializes Vaults, Keys, Doors, and FloorItems using their respective managers.
+     * Prepares a staged build of this instance. Work is then performed one small step at a time via
+     * {@link #runNextBuildStep()}, in the order:
+     * 1. PASTE: one batch of a segment schematic per step (see SegmentPaster); the next few segments are prepared off-thread meanwhile.
+     * 2. FEATURES: create the Dungeon data object, then initialize Vaults/Keys, then Doors.
+     * 3. FLOOR_ITEMS: one coin, generic item or sand location per step.
+     * 4. TELEPORT: one team member per step, to this instance's hub.
      *
-     * @return true if initialization was generally successful, false otherwise.
+     * @param playersToTeleport Players to move to the hub once the instance is built.
+     * @return true if the build was prepared, false if a build is already in progress.
      */
-    public boolean initializeInstance() {
+    public boolean beginBuild(@NotNull Collection<UUID> playersToTeleport) {
+        if (buildStage != null && buildStage != BuildStage.COMPLETE && buildStage != BuildStage.FAILED) {
+            plugin.getLogger().warning("Build already in progress for team " + teamId + " (stage " + buildStage + ")");
+            return false;
+        }
         plugin.getLogger().info("Initializing dungeon instance for team " + teamId + " at origin " + dungeonOrigin.toVector());
 
-        // --- 1. Calculate Absolute Locations ---
-        Map<VaultColor, Location> absVaultMarkers = calculateAbsoluteLocations(blueprintData.getVaultMarkerRelativeLocations());
-        Map<VaultColor, Location> absKeySpawns = calculateAbsoluteLocations(blueprintData.getKeySpawnRelativeLocations());
-        List<Location> absSandSpawns = calculateAbsoluteLocations(blueprintData.getSandSpawnRelativeLocations());
-        List<Location> absCoinSpawns = calculateAbsoluteLocations(blueprintData.getCoinSpawnRelativeLocations());
-        List<Location> absItemSpawns = calculateAbsoluteLocations(blueprintData.getItemSpawnRelativeLocations());
-        Location absHubLocation = dungeonOrigin.clone().add(blueprintData.getHubRelativeLocation());
+        // --- Calculate Absolute Locations ---
+        this.absVaultMarkers = calculateAbsoluteLocations(blueprintData.getVaultMarkerRelativeLocations());
+        this.absKeySpawns = calculateAbsoluteLocations(blueprintData.getKeySpawnRelativeLocations());
+        this.absSandSpawns = calculateAbsoluteLocations(blueprintData.getSandSpawnRelativeLocations());
+        this.absCoinSpawns = calculateAbsoluteLocations(blueprintData.getCoinSpawnRelativeLocations());
+        this.absItemSpawns = calculateAbsoluteLocations(blueprintData.getItemSpawnRelativeLocations());
+        this.absHubLocation = dungeonOrigin.clone().add(blueprintData.getHubRelativeLocation());
 
+        this.playersToTeleport = new ArrayList<>(playersToTeleport);
+        this.placedSegmentsInWorld.clear();
+        this.segmentLocator = SegmentLocator.empty();
+        this.pasteFailures = 0;
+        this.pasteTasks = new SegmentPaster.PasteTask[blueprintData.getRelativeSegments().size()];
+        this.awaitingAsyncWork = false;
+        this.sandPlacedCount = 0;
+        this.buildStage = BuildStage.PASTE;
+        this.stageCursor = 0;
+        this.buildStepsDone = 0;
+        this.buildStepsTotal = blueprintData.getRelativeSegments().size() + FEATURE_STEP_COUNT
+                + absCoinSpawns.size() + absItemSpawns.size() + absSandSpawns.size() + this.playersToTeleport.size();
+        return true;
+    }
+
+    /**
+     * Performs the next unit of build work. Must be called on the main server thread.
+     * @return true if more steps remain, false once the build is COMPLETE or FAILED.
+     */
+    public boolean runNextBuildStep() {
+        awaitingAsyncWork = false;
+        if (buildStage == null || buildStage == BuildStage.COMPLETE || buildStage == BuildStage.FAILED) {
+            return false;
+        }
+        switch (buildStage) {
+            case PASTE -> runPasteStep();
+            case FEATURES -> runFeatureStep();
+            case FLOOR_ITEMS -> runFloorItemStep();
+            case TELEPORT -> runTeleportStep();
+            default -> { }
+        }
+        return buildStage != BuildStage.COMPLETE && buildStage != BuildStage.FAILED;
+    }
+
+    /**
+     * @return true if the last build step made no progress because it is waiting on off-thread work.
+     * Callers spreading the build over ticks should stop stepping this instance until the next tick.
+     */
+    public boolean isAwaitingAsyncWork() {
+        return awaitingAsyncWork;
+    }
+
+    /**
+     * Captures this instance as a DungeonInstanceTemplate once all its segments are pasted,
+     * so other teams' instances can replicate it. Call before the build starts.
+     * @param sectionsPerStep Chunk sections committed per step by replicas.
+     */
+    public void useAsInstanceSource(int sectionsPerStep) {
+        this.templateSectionsPerStep = Math.max(1, sectionsPerStep);
+    }
+
+    /**
+     * Builds this instance by replicating the source instance's template instead of pasting
+     * schematics. The source must be built first (e.g. submitted earlier to the same pipeline);
+     * if it has no template by then, segments are pasted normally. Call before the build starts.
+     */
+    public void replicateFrom(@NotNull DungeonManager source) {
+        if (source.blueprintData != this.blueprintData) {
+            throw new IllegalArgumentException("Instances can only be replicated from the same blueprint");
+        }
+        this.instanceSource = source;
+    }
+
+    /** @return The template captured from this instance, or null if none was captured. */
+    @Nullable
+    public DungeonInstanceTemplate getInstanceTemplate() {
+        return instanceTemplate;
+    }
+
+    /** Marks the current build as failed, e.g. after an unexpected exception in a build step. */
+    public void failBuild() {
+        if (buildStage != BuildStage.COMPLETE) {
+            buildStage = BuildStage.FAILED;
+        }
+    }
+
+    private void advanceStage(@NotNull BuildStage next) {
+        buildStage = next;
+        stageCursor = 0;
+    }
+
+    /** Advances the paste of the current segment (or the instance replica) by one batch. */
+    private void runPasteStep() {
+        pasteStarted = true;
+        List<PlacedSegment> relativeSegments = blueprintData.getRelativeSegments();
+        if (stageCursor == 0 && instanceSource != null && runReplicaStep()) {
+            return;
+        }
+        if (stageCursor >= relativeSegments.size()) {
+            if (pasteFailures > 0) {
+                plugin.getLogger().severe("Failed to paste " + pasteFailures + " schematic(s) for team " + teamId);
+                buildStage = BuildStage.FAILED;
+                return;
+            }
+            plugin.getLogger().info("Pasted all " + placedSegmentsInWorld.size() + " segment schematics for team " + teamId);
+            if (templateSectionsPerStep > 0 && instanceTemplate == null) {
+                instanceTemplate = DungeonInstanceTemplate.capture(plugin, dungeonOrigin, placedSegmentsInWorld,
+                        ForkJoinPool.commonPool(), templateSectionsPerStep);
+            }
+            advanceStage(BuildStage.FEATURES);
+            return;
+        }
+        // Let the paster prepare the upcoming segments off-thread while this one is committed
+        for (int i = stageCursor; i < Math.min(stageCursor + PASTE_PREPARE_AHEAD, relativeSegments.size()); i++) {
+            SegmentPaster.PasteTask upcoming = getPasteTask(i);
+            if (upcoming != null) upcoming.prepare();
+        }
 
-        // --- 2. Paste Schematics (Populates placedSegmentsInWorld) ---
-        if (!pasteSegmentSchematics()) {
-             plugin.getLogger().severe("Failed to paste one or more schematics for team " + teamId);
-             return false;
+        PlacedSegment blueprintSegment = relativeSegments.get(stageCursor);
+        SegmentPaster.PasteTask task = getPasteTask(stageCursor);
+        SegmentPaster.PasteStatus status = task != null ? task.step() : SegmentPaster.PasteStatus.FAILED;
+        switch (status) {
+            case WAITING -> awaitingAsyncWork = true;
+            case IN_PROGRESS -> { }
+            case DONE, FAILED -> {
+                pasteTasks[stageCursor++] = null; // Release prepared block data
+                buildStepsDone++;
+                if (status == SegmentPaster.PasteStatus.DONE) {
+                    PlacedSegment worldSegment = new PlacedSegment(blueprintSegment.getSegmentTemplate(),
+                            toAbsoluteLocation(blueprintSegment), blueprintSegment.getDepth());
+                    this.placedSegmentsInWorld.add(worldSegment);
+                    plugin.getLogger().finer("Pasted segment " + worldSegment.getName() + " for team " + teamId + " at " + worldSegment.getWorldOrigin().toVector());
+                } else {
+                    plugin.getLogger().severe("Failed to paste schematic '" + blueprintSegment.getSegmentTemplate().getSchematicFileName() + "' for team " + teamId);
+                    pasteFailures++; // Mark failure but continue pasting others
+                }
+            }
         }
-        plugin.getLogger().info("Pasted all " + placedSegmentsInWorld.size() + " segment schematics for team " + teamId);
-
-
-        // --- 3. Create Dungeon Data Object ---
-        // Now created *after* pasting. Uses the calculated absolute locations.
-        // The Dungeon constructor no longer takes the PlacedSegment list.
-         try {
-            this.dungeonData = new Dungeon(
-                teamId, world, dungeonOrigin, blueprintData, // Pass blueprint ref
-                absHubLocation, absVaultMarkers, absKeySpawns,
-                absSandSpawns, absCoinSpawns, absItemSpawns
-            );
-             plugin.getLogger().info("Created Dungeon data object for team " + teamId);
-         } catch (Exception e) {
-             plugin.getLogger().log(Level.SEVERE, "Exception creating Dungeon data object for team " + teamId, e);
-             return false;
-         }
-
-
-        // --- 4. Initialize Features using Managers ---
-        // These managers use the absolute locations stored in dungeonData
+    }
+
+    /** Runs one feature initialization step (data object, vaults/keys, doors). */
+    private void runFeatureStep() {
+        int step = stageCursor++;
+        buildStepsDone++;
         try {
-            vaultManager.initializeForInstance(this.dungeonData);
-            doorManager.initializeDoorsForInstance(this.dungeonData); // Initialize doors
-            populateFloorItems(); // Spawn floor items
+            switch (step) {
+                case 0 -> {
+                    // Create Dungeon Data Object *after* pasting, using the calculated absolute locations
+                    this.segmentLocator = SegmentLocator.build(world, placedSegmentsInWorld);
+                    this.dungeonData = new Dungeon(
+                        teamId, world, dungeonOrigin, blueprintData, // Pass blueprint ref
+                        absHubLocation, absVaultMarkers, absKeySpawns,
+                        absSandSpawns, absCoinSpawns, absItemSpawns,
+                        segmentLocator
+                    );
+                    plugin.getLogger().info("Created Dungeon data object for team " + teamId);
+                }
+                // These managers use the absolute locations stored in dungeonData
+                case 1 -> {
+                    vaultManager.initializeForInstance(this.dungeonData);
+                    for (Location marker : absVaultMarkers.values()) trackChangedBlock(marker);
+                }
+                case 2 -> {
+                    doorManager.initializeDoorsForInstance(this.dungeonData); // Initialize doors
+                    plugin.getLogger().fine("Populating floor items for team " + teamId + " instance " + dungeonData.getInstanceId());
+                    advanceStage(BuildStage.FLOOR_ITEMS);
+                }
+                default -> advanceStage(BuildStage.FLOOR_ITEMS);
+            }
         } catch (Exception e) {
-             plugin.getLogger().log(Level.SEVERE, "Error during feature manager initialization for team " + teamId, e);
-             return false;
+            plugin.getLogger().log(Level.SEVERE, "Error during feature manager initialization for team " + teamId, e);
+            buildStage = BuildStage.FAILED;
         }
+    }
 
-        plugin.getLogger().info("Successfully initialized dungeon instance for team " + teamId);
-        return true;
+    /** Spawns one coin or generic item, or rolls one sand location. */
+    private void runFloorItemStep() {
+        int index = stageCursor++;
+        int coinCount = absCoinSpawns.size();
+        int itemCount = absItemSpawns.size();
+        if (index < coinCount) {
+            spawnCoinAt(index);
+        } else if (index < coinCount + itemCount) {
+            spawnItemAt(index - coinCount);
+        } else if (index < coinCount + itemCount + absSandSpawns.size()) {
+            if (placeSandAt(absSandSpawns.get(index - coinCount - itemCount))) sandPlacedCount++;
+        } else {
+            plugin.getLogger().fine("Placed " + sandPlacedCount + " sand blocks out of " + absSandSpawns.size() + " potential locations.");
+            plugin.getLogger().fine("Finished populating floor items for team " + teamId);
+            plugin.getLogger().info("Successfully initialized dungeon instance for team " + teamId);
+            advanceStage(BuildStage.TELEPORT);
+            return;
+        }
+        buildStepsDone++;
     }
 
-    // createDungeonDataObject() removed as logic moved into initializeInstance()
+    /** Teleports one team member to this instance's hub. */
+    private void runTeleportStep() {
+        if (stageCursor >= playersToTeleport.size()) {
+            playersToTeleport = Collections.emptyList();
+            buildStage = BuildStage.COMPLETE;
+            return;
+        }
+        UUID memberId = playersToTeleport.get(stageCursor++);
+        buildStepsDone++;
+        Location hubLocation = dungeonData != null ? dungeonData.getHubLocation() : null;
+        Player player = Bukkit.getPlayer(memberId);
+        if (hubLocation == null || player == null || !player.isValid()) {
+            return;
+        }
+        Location teleportTarget = hubLocation.add(0.5, 0.1, 0.5);
+        teleportTarget.setYaw(player.getLocation().getYaw());
+        teleportTarget.setPitch(0);
+        player.teleport(teleportTarget);
+    }
+
+    // createDungeonDataObject() removed as logic moved into the FEATURES build stage
 
     /** Helper to convert relative map to absolute map */
     private Map<VaultColor, Location> calculateAbsoluteLocations(Map<VaultColor, Vector> relativeMap) {
@@ -179,284 +392,312 @@ public class DungeonManager {
     }
 
 
-    /** Pastes all segment schematics into the world using a single EditSession. */
-    private boolean pasteSegmentSchematics() {
-        this.placedSegmentsInWorld.clear();
-        boolean overallSuccess = true; // Track if any paste fails
-
-        // Adapt world once
-        com.sk89q.worldedit.world.World weWorld = BukkitAdapter.adapt(world);
-
-        // Create a single EditSession for all paste operations in this instance
-        try (EditSession editSession = WorldEdit.getInstance().newEditSessionBuilder().world(weWorld).build()) {
-            for (PlacedSegment blueprintSegment : blueprintData.getRelativeSegments()) {
-                Segment template = blueprintSegment.getSegmentTemplate();
-                Vector relativeOriginVec = blueprintSegment.getWorldOrigin().toVector();
-                Location absoluteOriginLoc = dungeonOrigin.clone().add(relativeOriginVec);
-
-                // Call pasting logic, passing the single EditSession
-                boolean success = pasteSchematic(template, absoluteOriginLoc, editSession); // Pass session
-                if (!success) {
-                    plugin.getLogger().severe("Failed to paste schematic '" + template.getSchematicFileName() + "' for team " + teamId + " at " + absoluteOriginLoc.toVector());
-                    overallSuccess = false; // Mark failure but continue pasting others if desired
-                    // return false; // Option: Stop immediately on first failure
-                } else {
-                     // Only add to placedSegmentsInWorld if successfully pasted
-                     PlacedSegment worldSegment = new PlacedSegment(template, absoluteOriginLoc, blueprintSegment.getDepth());
-                     this.placedSegmentsInWorld.add(worldSegment);
-                     plugin.getLogger().finer("Pasted segment " + template.getName() + " for team " + teamId + " at " + absoluteOriginLoc.toVector());
+    /**
+     * Replicates the source instance's template instead of pasting segments.
+     * @return true if this step was handled by the replica; false to paste schematics normally
+     *         (no template available, or replication failed).
+     */
+    private boolean runReplicaStep() {
+        if (replicaTask == null) {
+            DungeonInstanceTemplate template = instanceSource.getInstanceTemplate();
+            if (template == null) {
+                plugin.getLogger().warning("Instance source for team " + teamId + " has no template; pasting schematics instead.");
+                instanceSource = null;
+                return false;
+            }
+            replicaTask = template.createReplica(dungeonOrigin);
+        }
+        SegmentPaster.PasteStatus status = replicaTask.step();
+        switch (status) {
+            case WAITING -> awaitingAsyncWork = true;
+            case IN_PROGRESS -> { }
+            case DONE -> {
+                replicaTask = null;
+                instanceSource = null;
+                for (PlacedSegment blueprintSegment : blueprintData.getRelativeSegments()) {
+                    placedSegmentsInWorld.add(new PlacedSegment(blueprintSegment.getSegmentTemplate(),
+                            toAbsoluteLocation(blueprintSegment), blueprintSegment.getDepth()));
+                    pasteSegmentEntities(blueprintSegment);
                 }
+                stageCursor = blueprintData.getRelativeSegments().size();
+                buildStepsDone += stageCursor;
+                plugin.getLogger().info("Replicated dungeon instance for team " + teamId + " from template.");
+            }
+            case FAILED -> {
+                plugin.getLogger().warning("Replicating dungeon instance for team " + teamId + " failed; pasting schematics instead.");
+                replicaTask = null;
+                instanceSource = null;
+                return false;
             }
-            // Optional: Flush the session once after all operations are queued
-            // Operations are usually completed implicitly when the try-with-resources block closes the session.
-            // editSession.flushSession();
-            plugin.getLogger().fine("Completed pasting operations for team " + teamId);
-
-        } catch (Exception e) { // Catch unexpected errors
-             plugin.getLogger().log(Level.SEVERE, "Unexpected error during paste session for team " + teamId, e);
-             return false;
         }
-
-        return overallSuccess; // Return true only if all pastes succeeded
+        return true;
     }
 
     /**
-     * Pastes a single schematic using WorldEdit within a provided EditSession.
-     * @param template The segment template containing schematic info.
-     * @param pasteOrigin The absolute world location to paste the schematic at.
-     * @param editSession The EditSession to use for the paste operation.
-     * @return true if pasting was successful, false otherwise.
+     * Gets (creating on first use) the paste task for a blueprint segment.
+     * @return The task, or null if the segment's schematic could not be loaded.
      */
-    private boolean pasteSchematic(Segment template, Location pasteOrigin, EditSession editSession) { // Added EditSession parameter
-        File schematicDir = new File(plugin.getDataFolder(), "schematics");
-        File schematicFile = new File(schematicDir, template.getSchematicFileName());
+    @Nullable
+    private SegmentPaster.PasteTask getPasteTask(int segmentIndex) {
+        SegmentPaster.PasteTask task = pasteTasks[segmentIndex];
+        if (task == null) {
+            PlacedSegment blueprintSegment = blueprintData.getRelativeSegments().get(segmentIndex);
+            // Shared clipboard from the plugin-wide cache (parsed once per file version, not once per team)
+            Clipboard clipboard = schematicCache.get(blueprintSegment.getSegmentTemplate().getSchematicFileName());
+            if (clipboard == null) {
+                return null; // SchematicCache logs the reason
+            }
+            Location pasteOrigin = toAbsoluteLocation(blueprintSegment);
+            task = segmentPaster.createPaste(clipboard, BukkitAdapter.adapt(world),
+                    BlockVector3.at(pasteOrigin.getBlockX(), pasteOrigin.getBlockY(), pasteOrigin.getBlockZ()),
+                    this::trackSpawnedEntity); // Schematic entities are removed with the instance
+            pasteTasks[segmentIndex] = task;
+        }
+        return task;
+    }
 
-        if (!schematicFile.exists()) {
-            plugin.getLogger().severe("Schematic file not found: " + schematicFile.getPath());
-            return false;
+    /** Pastes the entities of a segment's schematic; replicas copy blocks only. */
+    private void pasteSegmentEntities(@NotNull PlacedSegment blueprintSegment) {
+        Clipboard clipboard = schematicCache.get(blueprintSegment.getSegmentTemplate().getSchematicFileName());
+        if (clipboard == null || clipboard.getEntities().isEmpty()) return;
+        Location pasteOrigin = toAbsoluteLocation(blueprintSegment);
+        if (!segmentPaster.pasteEntities(clipboard, BukkitAdapter.adapt(world),
+                BlockVector3.at(pasteOrigin.getBlockX(), pasteOrigin.getBlockY(), pasteOrigin.getBlockZ()), this::trackSpawnedEntity)) {
+            plugin.getLogger().warning("Failed to paste entities of '" + blueprintSegment.getSegmentTemplate().getSchematicFileName() + "' for team " + teamId);
         }
+    }
+
+    /** Converts a blueprint segment's relative origin to this instance's absolute location. */
+    @NotNull
+    private Location toAbsoluteLocation(@NotNull PlacedSegment blueprintSegment) {
+        return dungeonOrigin.clone().add(blueprintSegment.getWorldOrigin().toVector());
+    }
 
+
+    /** Spawns the blueprint's coin {@code index}, with the depth and value precomputed for it by the blueprint. */
+    private void spawnCoinAt(int index) {
+        Location absLoc = absCoinSpawns.get(index);
+        if (absLoc == null) return;
         try {
-            ClipboardFormat format = ClipboardFormats.findByFile(schematicFile);
-            if (format == null) {
-                 plugin.getLogger().severe("Unknown schematic format: " + schematicFile.getName());
-                 return false;
-            }
-            try (ClipboardReader reader = format.getReader(new FileInputStream(schematicFile))) {
-                Clipboard clipboard = reader.read();
-
-                // --- Use the provided EditSession ---
-                // No need to create a new one here
-                Operation operation = new ClipboardHolder(clipboard)
-                        .createPaste(editSession) // Use passed-in session
-                        .to(BlockVector3.at(pasteOrigin.getBlockX(), pasteOrigin.getBlockY(), pasteOrigin.getBlockZ()))
-                        .ignoreAirBlocks(true) // Paste non-air blocks
-                        .build();
-                Operations.complete(operation); // Queue and complete the operation within the session
-                // --- Removed the local EditSession try-with-resources block ---
-            }
-            return true;
-        } catch (IOException | WorldEditException e) {
-             plugin.getLogger().log(Level.SEVERE, "Failed to paste schematic " + template.getSchematicFileName() + " at " + pasteOrigin.toVector(), e);
-             return false;
+            int depth = blueprintData.getCoinSpawnDepth(index);
+            int baseValue = blueprintData.getCoinSpawnValue(index);
+            trackSpawnedEntity(floorItemManager.spawnCoinStack(absLoc, baseValue, teamId, dungeonData.getInstanceId(), depth));
         } catch (Exception e) {
-            plugin.getLogger().log(Level.SEVERE, "Unexpected error pasting schematic " + template.getSchematicFileName(), e);
-            return false;
+            plugin.getLogger().log(Level.WARNING, "Error processing coin spawn at " + absLoc + " for team " + teamId, e);
         }
     }
 
+    /** Spawns a generic floor item at the blueprint's item spawn {@code index}. */
+    private void spawnItemAt(int index) {
+        Location absLoc = absItemSpawns.get(index);
+        if (absLoc == null) return;
+        try {
+            int depth = blueprintData.getItemSpawnDepth(index);
+            trackSpawnedEntity(floorItemManager.spawnGenericItem(absLoc, teamId, dungeonData.getInstanceId(), depth));
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.WARNING, "Error processing item spawn at " + absLoc + " for team " + teamId, e);
+        }
+    }
 
     /**
-     * Spawns floor items (Coins, Generic Items) using the FloorItemManager
-     * and places Sand blocks probabilistically based on the absolute locations
-     * stored in the `dungeonData` object. Called by `initializeInstance`.
+     * Places a sand block at the location with SAND_SPAWN_CHANCE, if the block is replaceable.
+     * @return true if sand was placed.
      */
-    private void populateFloorItems() {
-        // Ensure data is ready
-        if (dungeonData == null) {
-            plugin.getLogger().severe("Cannot populate floor items: Dungeon data object is null for team " + teamId);
-            return;
-        }
-        if (floorItemManager == null) {
-             plugin.getLogger().severe("Cannot populate floor items: FloorItemManager is null!");
-             // Possibly throw an exception or return early depending on how critical floor items are
-             return;
-        }
-
-        plugin.getLogger().fine("Populating floor items for team " + teamId + " instance " + dungeonData.getInstanceId());
-        UUID instanceUUID = dungeonData.getInstanceId();
-
-        // --- Populate Coins ---
-        List<Location> coinLocs = dungeonData.getCoinSpawnLocations();
-        if (coinLocs != null && !coinLocs.isEmpty()) {
-            plugin.getLogger().finer("Processing " + coinLocs.size() + " potential coin spawn locations.");
-            for (Location absLoc : coinLocs) {
-                if (absLoc == null) continue;
-                try {
-                    int depth = dungeonData.getDepthAtLocation(absLoc, this.placedSegmentsInWorld);
-                    int baseValue = 5 + (depth / 2);
-                    floorItemManager.spawnCoinStack(absLoc, baseValue, teamId, instanceUUID, depth);
-                } catch (Exception e) {
-                    plugin.getLogger().log(Level.WARNING, "Error processing coin spawn at " + absLoc + " for team " + teamId, e);
+    private boolean placeSandAt(@Nullable Location absLoc) {
+        if (absLoc == null) return false;
+        try {
+            // Check probability
+            if (random.nextDouble() < SAND_SPAWN_CHANCE) {
+                Block block = absLoc.getBlock();
+                // Place sand if the block is replaceable (air, water, maybe tall grass etc.)
+                if (block.isPassable() || block.getType().isAir() || block.isLiquid()) {
+                    block.setType(Material.SAND, false); // false = don't cause physics updates yet
+                    trackChangedBlock(absLoc);
+                    return true;
                 }
+                plugin.getLogger().finer("Skipped sand placement at " + absLoc.toVector() + ": Block not replaceable (" + block.getType() + ")");
             }
-        } else {
-             plugin.getLogger().finer("No coin spawn locations found for team " + teamId);
-        }
-
-        // --- Populate Generic Items ---
-        List<Location> itemLocs = dungeonData.getItemSpawnLocations();
-        if (itemLocs != null && !itemLocs.isEmpty()) {
-            plugin.getLogger().finer("Processing " + itemLocs.size() + " potential item spawn locations.");
-            for (Location absLoc : itemLocs) {
-                 if (absLoc == null) continue;
-                 try {
-                     int depth = dungeonData.getDepthAtLocation(absLoc, this.placedSegmentsInWorld);
-                     floorItemManager.spawnGenericItem(absLoc, teamId, instanceUUID, depth);
-                 } catch (Exception e) {
-                     plugin.getLogger().log(Level.WARNING, "Error processing item spawn at " + absLoc + " for team " + teamId, e);
-                 }
-            }
-        } else {
-             plugin.getLogger().finer("No generic item spawn locations found for team " + teamId);
-        }
-
-        // --- Populate Sand (Place block probabilistically) ---
-        List<Location> sandLocs = dungeonData.getSandSpawnLocations();
-        int sandPlacedCount = 0;
-        if (sandLocs != null && !sandLocs.isEmpty()) {
-             plugin.getLogger().finer("Processing " + sandLocs.size() + " potential sand spawn locations (Chance: " + (SAND_SPAWN_CHANCE * 100) + "%).");
-             for (Location absLoc : sandLocs) {
-                  if (absLoc == null) continue;
-                  try {
-                      // Check probability
-                      if (random.nextDouble() < SAND_SPAWN_CHANCE) {
-                          Block block = absLoc.getBlock();
-                          // Place sand if the block is replaceable (air, water, maybe tall grass etc.)
-                          if (block.isPassable() || block.getType().isAir() || block.isLiquid()) {
-                              block.setType(Material.SAND, false); // false = don't cause physics updates yet
-                              sandPlacedCount++;
-                          } else {
-                               plugin.getLogger().finer("Skipped sand placement at " + absLoc.toVector() + ": Block not replaceable (" + block.getType() + ")");
-                          }
-                      }
-                  } catch (Exception e) {
-                     plugin.getLogger().log(Level.WARNING, "Error processing sand spawn at " + absLoc + " for team " + teamId, e);
-                  }
-             }
-             plugin.getLogger().fine("Placed " + sandPlacedCount + " sand blocks out of " + sandLocs.size() + " potential locations.");
-        } else {
-             plugin.getLogger().finer("No sand spawn locations found for team " + teamId);
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.WARNING, "Error processing sand spawn at " + absLoc + " for team " + teamId, e);
         }
-
-        plugin.getLogger().fine("Finished populating floor items for team " + teamId);
+        return false;
     }
-
-
     // --- Getters ---
     @NotNull public Location getDungeonOrigin() { return dungeonOrigin.clone(); } // Clone for safety
     @NotNull public World getWorld() { return world; }
     @NotNull public UUID getTeamId() { return teamId; }
     @Nullable public Dungeon getDungeonData() { return dungeonData; } // Can be null before init finishes
     @NotNull public List<PlacedSegment> getPlacedSegmentsInWorld() { return Collections.unmodifiableList(this.placedSegmentsInWorld); }
+    @Nullable public BuildStage getBuildStage() { return buildStage; } // null if no build was started
+    public int getBuildStepsDone() { return buildStepsDone; }
+    public int getBuildStepsTotal() { return buildStepsTotal; }
+    @NotNull public List<UUID> getPlayersToTeleport() { return Collections.unmodifiableList(playersToTeleport); }
 
-    /** Finds the PlacedSegment (with absolute world coords) at a given absolute world location within this instance. */
+    /**
+     * Finds the PlacedSegment (with absolute world coords) at a given absolute world location within this instance.
+     * Constant time via the {@link #getSegmentLocator() segment locator}; null until the instance's segments are placed.
+     */
     @Nullable
     public PlacedSegment getSegmentAtLocation(@NotNull Location location) {
-        if (world == null || !world.equals(location.getWorld())) {
-            return null;
+        return segmentLocator.segmentAt(location);
+    }
+
+    /**
+     * @return The segment index of this instance, for per-tick region queries. Empty until the instance's
+     * segments have been placed, and again after cleanup.
+     */
+    @NotNull public SegmentLocator getSegmentLocator() { return segmentLocator; }
+
+    // --- Cleanup ---
+
+    /**
+     * Records an entity spawned for this instance so cleanup can remove it by UUID.
+     * @param floorItem A spawned floor item (its visual entity is tracked); ignored if null.
+     */
+    public void trackSpawnedEntity(@Nullable FloorItem floorItem) {
+        if (floorItem != null) trackSpawnedEntity(floorItem.getVisualEntity());
+    }
+
+    /** Records an entity spawned for this instance so cleanup can remove it by UUID. Ignores null. */
+    public void trackSpawnedEntity(@Nullable Entity entity) {
+        if (entity != null) spawnedEntityIds.add(entity.getUniqueId());
+    }
+
+    /** Records a block changed after pasting (e.g. sand, vault markers) so cleanup resets it to air. */
+    public void trackChangedBlock(@NotNull Location location) {
+        changedBlocks.add(new Location(location.getWorld(), location.getBlockX(), location.getBlockY(), location.getBlockZ()));
+    }
+
+    /**
+     * Removes the blocks and entities associated with this dungeon instance synchronously.
+     * Prefer DungeonBuildPipeline.submitCleanup, which spreads the same steps across ticks.
+     */
+    public void cleanupInstance() {
+        if (!beginCleanup()) return;
+        while (runNextCleanupStep()) {
+            // Run all steps now
         }
-        // Iterate through segments placed in the world for this instance
-        for (PlacedSegment segment : placedSegmentsInWorld) {
-            // Use the Area's contains method
-            if (segment.getWorldBounds().contains(location)) {
-                return segment;
+    }
+
+    /**
+     * Prepares a staged cleanup of this instance, run via {@link #runNextCleanupStep()}:
+     * 1. Clear manager states (floor items, vaults, doors) and remove the entities spawned for this instance.
+     * 2. Set the segment boxes to air, a few layers per step. Only segment bounds are touched, not the
+     *    blueprint's whole bounding box; doors and other in-segment changes are covered by this.
+     * 3. Reset tracked changed blocks outside the segment boxes.
+     * Also stops any build still in progress.
+     *
+     * @return true if there are cleanup steps to run.
+     */
+    public boolean beginCleanup() {
+        plugin.getLogger().info("Attempting cleanup for dungeon instance of team " + teamId + " at origin " + dungeonOrigin.toVector());
+        // Queued builds are already FAILED when cancelled, so the stage cannot tell whether anything was pasted
+        boolean buildStarted = pasteStarted;
+        failBuild(); // Stop any build still in progress
+        pasteStarted = false;
+        instanceTemplate = null; // Release captured snapshot data
+        pasteTasks = null;
+        replicaTask = null;
+
+        // Every blueprint segment once pasting started: covers segments pasted only partially when the build stopped
+        List<int[]> boxes = new ArrayList<>();
+        if (buildStarted) {
+            for (PlacedSegment blueprintSegment : blueprintData.getRelativeSegments()) {
+                Location min = toAbsoluteLocation(blueprintSegment);
+                BlockVector3 size = blueprintSegment.getSegmentTemplate().getSize();
+                int minY = min.getBlockY();
+                int maxY = minY + size.y() - 1;
+                for (int slabMinY = minY; slabMinY <= maxY; slabMinY += CLEANUP_SLAB_HEIGHT) {
+                    boxes.add(new int[] { min.getBlockX(), slabMinY, min.getBlockZ(),
+                            min.getBlockX() + size.x() - 1, Math.min(maxY, slabMinY + CLEANUP_SLAB_HEIGHT - 1), min.getBlockZ() + size.z() - 1 });
+                }
             }
         }
-        return null;
+        if (boxes.isEmpty() && dungeonData == null && spawnedEntityIds.isEmpty() && changedBlocks.isEmpty()) {
+            plugin.getLogger().warning("Nothing to clean up for team " + teamId + ": the instance was never built.");
+            clearManagerStates(); // Still attempt to clear manager states
+            return false;
+        }
+        this.cleanupBoxes = boxes;
+        this.cleanupCursor = 0;
+        return true;
     }
 
     /**
-     * Removes the blocks and entities associated with this dungeon instance.
-     * Clears the area using WorldEdit and removes non-player entities.
-     * Also clears state from associated managers.
+     * Performs the next unit of cleanup work. Must be called on the main server thread.
+     * @return true if more steps remain.
      */
-    public void cleanupInstance() {
-         plugin.getLogger().info("Attempting cleanup for dungeon instance of team " + teamId + " at origin " + dungeonOrigin.toVector());
-
-         // Ensure we have the blueprint data to calculate bounds
-         if (blueprintData == null || dungeonData == null) { // Check dungeonData too, as it confirms successful init
-             plugin.getLogger().warning("Cannot cleanup instance for team " + teamId + ": Blueprint or Dungeon data is missing.");
-             // Still attempt to clear manager states
-             clearManagerStates();
-             return;
-         }
-
-         // --- 1. Calculate Absolute Bounds ---
-         Area relativeBounds = blueprintData.getRelativeBounds();
-         Location absMinLoc = dungeonOrigin.clone().add(relativeBounds.getMinPoint().toVector());
-         Location absMaxLoc = dungeonOrigin.clone().add(relativeBounds.getMaxPoint().toVector());
-         plugin.getLogger().fine("Calculated absolute cleanup bounds: " + absMinLoc.toVector() + " to " + absMaxLoc.toVector());
-
-         // Adapt world and create WorldEdit region
-         com.sk89q.worldedit.world.World weWorld = BukkitAdapter.adapt(world);
-         BlockVector3 minBV3 = BukkitAdapter.asBlockVector(absMinLoc);
-         BlockVector3 maxBV3 = BukkitAdapter.asBlockVector(absMaxLoc);
-         Region cleanupRegion = new CuboidRegion(weWorld, minBV3, maxBV3);
-
-         // --- 2. Clear Blocks with WorldEdit ---
-         plugin.getLogger().info("Clearing blocks within dungeon bounds for team " + teamId);
-         try (EditSession editSession = WorldEdit.getInstance().newEditSessionBuilder()
-                 .world(weWorld)
-                 // Removed fastMode(true) as it is not a valid method
-                 .build()) {
-             // Set the entire region to air
-             editSession.setBlocks(cleanupRegion, BlockTypes.AIR.getDefaultState());
-             // Operations.complete(editSession); // Often not needed with try-with-resources flushing
-             plugin.getLogger().fine("WorldEdit block clearing operation completed for team " + teamId);
-         } catch (WorldEditException e) {
-             plugin.getLogger().log(Level.SEVERE, "WorldEditException during dungeon cleanup for team " + teamId, e);
-             // Continue cleanup even if block clearing fails? Or stop? For now, continue.
-         } catch (Exception e) {
-              plugin.getLogger().log(Level.SEVERE, "Unexpected error during WorldEdit cleanup for team " + teamId, e);
-         }
-
-         // --- 3. Remove Entities (Optional but recommended) ---
-         plugin.getLogger().info("Removing non-player entities within dungeon bounds for team " + teamId);
-         try {
-             // Get entities within the absolute bounding box
-             // Note: getNearbyEntities is often preferred over getEntitiesByBoundingBox for performance if available/suitable
-             Collection<Entity> entitiesInBounds = world.getNearbyEntities(
-                 new org.bukkit.util.BoundingBox(
-                     absMinLoc.getX(), absMinLoc.getY(), absMinLoc.getZ(),
-                     absMaxLoc.getX() + 1, absMaxLoc.getY() + 1, absMaxLoc.getZ() + 1 // Add 1 for inclusive check
-                 )
-             );
-
-             int removedCount = 0;
-             for (Entity entity : entitiesInBounds) {
-                 // IMPORTANT: Do NOT remove players!
-                 if (!(entity instanceof Player)) {
-                     // TODO: Add more filters? E.g., only remove Items, Monsters, specific marker types?
-                     entity.remove();
-                     removedCount++;
-                 }
-             }
-             plugin.getLogger().fine("Removed " + removedCount + " non-player entities for team " + teamId);
-         } catch (Exception e) {
-              plugin.getLogger().log(Level.SEVERE, "Error removing entities during cleanup for team " + teamId, e);
-         }
-
-
-         // --- 4. Clear Internal State and Manager States ---
-         clearManagerStates(); // Call helper to clear states
-
-         plugin.getLogger().info("Cleanup logic finished for team " + teamId);
-     }
+    public boolean runNextCleanupStep() {
+        List<int[]> boxes = cleanupBoxes;
+        if (boxes == null) return false;
+        int step = cleanupCursor++;
+        if (step == 0) {
+            clearManagerStates();
+            removeSpawnedEntities();
+        } else if (step <= boxes.size()) {
+            clearBox(boxes.get(step - 1));
+        } else {
+            resetChangedBlocks(boxes);
+            cleanupBoxes = null;
+            plugin.getLogger().info("Cleanup logic finished for team " + teamId + " (" + boxes.size() + " boxes cleared)");
+            return false;
+        }
+        return true;
+    }
+
+    /** @return true while a staged cleanup is in progress. */
+    public boolean isCleanupPending() {
+        return cleanupBoxes != null;
+    }
+
+    private void removeSpawnedEntities() {
+        int removedCount = 0;
+        for (UUID entityId : spawnedEntityIds) {
+            Entity entity = Bukkit.getEntity(entityId);
+            if (entity != null && !(entity instanceof Player)) { // IMPORTANT: Do NOT remove players!
+                entity.remove();
+                removedCount++;
+            }
+        }
+        spawnedEntityIds.clear();
+        plugin.getLogger().fine("Removed " + removedCount + " tracked entities for team " + teamId);
+    }
+
+    /** Sets one inclusive box to air without history or neighbour updates. */
+    private void clearBox(int[] box) {
+        com.sk89q.worldedit.world.World weWorld = BukkitAdapter.adapt(world);
+        Region region = new CuboidRegion(weWorld, BlockVector3.at(box[0], box[1], box[2]), BlockVector3.at(box[3], box[4], box[5]));
+        try (EditSession editSession = FastSegmentPaster.openFastEditSession(weWorld)) {
+            editSession.setBlocks(region, BlockTypes.AIR.getDefaultState());
+        } catch (WorldEditException e) {
+            plugin.getLogger().log(Level.SEVERE, "WorldEditException during dungeon cleanup for team " + teamId, e);
+            // Continue with the remaining boxes
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.SEVERE, "Unexpected error during WorldEdit cleanup for team " + teamId, e);
+        }
+    }
+
+    /** Resets tracked blocks that lie outside every cleared box. */
+    private void resetChangedBlocks(List<int[]> clearedBoxes) {
+        for (Location location : changedBlocks) {
+            if (location.getWorld() == null || insideAnyBox(clearedBoxes, location)) continue;
+            location.getBlock().setType(Material.AIR, false);
+        }
+        changedBlocks.clear();
+    }
+
+    private static boolean insideAnyBox(List<int[]> boxes, Location location) {
+        int x = location.getBlockX(), y = location.getBlockY(), z = location.getBlockZ();
+        for (int[] box : boxes) {
+            if (x >= box[0] && x <= box[3] && y >= box[1] && y <= box[4] && z >= box[2] && z <= box[5]) return true;
+        }
+        return false;
+    }
 
      /** Helper method to clear internal state and notify managers */
      private void clearManagerStates() {
           placedSegmentsInWorld.clear();
+          segmentLocator = SegmentLocator.empty();
           if (dungeonData != null) { // Check if dungeonData was successfully created
               // Tell managers to clear state related to this teamId
               if (vaultManager != null) vaultManager.clearTeamState(teamId);
@@ -0,0 +1,238 @@
+package com.clarkson.sot.dungeon;
+
+import com.clarkson.sot.utils.BlockKeys;
+import com.sk89q.worldedit.EditSession;
+import com.sk89q.worldedit.WorldEdit;
+import com.sk89q.worldedit.WorldEditException;
+import com.sk89q.worldedit.extent.clipboard.Clipboard;
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldedit.util.SideEffect;
+import com.sk89q.worldedit.util.SideEffectSet;
+import com.sk89q.worldedit.world.World;
+import com.sk89q.worldedit.world.block.BaseBlock;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+/**
+ * Fast paste backend for freshly generated dungeon instances.
+ * <ul>
+ *     <li>The clipboard-to-world transform (reading blocks, skipping air, offsetting, grouping by
+ *     16x16x16 chunk section) runs on a worker thread.</li>
+ *     <li>Blocks are then committed on the main thread a few chunk sections per step, through an
+ *     EditSession with history disabled and neighbour updates/physics/validation turned off.
+ *     Lighting is deferred until each batch is flushed.</li>
+ *     <li>The clipboard's entities are pasted on the main thread after the last batch.</li>
+ * </ul>
+ * History is unnecessary here because instances are removed by region cleanup, never by undo.
+ * If preparation or a batch commit fails, the paste is redone through the fallback paster.
+ */
+public class FastSegmentPaster implements SegmentPaster {
+
+    /** No history-relevant or neighbour side effects; lighting is applied once per flushed batch. */
+    private static final SideEffectSet SIDE_EFFECTS = SideEffectSet.none().with(SideEffect.LIGHTING, SideEffect.State.DELAYED);
+
+    private final Plugin plugin;
+    private final Executor executor;
+    private final int sectionsPerStep;
+    private final WorldEditSegmentPaster fallback;
+
+    /**
+     * @param plugin          The main plugin instance (for logging).
+     * @param executor        Executor for the off-thread transform (e.g. ForkJoinPool.commonPool()).
+     * @param sectionsPerStep Number of chunk sections committed per {@link PasteTask#step()}.
+     * @param fallback        Paster used when the fast path fails.
+     */
+    public FastSegmentPaster(@NotNull Plugin plugin, @NotNull Executor executor, int sectionsPerStep,
+                             @NotNull WorldEditSegmentPaster fallback) {
+        this.plugin = plugin;
+        this.executor = executor;
+        this.sectionsPerStep = Math.max(1, sectionsPerStep);
+        this.fallback = fallback;
+    }
+
+    @Override
+    @NotNull
+    public PasteTask createPaste(@NotNull Clipboard clipboard, @NotNull World world, @NotNull BlockVector3 to,
+                                 @NotNull Consumer<? super Entity> entitySink) {
+        return new FastPasteTask(clipboard, world, to, entitySink);
+    }
+
+    @Override
+    public boolean pasteEntities(@NotNull Clipboard clipboard, @NotNull World world, @NotNull BlockVector3 to,
+                                 @NotNull Consumer<? super Entity> entitySink) {
+        return fallback.pasteEntities(clipboard, world, to, entitySink);
+    }
+
+    @Override
+    @NotNull
+    public String getName() {
+        return "fast";
+    }
+
+    /**
+     * Opens an EditSession with history disabled and neighbour/physics side effects off (lighting deferred to flush).
+     * Also used by DungeonManager for instance cleanup. Close it to flush.
+     */
+    @NotNull
+    static EditSession openFastEditSession(@NotNull World world) {
+        EditSession editSession = WorldEdit.getInstance().newEditSessionBuilder().world(world).build();
+        editSession.setTrackingHistory(false);
+        editSession.setSideEffectApplier(SIDE_EFFECTS);
+        editSession.setReorderMode(EditSession.ReorderMode.FAST); // No physics, so no attachment ordering needed
+        return editSession;
+    }
+
+    private final class FastPasteTask implements PasteTask {
+        private final Clipboard clipboard;
+        private final World world;
+        private final BlockVector3 to;
+        private final Consumer<? super Entity> entitySink;
+        @Nullable private CompletableFuture<PreparedBlocks> preparation;
+        @Nullable private PreparedBlocks prepared;
+        private int nextSection;
+        private boolean entitiesPasted;
+
+        FastPasteTask(Clipboard clipboard, World world, BlockVector3 to, Consumer<? super Entity> entitySink) {
+            this.clipboard = clipboard;
+            this.world = world;
+            this.to = to;
+            this.entitySink = entitySink;
+        }
+
+        @Override
+        public void prepare() {
+            if (preparation == null) {
+                preparation = CompletableFuture.supplyAsync(() -> PreparedBlocks.transform(clipboard, to), executor);
+            }
+        }
+
+        @Override
+        @NotNull
+        public PasteStatus step() {
+            if (prepared == null) {
+                prepare();
+                if (!preparation.isDone()) return PasteStatus.WAITING;
+                try {
+                    prepared = preparation.join();
+                } catch (CompletionException e) {
+                    plugin.getLogger().log(Level.WARNING, "[FastSegmentPaster] Preparing paste at " + to + " failed, falling back to a plain WorldEdit paste.", e.getCause());
+                    return pasteWithFallback();
+                }
+            }
+
+            int endSection = Math.min(nextSection + sectionsPerStep, prepared.sectionCount());
+            try (EditSession editSession = openFastEditSession(world)) {
+                prepared.commit(editSession, nextSection, endSection);
+            } catch (WorldEditException | RuntimeException e) {
+                plugin.getLogger().log(Level.WARNING, "[FastSegmentPaster] Committing paste at " + to + " failed, falling back to a plain WorldEdit paste.", e);
+                return pasteWithFallback();
+            }
+            nextSection = endSection;
+            if (nextSection < prepared.sectionCount()) return PasteStatus.IN_PROGRESS;
+            if (!entitiesPasted) {
+                entitiesPasted = true;
+                if (!fallback.pasteEntities(clipboard, world, to, entitySink)) {
+                    plugin.getLogger().warning("[FastSegmentPaster] Entities of paste at " + to + " could not be placed; its blocks are in place.");
+                }
+            }
+            return PasteStatus.DONE;
+        }
+
+        private PasteStatus pasteWithFallback() {
+            prepared = PreparedBlocks.EMPTY; // Any further step() calls report DONE
+            nextSection = 0;
+            entitiesPasted = true; // The fallback pastes entities along with the blocks
+            return fallback.paste(clipboard, world, to, entitySink) ? PasteStatus.DONE : PasteStatus.FAILED;
+        }
+    }
+
+    /**
+     * Non-air clipboard blocks in world coordinates, grouped by chunk section.
+     * Blocks of section {@code s} occupy indices {@code [sectionStarts[s], sectionStarts[s + 1])}.
+     */
+    private static final class PreparedBlocks {
+        static final PreparedBlocks EMPTY = new PreparedBlocks(new int[0], new BaseBlock[0], new int[] { 0 });
+
+        private final int[] coords; // x, y, z per block
+        private final BaseBlock[] blocks;
+        private final int[] sectionStarts;
+
+        private PreparedBlocks(int[] coords, BaseBlock[] blocks, int[] sectionStarts) {
+            this.coords = coords;
+            this.blocks = blocks;
+            this.sectionStarts = sectionStarts;
+        }
+
+        int sectionCount() {
+            return sectionStarts.length - 1;
+        }
+
+        void commit(EditSession editSession, int fromSection, int toSection) throws WorldEditException {
+            for (int i = sectionStarts[fromSection], end = sectionStarts[toSection]; i < end; i++) {
+                editSession.setBlock(BlockVector3.at(coords[i * 3], coords[i * 3 + 1], coords[i * 3 + 2]), blocks[i]);
+            }
+        }
+
+        /** Reads the clipboard and builds the section-grouped block list. Safe to run off the main thread. */
+        static PreparedBlocks transform(Clipboard clipboard, BlockVector3 to) {
+            BlockVector3 offset = to.subtract(clipboard.getOrigin());
+            Map<Long, SectionBuilder> sections = new HashMap<>();
+            int total = 0;
+            for (BlockVector3 pos : clipboard.getRegion()) {
+                BaseBlock block = clipboard.getFullBlock(pos);
+                if (block.getBlockType().getMaterial().isAir()) continue; // ignoreAirBlocks
+                int x = pos.x() + offset.x();
+                int y = pos.y() + offset.y();
+                int z = pos.z() + offset.z();
+                sections.computeIfAbsent(BlockKeys.pack(x >> 4, y >> 4, z >> 4), k -> new SectionBuilder()).add(x, y, z, block);
+                total++;
+            }
+
+            // Sorted keys keep the sections of one chunk column next to each other
+            long[] keys = new long[sections.size()];
+            int k = 0;
+            for (Long key : sections.keySet()) keys[k++] = key;
+            Arrays.sort(keys);
+
+            int[] coords = new int[total * 3];
+            BaseBlock[] blocks = new BaseBlock[total];
+            int[] sectionStarts = new int[keys.length + 1];
+            int index = 0;
+            for (int s = 0; s < keys.length; s++) {
+                sectionStarts[s] = index;
+                SectionBuilder section = sections.get(keys[s]);
+                System.arraycopy(section.coords, 0, coords, index * 3, section.blocks.size() * 3);
+                for (BaseBlock block : section.blocks) blocks[index++] = block;
+            }
+            sectionStarts[keys.length] = index;
+            return new PreparedBlocks(coords, blocks, sectionStarts);
+        }
+    }
+
+    private static final class SectionBuilder {
+        int[] coords = new int[48];
+        final List<BaseBlock> blocks = new ArrayList<>();
+
+        void add(int x, int y, int z, BaseBlock block) {
+            int offset = blocks.size() * 3;
+            if (offset + 3 > coords.length) coords = Arrays.copyOf(coords, coords.length * 2);
+            coords[offset] = x;
+            coords[offset + 1] = y;
+            coords[offset + 2] = z;
+            blocks.add(block);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.clarkson.sot.dungeon;
+
+import com.clarkson.sot.dungeon.segment.PlacedSegment;
+import com.clarkson.sot.utils.BlockKeys;
+import com.clarkson.sot.utils.VoidChunkGenerator;
+import com.sk89q.worldedit.math.BlockVector3;
+
+import org.bukkit.Bukkit;
+import org.bukkit.GameRule;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.WorldCreator;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+
+/**
+ * Owns the void world that dungeon instances are built in, divided into fixed, chunk-aligned team slots.
+ * <ul>
+ *     <li>The world uses {@link VoidChunkGenerator}, so loading a chunk never generates terrain, and is not auto-saved.</li>
+ *     <li>Slots are acquired during game setup and their chunks loaded asynchronously and held with plugin
+ *     chunk tickets, so the first paste of a game does not load or generate chunks on the main thread.</li>
+ *     <li>Slots are released after their instance is cleaned up and reused by later games; the preloaded
+ *     area around a slot origin stays loaded between games.</li>
+ * </ul>
+ * All methods must be called on the main server thread.
+ */
+public class InstanceWorldManager {
+
+    private final Plugin plugin;
+    private final String worldName;
+    private final int baseY;
+    private final int slotSpacingChunks;
+    private final int preloadRadiusChunks;
+
+    @Nullable private World world;
+    private final BitSet busySlots = new BitSet();
+    private final Map<Integer, Set<Long>> footprintTicketsBySlot = new HashMap<>(); // Tickets beyond the preload area
+
+    /**
+     * @param plugin              The main plugin instance.
+     * @param worldName           Name of the instance world (created if missing).
+     * @param baseY               Y level of every slot origin.
+     * @param slotSpacingChunks   Distance between slot origins along X, in chunks. Must exceed the largest dungeon.
+     * @param preloadRadiusChunks Radius (in chunks) kept loaded around each slot origin.
+     */
+    public InstanceWorldManager(@NotNull Plugin plugin, @NotNull String worldName, int baseY,
+                                int slotSpacingChunks, int preloadRadiusChunks) {
+        this.plugin = plugin;
+        this.worldName = worldName;
+        this.baseY = baseY;
+        this.slotSpacingChunks = Math.max(1, slotSpacingChunks);
+        this.preloadRadiusChunks = Math.max(0, preloadRadiusChunks);
+    }
+
+    /**
+     * Loads or creates the void instance world.
+     * @return true if the world is available.
+     */
+    public boolean initialize() {
+        if (world != null) return true;
+        try {
+            World created = new WorldCreator(worldName)
+                    .generator(new VoidChunkGenerator())
+                    .environment(World.Environment.NORMAL)
+                    .generateStructures(false)
+                    .createWorld();
+            if (created == null) {
+                plugin.getLogger().severe("[InstanceWorldManager] Could not create instance world '" + worldName + "'.");
+                return false;
+            }
+            created.setAutoSave(false); // Instances are rebuilt every game; never write their chunks back
+            created.setGameRule(GameRule.DO_DAYLIGHT_CYCLE, false);
+            created.setGameRule(GameRule.DO_WEATHER_CYCLE, false);
+            created.setGameRule(GameRule.DO_MOB_SPAWNING, false);
+            created.setGameRule(GameRule.SPAWN_CHUNK_RADIUS, 0);
+            this.world = created;
+            plugin.getLogger().info("[InstanceWorldManager] Using instance world '" + worldName + "'.");
+            return true;
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.SEVERE, "[InstanceWorldManager] Failed to create instance world '" + worldName + "'.", e);
+            return false;
+        }
+    }
+
+    /** @return The instance world, or null if {@link #initialize()} has not succeeded. */
+    @Nullable
+    public World getWorld() {
+        return world;
+    }
+
+    /**
+     * Reserves the lowest free slot.
+     * @return The slot index.
+     */
+    public int acquireSlot() {
+        int slot = busySlots.nextClearBit(0);
+        busySlots.set(slot);
+        return slot;
+    }
+
+    /**
+     * Returns a slot to the pool once its instance has been cleaned up.
+     * Chunks loaded only for the last dungeon's footprint are released; the preload area stays loaded.
+     */
+    public void releaseSlot(int slot) {
+        if (!busySlots.get(slot)) return;
+        busySlots.clear(slot);
+        Set<Long> tickets = footprintTicketsBySlot.remove(slot);
+        if (tickets != null && world != null) {
+            for (long key : tickets) {
+                world.removePluginChunkTicket(BlockKeys.unpackColumnX(key), BlockKeys.unpackColumnZ(key), plugin);
+            }
+        }
+    }
+
+    /** @return The number of slots currently reserved. */
+    public int getBusySlotCount() {
+        return busySlots.cardinality();
+    }
+
+    /** @return The dungeon origin of a slot (chunk-aligned). */
+    @NotNull
+    public Location getSlotOrigin(int slot) {
+        if (world == null) throw new IllegalStateException("Instance world is not initialized");
+        return new Location(world, (long) slot * slotSpacingChunks * 16, baseY, 0);
+    }
+
+    /**
+     * Loads the chunks within the preload radius of a slot origin asynchronously and holds them with plugin tickets.
+     * Called during game setup, before the layout is known.
+     */
+    @NotNull
+    public CompletableFuture<Void> preloadSlot(int slot) {
+        Location origin = getSlotOrigin(slot);
+        int centerX = origin.getBlockX() >> 4;
+        int centerZ = origin.getBlockZ() >> 4;
+        List<CompletableFuture<?>> loads = new ArrayList<>();
+        for (int cx = centerX - preloadRadiusChunks; cx <= centerX + preloadRadiusChunks; cx++) {
+            for (int cz = centerZ - preloadRadiusChunks; cz <= centerZ + preloadRadiusChunks; cz++) {
+                loads.add(loadAndHold(cx, cz));
+            }
+        }
+        return CompletableFuture.allOf(loads.toArray(new CompletableFuture[0]));
+    }
+
+    /**
+     * Loads every chunk overlapped by the blueprint's segments at a slot, asynchronously, and holds them
+     * until the slot is released. Chunks already in the preload area are skipped.
+     */
+    @NotNull
+    public CompletableFuture<Void> loadFootprint(int slot, @NotNull DungeonBlueprint blueprint) {
+        Location origin = getSlotOrigin(slot);
+        int centerX = origin.getBlockX() >> 4;
+        int centerZ = origin.getBlockZ() >> 4;
+        Set<Long> footprint = new HashSet<>();
+        for (PlacedSegment segment : blueprint.getRelativeSegments()) {
+            Location min = origin.clone().add(segment.getWorldOrigin().toVector());
+            BlockVector3 size = segment.getSegmentTemplate().getSize();
+            for (int cx = min.getBlockX() >> 4; cx <= (min.getBlockX() + size.x() - 1) >> 4; cx++) {
+                for (int cz = min.getBlockZ() >> 4; cz <= (min.getBlockZ() + size.z() - 1) >> 4; cz++) {
+                    if (Math.abs(cx - centerX) <= preloadRadiusChunks && Math.abs(cz - centerZ) <= preloadRadiusChunks) continue;
+                    footprint.add(BlockKeys.packColumn(cx, cz));
+                }
+            }
+        }
+        Set<Long> slotTickets = footprintTicketsBySlot.computeIfAbsent(slot, k -> new HashSet<>());
+        List<CompletableFuture<?>> loads = new ArrayList<>();
+        for (long key : footprint) {
+            if (slotTickets.add(key)) {
+                loads.add(loadAndHold(BlockKeys.unpackColumnX(key), BlockKeys.unpackColumnZ(key)));
+            }
+        }
+        plugin.getLogger().fine("[InstanceWorldManager] Loading " + loads.size() + " footprint chunks for slot " + slot);
+        return CompletableFuture.allOf(loads.toArray(new CompletableFuture[0]));
+    }
+
+    /** Releases every slot and chunk ticket. Called on plugin disable. */
+    public void shutdown() {
+        if (world != null) {
+            world.removePluginChunkTickets(plugin);
+        }
+        busySlots.clear();
+        footprintTicketsBySlot.clear();
+    }
+
+    private CompletableFuture<?> loadAndHold(int chunkX, int chunkZ) {
+        World target = world;
+        if (target == null) return CompletableFuture.completedFuture(null);
+        return target.getChunkAtAsync(chunkX, chunkZ).thenAccept(chunk -> {
+            if (Bukkit.isPrimaryThread()) {
+                chunk.addPluginChunkTicket(plugin);
+            } else {
+                Bukkit.getScheduler().runTask(plugin, () -> chunk.addPluginChunkTicket(plugin));
+            }
+        });
+    }
+}
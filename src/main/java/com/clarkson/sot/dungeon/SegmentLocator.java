@@ -0,0 +1,151 @@
+package com.clarkson.sot.dungeon;
+
+import com.clarkson.sot.dungeon.segment.PlacedSegment;
+import com.clarkson.sot.entities.Area;
+import com.clarkson.sot.utils.BlockKeys;
+import com.clarkson.sot.utils.LongKeyTable;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Answers "which segment of this dungeon instance contains this block?" in constant time.
+ * Segment bounds are copied once into flat int arrays and registered in every chunk column they overlap,
+ * so a lookup hashes the point's chunk and tests only the few segments sharing that column, instead of
+ * every placed segment. Queries never allocate, so region-based features (depth display, analytics,
+ * mob spawning) can call it for every player every tick.
+ *
+ * Bounds are inclusive block coordinates; a point is located by the block it is in.
+ * Immutable once built, so it may be queried from any thread.
+ */
+public final class SegmentLocator {
+
+    /** Returned by {@link #indexAt} when no segment contains the point. */
+    public static final int NONE = -1;
+
+    private static final SegmentLocator EMPTY = new SegmentLocator(null, new PlacedSegment[0], new int[0], new LongKeyTable<>());
+
+    @Nullable private final World world;
+    private final PlacedSegment[] segments;
+    private final int[] bounds; // 6 ints per segment: minX, minY, minZ, maxX, maxY, maxZ
+
+    private final LongKeyTable<int[]> columns; // Packed chunk column -> indices of the segments overlapping it
+
+    private SegmentLocator(@Nullable World world, PlacedSegment[] segments, int[] bounds, LongKeyTable<int[]> columns) {
+        this.world = world;
+        this.segments = segments;
+        this.bounds = bounds;
+        this.columns = columns;
+    }
+
+    /**
+     * Indexes the segments of one dungeon instance.
+     * @param world    The world the segments were placed in.
+     * @param segments The segments, with absolute world bounds. Indices returned by {@link #indexAt} refer to this list.
+     */
+    @NotNull
+    public static SegmentLocator build(@NotNull World world, @NotNull List<PlacedSegment> segments) {
+        int count = segments.size();
+        PlacedSegment[] array = segments.toArray(new PlacedSegment[0]);
+        int[] bounds = new int[count * 6];
+        int columns = 0;
+        for (int i = 0; i < count; i++) {
+            Area area = array[i].getWorldBounds();
+            Location a = area.getMinPoint();
+            Location b = area.getMaxPoint();
+            int o = i * 6;
+            bounds[o] = Math.min(a.getBlockX(), b.getBlockX());
+            bounds[o + 1] = Math.min(a.getBlockY(), b.getBlockY());
+            bounds[o + 2] = Math.min(a.getBlockZ(), b.getBlockZ());
+            bounds[o + 3] = Math.max(a.getBlockX(), b.getBlockX());
+            bounds[o + 4] = Math.max(a.getBlockY(), b.getBlockY());
+            bounds[o + 5] = Math.max(a.getBlockZ(), b.getBlockZ());
+            columns += ((bounds[o + 3] >> 4) - (bounds[o] >> 4) + 1) * ((bounds[o + 5] >> 4) - (bounds[o + 2] >> 4) + 1);
+        }
+
+        // Lists are built with their size in element 0, then copied to exact length: queries iterate the whole array
+        LongKeyTable<int[]> building = new LongKeyTable<>(columns);
+        for (int i = 0; i < count; i++) {
+            int o = i * 6;
+            for (int cx = bounds[o] >> 4; cx <= bounds[o + 3] >> 4; cx++) {
+                for (int cz = bounds[o + 2] >> 4; cz <= bounds[o + 5] >> 4; cz++) {
+                    long key = BlockKeys.packColumn(cx, cz);
+                    int[] list = building.get(key);
+                    if (list == null || list[0] + 1 == list.length) {
+                        list = list == null ? new int[3] : Arrays.copyOf(list, list.length * 2);
+                        building.put(key, list);
+                    }
+                    list[++list[0]] = i;
+                }
+            }
+        }
+        LongKeyTable<int[]> table = new LongKeyTable<>(building.size());
+        building.forEach((key, list) -> table.put(key, Arrays.copyOfRange(list, 1, list[0] + 1)));
+        return new SegmentLocator(world, array, bounds, table);
+    }
+
+    /** @return A locator with no segments, for instances that have not been built. */
+    @NotNull
+    public static SegmentLocator empty() {
+        return EMPTY;
+    }
+
+    /**
+     * @return Index of the segment containing block (x, y, z), or {@link #NONE}. Where segments overlap,
+     * the one listed first wins.
+     */
+    public int indexAt(int x, int y, int z) {
+        int[] candidates = columns.get(BlockKeys.packColumn(x >> 4, z >> 4));
+        if (candidates == null) return NONE;
+        int found = NONE;
+        for (int i : candidates) {
+            int o = i * 6;
+            if (x >= bounds[o] && x <= bounds[o + 3] && y >= bounds[o + 1] && y <= bounds[o + 4]
+                    && z >= bounds[o + 2] && z <= bounds[o + 5] && (found == NONE || i < found)) {
+                found = i;
+            }
+        }
+        return found;
+    }
+
+    /** @return Index of the segment containing the location, or {@link #NONE} (also for other worlds). */
+    public int indexAt(@NotNull Location location) {
+        if (world == null || !world.equals(location.getWorld())) return NONE;
+        return indexAt(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+
+    /** @return The segment containing the location, or null. */
+    @Nullable
+    public PlacedSegment segmentAt(@NotNull Location location) {
+        int index = indexAt(location);
+        return index != NONE ? segments[index] : null;
+    }
+
+    /** @return Depth of the segment containing block (x, y, z), or 0 if it is outside every segment. */
+    public int depthAt(int x, int y, int z) {
+        int index = indexAt(x, y, z);
+        return index != NONE ? segments[index].getDepth() : 0;
+    }
+
+    /** @return Depth of the segment containing the location, or 0 if it is outside every segment. */
+    public int depthAt(@NotNull Location location) {
+        int index = indexAt(location);
+        return index != NONE ? segments[index].getDepth() : 0;
+    }
+
+    /** @return The segment at {@code index}. */
+    @NotNull
+    public PlacedSegment getSegment(int index) {
+        return segments[index];
+    }
+
+    /** @return Number of indexed segments. */
+    public int size() {
+        return segments.length;
+    }
+}
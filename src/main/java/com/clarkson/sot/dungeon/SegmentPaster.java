@@ -0,0 +1,67 @@
+package com.clarkson.sot.dungeon;
+
+import com.sk89q.worldedit.extent.clipboard.Clipboard;
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldedit.world.World;
+import org.bukkit.entity.Entity;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.Consumer;
+
+/**
+ * Backend used by DungeonManager to place segment schematics into the world.
+ * A paste is split into a {@link PasteTask} so staged builds can spread the work over several
+ * steps (and ticks) instead of blocking in one WorldEdit operation.
+ *
+ * @see FastSegmentPaster
+ * @see WorldEditSegmentPaster
+ */
+public interface SegmentPaster {
+
+    /** Progress of a {@link PasteTask} after a step. */
+    enum PasteStatus {
+        /** Off-thread preparation has not finished yet; call step again on a later tick. */
+        WAITING,
+        /** A batch was committed and more remain. */
+        IN_PROGRESS,
+        /** The whole clipboard has been placed. */
+        DONE,
+        /** The paste failed; the reason has been logged. */
+        FAILED
+    }
+
+    /**
+     * A single clipboard paste in progress.
+     * Clipboards may be shared (see SchematicCache) and are only ever read.
+     */
+    interface PasteTask {
+        /** Starts any off-thread preparation for this paste. Safe to call more than once. */
+        void prepare();
+
+        /**
+         * Performs the next unit of paste work. Must be called on the main server thread.
+         * @return The status after this step.
+         */
+        @NotNull PasteStatus step();
+    }
+
+    /**
+     * Creates a paste of the clipboard so that its origin lands at {@code to}. Air blocks are not pasted;
+     * the clipboard's entities are, on the main thread.
+     * No work is done until {@link PasteTask#prepare()} or {@link PasteTask#step()} is called.
+     * @param entitySink Receives every entity created by the paste, so the caller can remove it later.
+     */
+    @NotNull PasteTask createPaste(@NotNull Clipboard clipboard, @NotNull World world, @NotNull BlockVector3 to,
+                                   @NotNull Consumer<? super Entity> entitySink);
+
+    /**
+     * Pastes only the clipboard's entities, as {@link #createPaste} would place them. Main thread only.
+     * Used where the blocks were placed by other means (e.g. instance replicas).
+     * @return false if the paste failed; the reason has been logged.
+     */
+    boolean pasteEntities(@NotNull Clipboard clipboard, @NotNull World world, @NotNull BlockVector3 to,
+                          @NotNull Consumer<? super Entity> entitySink);
+
+    /** @return A short name for logs and config ("fast", "worldedit"). */
+    @NotNull String getName();
+}
@@ -1,7 +1,11 @@
 package com.clarkson.sot.dungeon; // Assuming package
 
+import com.clarkson.sot.events.InteractContext;
+import com.clarkson.sot.events.InteractableRegistry;
 import com.clarkson.sot.main.GameManager;
-import com.clarkson.sot.main.GameState;
+import com.clarkson.sot.utils.AnimationScheduler;
+import com.clarkson.sot.utils.ItemClassification;
+import com.clarkson.sot.utils.ItemManager;
 import com.clarkson.sot.main.SoT; // Assuming main plugin class
 
 // Adventure API Imports
@@ -16,18 +20,12 @@ import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.NamespacedKey;
 import org.bukkit.block.Block;
+import org.bukkit.entity.Item;
 import org.bukkit.entity.Player;
-import org.bukkit.event.EventHandler;
-import org.bukkit.event.EventPriority;
-import org.bukkit.event.Listener;
-import org.bukkit.event.block.Action;
-import org.bukkit.event.player.PlayerInteractEvent;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.inventory.PlayerInventory;
 import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.persistence.PersistentDataContainer;
 import org.bukkit.persistence.PersistentDataType;
-import org.bukkit.scheduler.BukkitRunnable;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap; // For thread safety
@@ -38,9 +36,9 @@ import javax.annotation.Nullable;
 
 /**
  * Manages Vaults, Keys, and their placement/interaction within specific dungeon instances.
- * Tracks vault open state per team.
+ * Tracks vault open state per team. Vault marker clicks arrive through the {@link InteractableRegistry}.
  */
-public class VaultManager implements Listener {
+public class VaultManager {
 
     private final SoT plugin;
     private final GameManager gameManager;
@@ -60,8 +58,7 @@ public class VaultManager implements Listener {
         this.openVaultsByTeam = new ConcurrentHashMap<>();
         this.vaultKeyTagKey = new NamespacedKey(plugin, "sot_vault_key");
         this.vaultColorTagKey = new NamespacedKey(plugin, "sot_vault_color");
-        plugin.getServer().getPluginManager().registerEvents(this, plugin);
-        plugin.getLogger().info("VaultManager initialized and registered.");
+        plugin.getLogger().info("VaultManager initialized.");
     }
 
     /**
@@ -80,6 +77,8 @@ public class VaultManager implements Listener {
             Location loc = entry.getValue();
             if (loc != null && loc.isWorldLoaded()) {
                 placeVaultMarkerBlock(color, loc);
+                gameManager.getInteractableRegistry().register(loc, teamId, this,
+                        context -> interactWithVault(teamId, color, context));
             } else {
                 plugin.getLogger().warning("Invalid location for " + color + " vault marker for team " + teamId);
             }
@@ -88,7 +87,7 @@ public class VaultManager implements Listener {
              VaultColor color = entry.getKey();
              Location loc = entry.getValue();
              if (loc != null && loc.isWorldLoaded()) {
-                 placeKeyItem(color, loc);
+                 placeKeyItem(color, loc, teamId);
              } else {
                  plugin.getLogger().warning("Invalid location for " + color + " key spawn for team " + teamId);
              }
@@ -103,6 +102,7 @@ public class VaultManager implements Listener {
      */
      public void clearTeamState(UUID teamId) {
          openVaultsByTeam.remove(teamId);
+         gameManager.getInteractableRegistry().unregisterAll(teamId, this);
          plugin.getLogger().info("Cleared vault state for team: " + teamId);
      }
 
@@ -129,16 +129,19 @@ public class VaultManager implements Listener {
      * Creates and drops the key item at the specified location.
      * @param color The VaultColor of the key.
      * @param location The absolute Location to spawn the item.
+     * @param teamId The team whose instance the key belongs to (the drop is tracked for cleanup).
      */
-    private void placeKeyItem(VaultColor color, Location location) {
+    private void placeKeyItem(VaultColor color, Location location, UUID teamId) {
         ItemStack keyStack = createKeyItem(color);
          if (!Bukkit.isPrimaryThread()) {
-             Bukkit.getScheduler().runTask(plugin, () -> placeKeyItem(color, location));
+             Bukkit.getScheduler().runTask(plugin, () -> placeKeyItem(color, location, teamId));
              return;
          }
         try {
             Location dropLocation = location.clone().add(0.5, 0.5, 0.5);
-            location.getWorld().dropItemNaturally(dropLocation, keyStack);
+            Item keyItem = location.getWorld().dropItemNaturally(dropLocation, keyStack);
+            DungeonManager dungeonManager = gameManager.getTeamDungeonManager(teamId);
+            if (dungeonManager != null) dungeonManager.trackSpawnedEntity(keyItem);
             plugin.getLogger().finer("Spawned " + color + " key item near " + location.toVector());
         } catch (Exception e) {
              plugin.getLogger().log(Level.SEVERE, "Failed to drop key item for " + color + " near " + location.toVector(), e);
@@ -146,72 +149,42 @@ public class VaultManager implements Listener {
     }
 
 
-    // --- Event Handling (onPlayerInteract) remains the same ---
-    @EventHandler(priority = EventPriority.NORMAL)
-    public void onPlayerInteract(PlayerInteractEvent event) {
-        // ... (event handling logic as before) ...
-        if (gameManager.getCurrentState() != GameState.RUNNING) return;
-        if (event.getAction() != Action.RIGHT_CLICK_BLOCK) return;
-        Block clickedBlock = event.getClickedBlock();
-        if (clickedBlock == null) return;
-
-        Player player = event.getPlayer();
-        UUID teamId = gameManager.getTeamManager().getPlayerTeamId(player);
-        if (teamId == null) return;
-        DungeonManager dungeonManager = gameManager.getTeamDungeonManager(teamId);
-        if (dungeonManager == null) return;
-        Dungeon dungeonData = dungeonManager.getDungeonData();
-        if (dungeonData == null) return;
-
-        VaultColor clickedVaultColor = null;
-        Location clickedLocation = clickedBlock.getLocation();
-        for (Map.Entry<VaultColor, Location> entry : dungeonData.getVaultMarkerLocations().entrySet()) {
-            Location vaultLoc = entry.getValue();
-             if (vaultLoc.getWorld().equals(clickedLocation.getWorld()) &&
-                 vaultLoc.getBlockX() == clickedLocation.getBlockX() &&
-                 vaultLoc.getBlockY() == clickedLocation.getBlockY() &&
-                 vaultLoc.getBlockZ() == clickedLocation.getBlockZ())
-             {
-                 clickedVaultColor = entry.getKey();
-                 break;
-             }
-        }
-
-        if (clickedVaultColor == null) {
-            return;
-        }
-
-        event.setCancelled(true);
-
+    /**
+     * Handles a right-click on a vault marker, dispatched by the {@link InteractableRegistry}
+     * (which has already checked that the game is running and the player belongs to {@code teamId}).
+     */
+    private boolean interactWithVault(UUID teamId, VaultColor clickedVaultColor, InteractContext context) {
+        Player player = context.getPlayer();
         if (isVaultOpen(teamId, clickedVaultColor)) {
             player.sendMessage(Component.text("This vault has already been opened!", NamedTextColor.YELLOW));
-            return;
+            return true;
         }
 
-        ItemStack itemInHand = player.getInventory().getItemInMainHand();
-        if (!isVaultKey(itemInHand)) {
+        ItemClassification held = context.getItemClassification(); // Classified once per click
+        if (!held.isVaultKey()) {
              player.sendMessage(Component.text("You need the ", NamedTextColor.RED)
                  .append(Component.text(clickedVaultColor.name(), getVaultColorTextColor(clickedVaultColor)))
                  .append(Component.text(" key to open this vault!", NamedTextColor.RED)));
-             return;
+             return true;
         }
 
-        VaultColor keyColor = getKeyColor(itemInHand);
+        VaultColor keyColor = held.getVaultColor();
         if (keyColor != clickedVaultColor) {
             player.sendMessage(Component.text("This key doesn't fit this vault!", NamedTextColor.RED));
-            return;
+            return true;
         }
 
         plugin.getLogger().info("Player " + player.getName() + " attempting to open " + clickedVaultColor + " vault for team " + teamId);
 
-        if (consumeKeyItem(player, keyColor)) {
+        if (ItemManager.consumeOneFromMainHand(player)) { // The classified key is the one in the main hand
             markVaultOpen(teamId, clickedVaultColor);
-            openVaultEffects(player, clickedVaultColor, clickedBlock.getLocation());
+            openVaultEffects(player, clickedVaultColor, context.getClickedBlock().getLocation());
             // TODO: Trigger reward logic
         } else {
             player.sendMessage(Component.text("Error: Could not consume the key from your inventory!", NamedTextColor.RED));
             plugin.getLogger().warning("Failed to consume key " + keyColor + " from " + player.getName() + " even after checks passed.");
         }
+        return true;
     }
 
     /**
@@ -239,16 +212,14 @@ public class VaultManager implements Listener {
              });
         }
 
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                Block block = vaultLocation.getBlock();
-                if(block.getType() == getVaultMaterial(vaultColor)) {
-                    block.setType(Material.GLASS);
-                    // TODO: Add particle/sound effects?
-                }
+        // Stepped by the shared animation scheduler, with the door animations
+        gameManager.getAnimationScheduler().runNextTick(() -> {
+            Block block = vaultLocation.getBlock();
+            if(block.getType() == getVaultMaterial(vaultColor)) {
+                block.setType(Material.GLASS);
+                // TODO: Add particle/sound effects?
             }
-        }.runTask(plugin);
+        }, AnimationScheduler.PRIORITY_NORMAL);
 
         plugin.getLogger().info(vaultColor + " vault at " + vaultLocation.toVector() + " opened by " + player.getName());
     }
@@ -264,7 +235,7 @@ public class VaultManager implements Listener {
     }
 
 
-    // --- Key Item Utility Methods (createKeyItem, isVaultKey, getKeyColor, consumeKeyItem) remain the same ---
+    // --- Key Item Utility Methods (createKeyItem, isVaultKey, getKeyColor); identification goes through ItemManager.classify ---
     public ItemStack createKeyItem(VaultColor color) {
         ItemStack key = new ItemStack(Material.TRIPWIRE_HOOK, 1);
         ItemMeta meta = key.getItemMeta();
@@ -287,49 +258,11 @@ public class VaultManager implements Listener {
         return key;
     }
     public boolean isVaultKey(@Nullable ItemStack item) {
-        if (item == null || item.getType() == Material.AIR || !item.hasItemMeta()) {
-            return false;
-        }
-        ItemMeta meta = item.getItemMeta();
-        if (meta == null) return false;
-        return meta.getPersistentDataContainer().has(vaultKeyTagKey, PersistentDataType.BYTE);
+        return ItemManager.classify(item).isVaultKey();
     }
     @Nullable
     public VaultColor getKeyColor(@Nullable ItemStack item) {
-        if (!isVaultKey(item)) {
-            return null;
-        }
-        ItemMeta meta = item.getItemMeta();
-        PersistentDataContainer pdc = meta.getPersistentDataContainer();
-        String colorString = pdc.get(vaultColorTagKey, PersistentDataType.STRING);
-        if (colorString != null) {
-            try {
-                return VaultColor.valueOf(colorString);
-            } catch (IllegalArgumentException e) {
-                plugin.getLogger().warning("Invalid VaultColor string found in item PDC: " + colorString);
-                return null;
-            }
-        }
-        plugin.getLogger().warning("Vault key item missing color tag!");
-        return null;
-    }
-    private boolean consumeKeyItem(Player player, VaultColor color) {
-        PlayerInventory inventory = player.getInventory();
-        ItemStack keyToConsume = createKeyItem(color);
-        keyToConsume.setAmount(1);
-        for (int i = 0; i < inventory.getSize(); i++) {
-            ItemStack currentItem = inventory.getItem(i);
-            if (currentItem != null && currentItem.isSimilar(keyToConsume)) {
-                 if (currentItem.getAmount() > 1) {
-                     currentItem.setAmount(currentItem.getAmount() - 1);
-                 } else {
-                     inventory.setItem(i, null);
-                 }
-                 player.updateInventory();
-                 return true;
-            }
-        }
-        return false;
+        return ItemManager.classify(item).getVaultColor();
     }
 
     // --- Visual Helpers (getVaultMaterial, getVaultColorTextColor) remain the same ---
@@ -358,6 +291,9 @@ public class VaultManager implements Listener {
      */
     public void clearAllTeamStates() {
         int count = openVaultsByTeam.size();
+        for (UUID teamId : openVaultsByTeam.keySet()) {
+            gameManager.getInteractableRegistry().unregisterAll(teamId, this);
+        }
         openVaultsByTeam.clear(); // Clear the entire map
         plugin.getLogger().info("Cleared vault states for " + count + " teams.");
     }
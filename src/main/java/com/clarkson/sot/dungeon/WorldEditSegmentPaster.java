@@ -0,0 +1,135 @@
+package com.clarkson.sot.dungeon;
+
+import com.sk89q.worldedit.EditSession;
+import com.sk89q.worldedit.WorldEdit;
+import com.sk89q.worldedit.WorldEditException;
+import com.sk89q.worldedit.bukkit.BukkitAdapter;
+import com.sk89q.worldedit.extent.AbstractDelegateExtent;
+import com.sk89q.worldedit.extent.Extent;
+import com.sk89q.worldedit.extent.clipboard.Clipboard;
+import com.sk89q.worldedit.function.operation.Operation;
+import com.sk89q.worldedit.function.operation.Operations;
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldedit.session.ClipboardHolder;
+import com.sk89q.worldedit.world.World;
+import com.sk89q.worldedit.world.block.BlockStateHolder;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.util.BoundingBox;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+/**
+ * Plain WorldEdit paste: one default EditSession (history and side effects enabled) per segment,
+ * completed in a single step on the main thread. Slower than {@link FastSegmentPaster}, but uses
+ * nothing beyond the regular WorldEdit paste path, so it is kept as the fallback backend.
+ * It also pastes entities for the fast backend.
+ */
+public class WorldEditSegmentPaster implements SegmentPaster {
+
+    private final Plugin plugin;
+
+    public WorldEditSegmentPaster(@NotNull Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    @NotNull
+    public PasteTask createPaste(@NotNull Clipboard clipboard, @NotNull World world, @NotNull BlockVector3 to,
+                                 @NotNull Consumer<? super Entity> entitySink) {
+        return new PasteTask() {
+            @Override
+            public void prepare() {
+                // Nothing to prepare; the whole paste happens in step()
+            }
+
+            @Override
+            @NotNull
+            public PasteStatus step() {
+                return paste(clipboard, world, to, entitySink) ? PasteStatus.DONE : PasteStatus.FAILED;
+            }
+        };
+    }
+
+    @Override
+    public boolean pasteEntities(@NotNull Clipboard clipboard, @NotNull World world, @NotNull BlockVector3 to,
+                                 @NotNull Consumer<? super Entity> entitySink) {
+        if (clipboard.getEntities().isEmpty()) return true;
+        return paste(clipboard, world, to, entitySink, false);
+    }
+
+    /** Pastes the whole clipboard (blocks and entities) synchronously. */
+    boolean paste(@NotNull Clipboard clipboard, @NotNull World world, @NotNull BlockVector3 to,
+                  @NotNull Consumer<? super Entity> entitySink) {
+        return paste(clipboard, world, to, entitySink, true);
+    }
+
+    private boolean paste(Clipboard clipboard, World world, BlockVector3 to, Consumer<? super Entity> entitySink, boolean pasteBlocks) {
+        // WorldEdit does not hand back the Bukkit entities it creates, so they are found by diffing the target region
+        org.bukkit.World bukkitWorld = BukkitAdapter.adapt(world);
+        BoundingBox target = clipboard.getEntities().isEmpty() ? null : targetBox(clipboard, to);
+        Set<UUID> existing = target != null ? entityIds(bukkitWorld, target) : Collections.emptySet();
+
+        boolean pasted = false;
+        try (EditSession editSession = WorldEdit.getInstance().newEditSessionBuilder().world(world).build()) {
+            Extent destination = pasteBlocks ? editSession : new EntityOnlyExtent(editSession);
+            Operation operation = new ClipboardHolder(clipboard)
+                    .createPaste(destination)
+                    .to(to)
+                    .ignoreAirBlocks(true) // Paste non-air blocks
+                    .build();
+            Operations.complete(operation);
+            pasted = true;
+        } catch (WorldEditException e) {
+            plugin.getLogger().log(Level.SEVERE, "[WorldEditSegmentPaster] Failed to paste schematic at " + to, e);
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.SEVERE, "[WorldEditSegmentPaster] Unexpected error pasting schematic at " + to, e);
+        }
+
+        if (target != null) { // Also report entities from a paste that failed part way
+            for (Entity entity : bukkitWorld.getNearbyEntities(target)) {
+                if (!(entity instanceof Player) && !existing.contains(entity.getUniqueId())) entitySink.accept(entity);
+            }
+        }
+        return pasted;
+    }
+
+    /** @return The world region the clipboard's region lands on when its origin is pasted at {@code to}. */
+    private static BoundingBox targetBox(Clipboard clipboard, BlockVector3 to) {
+        BlockVector3 offset = to.subtract(clipboard.getOrigin());
+        BlockVector3 min = clipboard.getRegion().getMinimumPoint().add(offset);
+        BlockVector3 max = clipboard.getRegion().getMaximumPoint().add(offset);
+        return new BoundingBox(min.x(), min.y(), min.z(), max.x() + 1, max.y() + 1, max.z() + 1);
+    }
+
+    private static Set<UUID> entityIds(org.bukkit.World world, BoundingBox box) {
+        Set<UUID> ids = new HashSet<>();
+        for (Entity entity : world.getNearbyEntities(box)) ids.add(entity.getUniqueId());
+        return ids;
+    }
+
+    @Override
+    @NotNull
+    public String getName() {
+        return "worldedit";
+    }
+
+    /** Passes entity creation through to the wrapped extent and drops every block change. */
+    private static final class EntityOnlyExtent extends AbstractDelegateExtent {
+        EntityOnlyExtent(Extent extent) {
+            super(extent);
+        }
+
+        @Override
+        public <T extends BlockStateHolder<T>> boolean setBlock(BlockVector3 position, T block) {
+            return false;
+        }
+    }
+}
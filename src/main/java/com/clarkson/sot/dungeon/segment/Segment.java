@@ -5,6 +5,7 @@ import com.clarkson.sot.dungeon.VaultColor;
 
 import com.sk89q.worldedit.math.BlockVector3; // Make sure this is imported
 
+import org.bukkit.Material;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -17,7 +18,7 @@ import java.util.Objects;
 /**
  * Represents a world-independent template or blueprint for a dungeon segment.
  * Stores metadata (including type, vault/key info), relative locations
- * of features (entry points, spawns, vault/key offsets), dimensions, and a link
+ * of features (entry points, spawns, vault/key offsets, doors), dimensions, and a link
  * to the schematic file. All positions are relative to the segment's conceptual
  * origin (usually its minimum corner).
  * Segment characteristics like Hub, Puzzle Room, Lava Parkour are now determined by SegmentType.
@@ -44,6 +45,7 @@ public class Segment {
     private final VaultColor containedVaultKey; // Which vault key is in this segment (null if none)
     @Nullable private final BlockVector3 vaultLocationOffset; // Relative position of the vault marker block, if containedVault is not null
     @Nullable private final BlockVector3 keyLocationOffset;   // Relative position of the key spawn, if containedVaultKey is not null
+    private final List<RelativeDoor> doors; // Segment doors (bounds, lock, material), relative to the segment origin
 
 
     /**
@@ -66,7 +68,7 @@ public class Segment {
      */
     public Segment(
             @NotNull String name,
-            @Nullable SegmentType type, // Type is now crucial
+            @Nullable SegmentType type,
             @NotNull String schematicFileName,
             @NotNull BlockVector3 size,
             @NotNull List<RelativeEntryPoint> entryPoints,
@@ -78,6 +80,33 @@ public class Segment {
             @Nullable VaultColor containedVaultKey,
             @Nullable BlockVector3 vaultLocationOffset,
             @Nullable BlockVector3 keyLocationOffset
+    ) {
+        this(name, type, schematicFileName, size, entryPoints, sandSpawnLocations, itemSpawnLocations, coinSpawnLocations,
+                totalCoins, containedVault, containedVaultKey, vaultLocationOffset, keyLocationOffset, Collections.emptyList());
+    }
+
+    /**
+     * Constructor for a Segment template that also defines segment doors.
+     * See {@link #Segment(String, SegmentType, String, BlockVector3, List, List, List, List, int, VaultColor, VaultColor, BlockVector3, BlockVector3)}
+     * for the other parameters.
+     *
+     * @param doors Doors inside this segment, relative to the segment origin.
+     */
+    public Segment(
+            @NotNull String name,
+            @Nullable SegmentType type, // Type is now crucial
+            @NotNull String schematicFileName,
+            @NotNull BlockVector3 size,
+            @NotNull List<RelativeEntryPoint> entryPoints,
+            @NotNull List<BlockVector3> sandSpawnLocations,
+            @NotNull List<BlockVector3> itemSpawnLocations,
+            @NotNull List<BlockVector3> coinSpawnLocations,
+            int totalCoins,
+            @Nullable VaultColor containedVault,
+            @Nullable VaultColor containedVaultKey,
+            @Nullable BlockVector3 vaultLocationOffset,
+            @Nullable BlockVector3 keyLocationOffset,
+            @NotNull List<RelativeDoor> doors
     ) {
         // --- Basic Validation ---
         Objects.requireNonNull(name, "Segment name cannot be null");
@@ -117,6 +146,7 @@ public class Segment {
         // Assign Offset Fields
         this.vaultLocationOffset = vaultLocationOffset;
         this.keyLocationOffset = keyLocationOffset;
+        this.doors = new ArrayList<>(doors);
     }
 
     // --- Getters for Core Info ---
@@ -162,6 +192,10 @@ public class Segment {
     }
 
 
+    /** @return The segment doors defined in this template, relative to the segment origin. */
+    @NotNull public List<RelativeDoor> getDoors() { return Collections.unmodifiableList(doors); }
+
+
     // --- Template-related Logic ---
     public boolean hasEntryPointInDirection(@NotNull Direction dir) {
         Objects.requireNonNull(dir, "Direction cannot be null");
@@ -206,6 +240,7 @@ public class Segment {
                 ", entryPoints=" + entryPoints.size() +
                 ", vault=" + containedVault + (vaultLocationOffset != null ? "@" + vaultLocationOffset : "") +
                 ", key=" + containedVaultKey + (keyLocationOffset != null ? "@" + keyLocationOffset : "") +
+                ", doors=" + doors.size() +
                 '}';
     }
 
@@ -249,4 +284,42 @@ public class Segment {
             return Objects.hash(relativePosition, direction);
         }
     }
+
+    // --- Inner Class: RelativeDoor ---
+    /**
+     * A door inside a segment: the blocks it fills when closed, the block players click with a key,
+     * and the material of the closed door. Positions are relative to the segment origin.
+     */
+    public static class RelativeDoor {
+        public static final Material DEFAULT_MATERIAL = Material.IRON_BARS;
+
+        private final BlockVector3 boundsMin;
+        private final BlockVector3 boundsMax;
+        private final BlockVector3 lockOffset;
+        private final Material material;
+
+        public RelativeDoor(@NotNull BlockVector3 boundsMin, @NotNull BlockVector3 boundsMax, @NotNull BlockVector3 lockOffset, @NotNull Material material) {
+            Objects.requireNonNull(boundsMin, "Door bounds min cannot be null");
+            Objects.requireNonNull(boundsMax, "Door bounds max cannot be null");
+            this.boundsMin = boundsMin.getMinimum(boundsMax);
+            this.boundsMax = boundsMin.getMaximum(boundsMax);
+            this.lockOffset = Objects.requireNonNull(lockOffset, "Lock offset cannot be null");
+            this.material = Objects.requireNonNull(material, "Door material cannot be null");
+            if (!material.isBlock()) throw new IllegalArgumentException("Door material must be a block: " + material);
+        }
+
+        @NotNull public BlockVector3 getBoundsMin() { return boundsMin; }
+        @NotNull public BlockVector3 getBoundsMax() { return boundsMax; }
+        @NotNull public BlockVector3 getLockOffset() { return lockOffset; }
+        @NotNull public Material getMaterial() { return material; }
+
+        @Override
+        public String toString() {
+            return "RelativeDoor{" +
+                    "bounds=" + boundsMin + ".." + boundsMax +
+                    ", lock=" + lockOffset +
+                    ", material=" + material +
+                    '}';
+        }
+    }
 }
@@ -0,0 +1,211 @@
+package com.clarkson.sot.dungeon.segment;
+
+import com.clarkson.sot.dungeon.VaultColor;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+
+/**
+ * Immutable connectivity index over the loaded segment templates, built once per load.
+ * Templates are bucketed by (entry direction, SegmentType, contained vault color, contained key color),
+ * and each bucket stores cumulative weights, so the DFS selects candidates with array lookups
+ * and a weighted pick instead of filtering the whole template list on every step.
+ *
+ * Queries take bitmasks over the type and color slots (see {@link #typeBit} and {@link #colorBit}).
+ * Slot 0 of each dimension means "none" (untyped segment / no vault / no key).
+ */
+public final class SegmentCatalog {
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final SegmentType[] TYPES = SegmentType.values();
+    private static final int TYPE_SLOTS = TYPES.length + 1;                 // + untyped
+    private static final int COLOR_SLOTS = VaultColor.values().length + 1;  // + none
+    private static final Segment[] NO_SEGMENTS = new Segment[0];
+    private static final int[] NO_WEIGHTS = new int[0];
+
+    /** Mask matching every segment type except HUB (including untyped segments). */
+    public static final int NON_HUB_TYPES = ((1 << TYPE_SLOTS) - 1) & ~typeBit(SegmentType.HUB);
+    /** Mask matching every color slot, including "none". */
+    public static final int ANY_COLOR = (1 << COLOR_SLOTS) - 1;
+
+    private final List<Segment> segments;
+    @Nullable private final Segment hub;
+    private final Segment[][] buckets;     // Flat bucket index -> templates
+    private final int[][] cumulativeWeights; // Flat bucket index -> running weight totals (parallel to buckets)
+
+    private SegmentCatalog(List<Segment> segments, @Nullable Segment hub, Segment[][] buckets, int[][] cumulativeWeights) {
+        this.segments = segments;
+        this.hub = hub;
+        this.buckets = buckets;
+        this.cumulativeWeights = cumulativeWeights;
+    }
+
+    /**
+     * Builds a catalog where every template has the same selection weight.
+     * @param segments The loaded segment templates, in a stable order.
+     */
+    @NotNull
+    public static SegmentCatalog build(@NotNull List<Segment> segments) {
+        return build(segments, segment -> 1);
+    }
+
+    /**
+     * Builds a catalog with custom selection weights.
+     * @param segments The loaded segment templates, in a stable order.
+     * @param weights  Weight of each template. Templates with a weight of zero or less are never picked.
+     */
+    @NotNull
+    public static SegmentCatalog build(@NotNull List<Segment> segments, @NotNull ToIntFunction<Segment> weights) {
+        int bucketCount = DIRECTIONS.length * TYPE_SLOTS * COLOR_SLOTS * COLOR_SLOTS;
+        List<List<Segment>> bucketLists = new ArrayList<>(bucketCount);
+        for (int i = 0; i < bucketCount; i++) bucketLists.add(null);
+
+        Segment hub = null;
+        for (Segment segment : segments) {
+            if (hub == null && segment.getType() == SegmentType.HUB) {
+                hub = segment; // First hub found, matching the previous linear search
+            }
+            int weight = weights.applyAsInt(segment);
+            if (weight <= 0) continue;
+            // A template with several entries facing the same way is only bucketed once per direction
+            Set<Direction> seen = EnumSet.noneOf(Direction.class);
+            for (Segment.RelativeEntryPoint entryPoint : segment.getEntryPoints()) {
+                if (!seen.add(entryPoint.getDirection())) continue;
+                int index = bucketIndex(entryPoint.getDirection().ordinal(), typeSlot(segment.getType()),
+                        colorSlot(segment.getContainedVault()), colorSlot(segment.getContainedVaultKey()));
+                List<Segment> bucket = bucketLists.get(index);
+                if (bucket == null) {
+                    bucket = new ArrayList<>(4);
+                    bucketLists.set(index, bucket);
+                }
+                bucket.add(segment);
+            }
+        }
+
+        Segment[][] buckets = new Segment[bucketCount][];
+        int[][] cumulativeWeights = new int[bucketCount][];
+        for (int i = 0; i < bucketCount; i++) {
+            List<Segment> bucket = bucketLists.get(i);
+            if (bucket == null) {
+                buckets[i] = NO_SEGMENTS;
+                cumulativeWeights[i] = NO_WEIGHTS;
+                continue;
+            }
+            buckets[i] = bucket.toArray(NO_SEGMENTS);
+            int[] cumulative = new int[bucket.size()];
+            int total = 0;
+            for (int j = 0; j < cumulative.length; j++) {
+                total = Math.addExact(total, weights.applyAsInt(bucket.get(j)));
+                cumulative[j] = total;
+            }
+            cumulativeWeights[i] = cumulative;
+        }
+        return new SegmentCatalog(List.copyOf(segments), hub, buckets, cumulativeWeights);
+    }
+
+    // --- Masks ---
+
+    /** @return The mask bit for a segment type (null = untyped). */
+    public static int typeBit(@Nullable SegmentType type) {
+        return 1 << typeSlot(type);
+    }
+
+    /** @return The mask bit for a vault/key color (null = none). */
+    public static int colorBit(@Nullable VaultColor color) {
+        return 1 << colorSlot(color);
+    }
+
+    // --- Queries ---
+
+    /**
+     * Sums the weights of all templates with an entry point facing {@code direction} whose
+     * type, vault and key fall within the given masks.
+     * @return The total weight, or 0 if no template matches.
+     */
+    public int totalWeight(@NotNull Direction direction, int typeMask, int vaultMask, int keyMask) {
+        int total = 0;
+        int base = direction.ordinal() * TYPE_SLOTS;
+        for (int type = 0; type < TYPE_SLOTS; type++) {
+            if ((typeMask & (1 << type)) == 0) continue;
+            for (int vault = 0; vault < COLOR_SLOTS; vault++) {
+                if ((vaultMask & (1 << vault)) == 0) continue;
+                int row = ((base + type) * COLOR_SLOTS + vault) * COLOR_SLOTS;
+                for (int key = 0; key < COLOR_SLOTS; key++) {
+                    if ((keyMask & (1 << key)) == 0) continue;
+                    int[] cumulative = cumulativeWeights[row + key];
+                    if (cumulative.length > 0) total += cumulative[cumulative.length - 1];
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Picks a weighted-random template matching the same criteria as {@link #totalWeight}.
+     * Buckets are visited in a fixed order, so the result is deterministic for a given Random state.
+     * @return The chosen template, or null if no template matches.
+     */
+    @Nullable
+    public Segment pick(@NotNull Direction direction, int typeMask, int vaultMask, int keyMask, @NotNull Random random) {
+        int total = totalWeight(direction, typeMask, vaultMask, keyMask);
+        if (total <= 0) return null;
+        int roll = random.nextInt(total);
+
+        int base = direction.ordinal() * TYPE_SLOTS;
+        for (int type = 0; type < TYPE_SLOTS; type++) {
+            if ((typeMask & (1 << type)) == 0) continue;
+            for (int vault = 0; vault < COLOR_SLOTS; vault++) {
+                if ((vaultMask & (1 << vault)) == 0) continue;
+                int row = ((base + type) * COLOR_SLOTS + vault) * COLOR_SLOTS;
+                for (int key = 0; key < COLOR_SLOTS; key++) {
+                    if ((keyMask & (1 << key)) == 0) continue;
+                    int[] cumulative = cumulativeWeights[row + key];
+                    if (cumulative.length == 0) continue;
+                    int bucketTotal = cumulative[cumulative.length - 1];
+                    if (roll >= bucketTotal) {
+                        roll -= bucketTotal;
+                        continue;
+                    }
+                    // First cumulative weight strictly greater than the roll
+                    int found = Arrays.binarySearch(cumulative, roll + 1);
+                    return buckets[row + key][found >= 0 ? found : -found - 1];
+                }
+            }
+        }
+        return null; // Unreachable while totals are consistent
+    }
+
+    /** @return The first HUB template in load order, or null if there is none. */
+    @Nullable
+    public Segment getHub() { return hub; }
+
+    /** @return All templates in load order (unmodifiable). */
+    @NotNull
+    public List<Segment> getSegments() { return segments; }
+
+    public boolean isEmpty() { return segments.isEmpty(); }
+
+    public int size() { return segments.size(); }
+
+    // --- Internals ---
+
+    private static int typeSlot(@Nullable SegmentType type) {
+        return type == null ? 0 : type.ordinal() + 1;
+    }
+
+    private static int colorSlot(@Nullable VaultColor color) {
+        return color == null ? 0 : color.ordinal() + 1;
+    }
+
+    private static int bucketIndex(int direction, int typeSlot, int vaultSlot, int keySlot) {
+        return ((direction * TYPE_SLOTS + typeSlot) * COLOR_SLOTS + vaultSlot) * COLOR_SLOTS + keySlot;
+    }
+}
@@ -0,0 +1,113 @@
+package com.clarkson.sot.entities;
+
+import io.papermc.paper.math.Position;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The block positions making up a door, computed once from its bounds and grouped into horizontal layers
+ * (layer 0 is the lowest). Door animations use it to:
+ * <ul>
+ *     <li>show a layer to nearby players with one multi-block-change packet each, without touching the world;</li>
+ *     <li>write the final state of every voxel in one pass once the animation ends, applying physics only on
+ *     the voxels at the edge of the door (interior voxels only neighbour other door voxels).</li>
+ * </ul>
+ * No Block objects are kept, and building it never loads chunks. Main thread only for the world/packet methods.
+ */
+public final class DoorVoxels {
+
+    private final World world;
+    private final int[] coords; // x, y, z per voxel, ordered by layer
+    private final int[] layerStarts; // Voxels of layer l occupy [layerStarts[l], layerStarts[l + 1])
+    private final boolean[] edge; // Voxel lies on the face of the bounding box
+    private final Position[] positions; // Parallel to voxels, reused by every packet
+
+    private DoorVoxels(World world, int[] coords, int[] layerStarts, boolean[] edge, Position[] positions) {
+        this.world = world;
+        this.coords = coords;
+        this.layerStarts = layerStarts;
+        this.edge = edge;
+        this.positions = positions;
+    }
+
+    /**
+     * Computes the voxels inside a door's bounds.
+     * @param world  The world the door is in.
+     * @param bounds The door bounds (inclusive block corners).
+     */
+    @NotNull
+    public static DoorVoxels of(@NotNull World world, @NotNull Area bounds) {
+        Location min = bounds.getMinPoint();
+        Location max = bounds.getMaxPoint();
+        int minX = Math.min(min.getBlockX(), max.getBlockX());
+        int minY = Math.min(min.getBlockY(), max.getBlockY());
+        int minZ = Math.min(min.getBlockZ(), max.getBlockZ());
+        int maxX = Math.max(min.getBlockX(), max.getBlockX());
+        int maxY = Math.max(min.getBlockY(), max.getBlockY());
+        int maxZ = Math.max(min.getBlockZ(), max.getBlockZ());
+
+        int layers = maxY - minY + 1;
+        int perLayer = (maxX - minX + 1) * (maxZ - minZ + 1);
+        int count = layers * perLayer;
+        int[] coords = new int[count * 3];
+        int[] layerStarts = new int[layers + 1];
+        boolean[] edge = new boolean[count];
+        Position[] positions = new Position[count];
+
+        int i = 0;
+        for (int y = minY; y <= maxY; y++) {
+            layerStarts[y - minY] = i;
+            for (int x = minX; x <= maxX; x++) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    coords[i * 3] = x;
+                    coords[i * 3 + 1] = y;
+                    coords[i * 3 + 2] = z;
+                    edge[i] = x == minX || x == maxX || y == minY || y == maxY || z == minZ || z == maxZ;
+                    positions[i] = Position.block(x, y, z);
+                    i++;
+                }
+            }
+        }
+        layerStarts[layers] = i;
+        return new DoorVoxels(world, coords, layerStarts, edge, positions);
+    }
+
+    @NotNull public World getWorld() { return world; }
+    public int size() { return positions.length; }
+    public int layerCount() { return layerStarts.length - 1; }
+
+    /**
+     * Shows one layer as {@code data} to the given players, client-side only.
+     * @param viewers Players to send the change to (those out of range simply ignore it).
+     */
+    public void sendLayer(@NotNull Iterable<? extends Player> viewers, int layer, @NotNull BlockData data) {
+        int start = layerStarts[layer];
+        int end = layerStarts[layer + 1];
+        Map<Position, BlockData> changes = new HashMap<>((end - start) * 2);
+        for (int i = start; i < end; i++) {
+            changes.put(positions[i], data);
+        }
+        for (Player viewer : viewers) {
+            viewer.sendMultiBlockChange(changes);
+        }
+    }
+
+    /**
+     * Writes {@code data} to every voxel in one pass, with physics on the edge voxels only.
+     * Voxels already holding {@code data} are skipped.
+     */
+    public void commit(@NotNull BlockData data) {
+        for (int i = 0; i < positions.length; i++) {
+            Block block = world.getBlockAt(coords[i * 3], coords[i * 3 + 1], coords[i * 3 + 2]);
+            if (!block.getBlockData().equals(data)) block.setBlockData(data, edge[i]);
+        }
+    }
+}
@@ -1,16 +1,15 @@
 package com.clarkson.sot.entities; // Or com.clarkson.sot.dungeon
 
-// Import the ItemManager (assuming path)
-import com.clarkson.sot.utils.ItemManager;
+import com.clarkson.sot.utils.AnimationScheduler;
+// Held-item classification from ItemManager.classify
+import com.clarkson.sot.utils.ItemClassification;
 
 import org.bukkit.Location;
 import org.bukkit.Material;
 // Removed NamespacedKey, PDC, PDT imports as they are handled by ItemManager now
-import org.bukkit.inventory.ItemStack;
 // Removed ItemMeta import
 import org.bukkit.plugin.Plugin;
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
 
 import java.util.Objects;
 import java.util.UUID;
@@ -31,31 +30,29 @@ public class SegmentDoor extends Door {
      * Constructor for SegmentDoor.
      *
      * @param plugin Plugin instance for scheduling.
+     * @param animationScheduler Shared scheduler that steps the door animation.
      * @param teamId Team this door belongs to.
      * @param bounds Area containing the door blocks.
      * @param lockLocation Location of the lock block.
      * @param doorMaterial The material the door blocks should be when closed.
      */
-    public SegmentDoor(@NotNull Plugin plugin, @NotNull UUID teamId, @NotNull Area bounds, @NotNull Location lockLocation, @NotNull Material doorMaterial) {
+    public SegmentDoor(@NotNull Plugin plugin, @NotNull AnimationScheduler animationScheduler, @NotNull UUID teamId, @NotNull Area bounds, @NotNull Location lockLocation, @NotNull Material doorMaterial) {
         // Call the abstract super constructor
-        super(plugin, teamId, bounds, lockLocation);
+        super(plugin, animationScheduler, teamId, bounds, lockLocation);
         this.doorMaterial = Objects.requireNonNull(doorMaterial, "Door material cannot be null");
 
         // Key initialization is handled centrally (e.g., SoTKeys/ItemManager init in onEnable)
     }
 
     /**
-     * Checks if the provided ItemStack is a Rusty Key by delegating to ItemManager.
+     * Checks if the classified item is a Rusty Key.
      *
-     * @param keyStack The ItemStack to check.
+     * @param key The held item's classification (see ItemManager.classify).
      * @return true if it's a valid Rusty Key, false otherwise.
      */
     @Override
-    public boolean isCorrectKey(@Nullable ItemStack keyStack) {
-        // Delegate the check to the central ItemManager
-        // This assumes ItemManager has a static method like this:
-        // public static boolean isRustyKey(ItemStack item) { ... checks PDC ... }
-        return ItemManager.isRustyKey(keyStack);
+    public boolean isCorrectKey(@NotNull ItemClassification key) {
+        return key.isRustyKey();
     }
 
     /**
@@ -19,9 +19,11 @@ import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerMoveEvent;
 import org.bukkit.inventory.ItemStack; // If spawning generic loot needs ItemStacks
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
 
 /**
  * Manages the lifecycle of FloorItem instances within dungeon instances.
@@ -37,9 +39,14 @@ public class FloorItemManager implements Listener {
     private final Map<UUID, FloorItem> activeFloorItems;
     // Tracks which items belong to which team instance for efficient cleanup and lookup
     private final Map<UUID, Set<UUID>> itemsByTeamInstance; // TeamID -> Set<FloorItem UUID>
+    // Per-team spatial hash used for pickup detection (main thread only)
+    private final Map<UUID, FloorItemSpatialIndex> spatialIndexByTeam; // TeamID -> Index
 
-    // Configuration for pickup radius (squared for efficiency)
-    private static final double PICKUP_RADIUS_SQUARED = 1.5 * 1.5; // Example: 1.5 blocks
+    // Configuration for pickup radius
+    private static final double PICKUP_RADIUS = 1.5; // Example: 1.5 blocks
+
+    // Cached so onPlayerMove does not allocate a capturing lambda per event
+    private final BiConsumer<Player, FloorItem> pickupHandler = this::handleItemPickup;
 
     public FloorItemManager(@NotNull SoT plugin, @NotNull GameManager gameManager, @NotNull ScoreManager scoreManager) {
         this.plugin = plugin;
@@ -47,6 +54,7 @@ public class FloorItemManager implements Listener {
         this.scoreManager = scoreManager;
         this.activeFloorItems = new ConcurrentHashMap<>();
         this.itemsByTeamInstance = new ConcurrentHashMap<>();
+        this.spatialIndexByTeam = new ConcurrentHashMap<>();
         plugin.getServer().getPluginManager().registerEvents(this, plugin);
         plugin.getLogger().info("FloorItemManager initialized.");
     }
@@ -60,14 +68,17 @@ public class FloorItemManager implements Listener {
      * @param teamId Owning team.
      * @param segmentInstanceId Owning segment instance.
      * @param depth Dungeon depth.
+     * @return The spawned CoinStack.
      */
-    public void spawnCoinStack(@NotNull Location location, int baseValue, @NotNull UUID teamId, @NotNull UUID segmentInstanceId, int depth) {
+    @NotNull
+    public FloorItem spawnCoinStack(@NotNull Location location, int baseValue, @NotNull UUID teamId, @NotNull UUID segmentInstanceId, int depth) {
         // TODO: Add spawn rate logic here? Or assume coins always spawn if location provided?
         // Example: if (random.nextDouble() < COIN_SPAWN_CHANCE) { ... }
 
         CoinStack coinStack = new CoinStack(plugin, location, baseValue, teamId, segmentInstanceId, depth);
         trackItem(coinStack);
         plugin.getLogger().finer("Spawned CoinStack " + coinStack.getUniqueId() + " for team " + teamId);
+        return coinStack;
     }
 
     /**
@@ -77,8 +88,10 @@ public class FloorItemManager implements Listener {
      * @param teamId Owning team.
      * @param segmentInstanceId Owning segment instance.
      * @param depth Dungeon depth.
+     * @return The spawned item, or null if nothing was spawned.
      */
-    public void spawnGenericItem(@NotNull Location location, @NotNull UUID teamId, @NotNull UUID segmentInstanceId, int depth) {
+    @Nullable
+    public FloorItem spawnGenericItem(@NotNull Location location, @NotNull UUID teamId, @NotNull UUID segmentInstanceId, int depth) {
         // TODO: Implement spawn rate logic (e.g., 30% chance to spawn anything here)
         // Example: if (random.nextDouble() > ITEM_SPAWN_CHANCE) return;
 
@@ -91,6 +104,7 @@ public class FloorItemManager implements Listener {
         // trackItem(floorLoot);
         // plugin.getLogger().finer("Spawned FloorLoot " + floorLoot.getUniqueId() + " for team " + teamId);
         plugin.getLogger().warning("spawnGenericItem logic not yet implemented!");
+        return null;
     }
 
      /**
@@ -119,6 +133,7 @@ public class FloorItemManager implements Listener {
     private void trackItem(FloorItem item) {
         activeFloorItems.put(item.getUniqueId(), item);
         itemsByTeamInstance.computeIfAbsent(item.getTeamId(), k -> ConcurrentHashMap.newKeySet()).add(item.getUniqueId());
+        spatialIndexByTeam.computeIfAbsent(item.getTeamId(), k -> new FloorItemSpatialIndex()).add(item);
     }
 
     private void untrackItem(FloorItem item) {
@@ -131,6 +146,10 @@ public class FloorItemManager implements Listener {
             //     itemsByTeamInstance.remove(item.getTeamId());
             // }
         }
+        FloorItemSpatialIndex index = spatialIndexByTeam.get(item.getTeamId());
+        if (index != null) {
+            index.remove(item);
+        }
     }
 
     // --- Pickup Detection (Proximity) ---
@@ -155,28 +174,13 @@ public class FloorItemManager implements Listener {
         Location playerLoc = event.getTo(); // Use the destination location
         if (playerLoc == null || playerLoc.getWorld() == null) return; // Should not happen
 
-        // Get items relevant to this player's team for potential optimization
-        Set<UUID> teamItemUUIDs = itemsByTeamInstance.get(teamId);
-        if (teamItemUUIDs == null || teamItemUUIDs.isEmpty()) {
+        // Only the cells around the player are visited; handleItemPickup untracks items as they are collected
+        FloorItemSpatialIndex index = spatialIndexByTeam.get(teamId);
+        if (index == null || index.size() == 0) {
             return; // No items tracked for this team
         }
-
-        // Check proximity against items for this team
-        // Convert to ArrayList for safe iteration if modification occurs (though handled by isPickedUp flag)
-        for (UUID itemId : new ArrayList<>(teamItemUUIDs)) {
-            FloorItem item = activeFloorItems.get(itemId);
-            if (item != null && !item.isPickedUp()) {
-                // Check world first for efficiency
-                Location itemLoc = item.getLocation();
-                 if (itemLoc.getWorld().equals(playerLoc.getWorld())) {
-                     // Use distance squared for performance
-                     if (playerLoc.distanceSquared(itemLoc) <= PICKUP_RADIUS_SQUARED) {
-                         handleItemPickup(player, item);
-                         // Optional: break here if player can only pick up one item per move event?
-                     }
-                 }
-            }
-        }
+        index.forEachWithin(playerLoc.getWorld(), playerLoc.getX(), playerLoc.getY(), playerLoc.getZ(),
+                PICKUP_RADIUS, player, pickupHandler);
     }
 
     // --- Pickup Handling ---
@@ -196,7 +200,7 @@ public class FloorItemManager implements Listener {
         item.handlePickup(player);
 
         // 2. Notify ScoreManager (ScoreManager handles the logic of what the item is worth)
-        scoreManager.collectFloorItem(player, item); // TODO: Implement this method in ScoreManager
+        scoreManager.collectFloorItem(player, item);
 
         // 3. Untrack the item
         untrackItem(item);
@@ -217,6 +221,7 @@ public class FloorItemManager implements Listener {
      * @param teamId The UUID of the team instance to clear.
      */
     public void clearTeamState(UUID teamId) {
+        spatialIndexByTeam.remove(teamId);
         Set<UUID> teamItemUUIDs = itemsByTeamInstance.remove(teamId); // Remove the entry for the team
         if (teamItemUUIDs != null) {
             plugin.getLogger().info("Clearing " + teamItemUUIDs.size() + " floor items for team: " + teamId);
@@ -231,9 +236,20 @@ public class FloorItemManager implements Listener {
         }
     }
 
+    /**
+     * Removes all visual representations and tracking for floor items of every team.
+     * Called by GameManager when a new game is set up.
+     */
     public void clearAllTeamStates() {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'clearAllTeamStates'");
+        if (!activeFloorItems.isEmpty()) {
+            plugin.getLogger().info("Clearing " + activeFloorItems.size() + " floor items for all teams");
+        }
+        for (FloorItem item : activeFloorItems.values()) {
+            item.removeRepresentation(); // Remove visual entity
+        }
+        activeFloorItems.clear();
+        itemsByTeamInstance.clear();
+        spatialIndexByTeam.clear();
     }
 
 }
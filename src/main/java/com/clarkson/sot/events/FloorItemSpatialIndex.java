@@ -0,0 +1,163 @@
+package com.clarkson.sot.events;
+
+import com.clarkson.sot.entities.FloorItem;
+import com.clarkson.sot.utils.BlockKeys;
+import com.clarkson.sot.utils.LongKeyTable;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+/**
+ * Spatial hash of the floor items belonging to a single team instance.
+ * Items are bucketed into 2x2x2 block cells keyed by a packed long, so a pickup
+ * check only has to visit the 3x3x3 cells around the player instead of every
+ * item the team owns. Coordinates are copied once on insert, which means queries
+ * never call FloorItem.getLocation() (and never allocate).
+ *
+ * Not thread-safe: FloorItemManager only touches it from the main server thread.
+ */
+public final class FloorItemSpatialIndex {
+
+    // 2-block cells: with a pickup radius of <= 2 blocks, every candidate lies in the 3x3x3 cells around the player
+    private static final int CELL_SHIFT = 1;
+    private static final double MAX_QUERY_RADIUS = 1 << CELL_SHIFT;
+    private static final int INITIAL_CELLS = 32;
+
+    private final LongKeyTable<Bucket> buckets = new LongKeyTable<>(INITIAL_CELLS); // Packed cell key -> bucket
+    private int size;
+
+    /**
+     * Adds an item to the index at its current location.
+     * @param item The floor item to track. Its location must have a world.
+     */
+    public void add(@NotNull FloorItem item) {
+        Location loc = item.getLocation();
+        World world = loc.getWorld();
+        if (world == null) {
+            throw new IllegalArgumentException("Floor item location must have a world: " + item.getUniqueId());
+        }
+        long key = BlockKeys.pack(loc.getBlockX() >> CELL_SHIFT, loc.getBlockY() >> CELL_SHIFT, loc.getBlockZ() >> CELL_SHIFT);
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = new Bucket();
+            buckets.put(key, bucket);
+        }
+        bucket.add(item, world, loc.getX(), loc.getY(), loc.getZ());
+        size++;
+    }
+
+    /**
+     * Removes an item from the index. Does nothing if the item is not tracked.
+     * @param item The floor item to remove.
+     * @return true if the item was found and removed.
+     */
+    public boolean remove(@NotNull FloorItem item) {
+        Location loc = item.getLocation();
+        Bucket bucket = buckets.get(BlockKeys.pack(loc.getBlockX() >> CELL_SHIFT, loc.getBlockY() >> CELL_SHIFT, loc.getBlockZ() >> CELL_SHIFT));
+        if (bucket != null && bucket.remove(item)) {
+            size--;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Visits every item within {@code radius} blocks of the given point.
+     * The consumer may remove the visited item from this index while iterating.
+     *
+     * @param world    The world the point is in; items in other worlds are ignored.
+     * @param x        Point X.
+     * @param y        Point Y.
+     * @param z        Point Z.
+     * @param radius   Search radius in blocks (at most 2).
+     * @param context  Passed through to the consumer, so callers can reuse one non-capturing consumer instance.
+     * @param consumer Called for each item in range.
+     */
+    public <C> void forEachWithin(@NotNull World world, double x, double y, double z, double radius,
+                                  C context, @NotNull BiConsumer<C, FloorItem> consumer) {
+        if (size == 0) return;
+        if (radius > MAX_QUERY_RADIUS) {
+            throw new IllegalArgumentException("Query radius " + radius + " exceeds cell size " + MAX_QUERY_RADIUS);
+        }
+        double radiusSquared = radius * radius;
+        int cellX = ((int) Math.floor(x)) >> CELL_SHIFT;
+        int cellY = ((int) Math.floor(y)) >> CELL_SHIFT;
+        int cellZ = ((int) Math.floor(z)) >> CELL_SHIFT;
+
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dz = -1; dz <= 1; dz++) {
+                    Bucket bucket = buckets.get(BlockKeys.pack(cellX + dx, cellY + dy, cellZ + dz));
+                    if (bucket == null) continue;
+                    // Iterate backwards: remove() swaps the last entry into the freed slot, which has already been visited
+                    for (int i = bucket.count - 1; i >= 0; i--) {
+                        if (i >= bucket.count) continue; // Consumer removed more than one entry
+                        double ox = bucket.xs[i] - x;
+                        double oy = bucket.ys[i] - y;
+                        double oz = bucket.zs[i] - z;
+                        if (ox * ox + oy * oy + oz * oz <= radiusSquared && world.equals(bucket.worlds[i])) {
+                            consumer.accept(context, bucket.items[i]);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /** @return Number of items currently indexed. */
+    public int size() { return size; }
+
+    /** Removes all items from the index. */
+    public void clear() {
+        buckets.clear();
+        size = 0;
+    }
+
+    /** Items in one cell, stored as parallel arrays so queries read coordinates without touching Location objects. */
+    private static final class Bucket {
+        FloorItem[] items = new FloorItem[4];
+        World[] worlds = new World[4];
+        double[] xs = new double[4];
+        double[] ys = new double[4];
+        double[] zs = new double[4];
+        int count;
+
+        void add(FloorItem item, World world, double x, double y, double z) {
+            if (count == items.length) {
+                int newLength = count * 2;
+                items = Arrays.copyOf(items, newLength);
+                worlds = Arrays.copyOf(worlds, newLength);
+                xs = Arrays.copyOf(xs, newLength);
+                ys = Arrays.copyOf(ys, newLength);
+                zs = Arrays.copyOf(zs, newLength);
+            }
+            items[count] = item;
+            worlds[count] = world;
+            xs[count] = x;
+            ys[count] = y;
+            zs[count] = z;
+            count++;
+        }
+
+        boolean remove(FloorItem item) {
+            for (int i = 0; i < count; i++) {
+                if (items[i] == item) {
+                    int last = --count;
+                    items[i] = items[last];
+                    worlds[i] = worlds[last];
+                    xs[i] = xs[last];
+                    ys[i] = ys[last];
+                    zs[i] = zs[last];
+                    items[last] = null;
+                    worlds[last] = null;
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.clarkson.sot.events;
+
+import com.clarkson.sot.dungeon.DungeonManager;
+import com.clarkson.sot.main.GameManager;
+import com.clarkson.sot.utils.ItemClassification;
+import com.clarkson.sot.utils.ItemManager;
+
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.entity.Player;
+import org.bukkit.event.block.Action;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.UUID;
+
+/**
+ * Per-click state shared by every handler the {@link InteractDispatcher} routes an event to.
+ * <ul>
+ *     <li>The held item's meta (a copy on every {@code getItemMeta()} call) is read at most once, and its
+ *     SoT tags are classified from that same copy.</li>
+ *     <li>The player's team and dungeon instance are resolved at most once, and only if a handler asks.</li>
+ * </ul>
+ * One instance is reused for every event; handlers must not keep a reference to it after returning.
+ * Main thread only.
+ */
+public final class InteractContext {
+
+    private final GameManager gameManager;
+
+    private PlayerInteractEvent event;
+    private Player player;
+    private ItemStack item;
+
+    private boolean metaRead;
+    @Nullable private ItemMeta heldItemMeta;
+    @Nullable private ItemClassification classification;
+    private boolean teamResolved;
+    @Nullable private UUID teamId;
+    private boolean dungeonResolved;
+    @Nullable private DungeonManager dungeonManager;
+
+    boolean inUse;
+
+    InteractContext(@NotNull GameManager gameManager) {
+        this.gameManager = gameManager;
+    }
+
+    void reset(@NotNull PlayerInteractEvent event) {
+        this.event = event;
+        this.player = event.getPlayer();
+        ItemStack eventItem = event.getItem();
+        this.item = eventItem != null ? eventItem : ItemStack.empty();
+        this.metaRead = false;
+        this.heldItemMeta = null;
+        this.classification = null;
+        this.teamResolved = false;
+        this.teamId = null;
+        this.dungeonResolved = false;
+        this.dungeonManager = null;
+        this.inUse = true;
+    }
+
+    /** Drops references to the event, player and item so they are not kept alive between clicks. */
+    void clear() {
+        this.event = null;
+        this.player = null;
+        this.item = null;
+        this.heldItemMeta = null;
+        this.dungeonManager = null;
+        this.inUse = false;
+    }
+
+    @NotNull public PlayerInteractEvent getEvent() { return event; }
+    @NotNull public Player getPlayer() { return player; }
+    @NotNull public Action getAction() { return event.getAction(); }
+    @Nullable public Block getClickedBlock() { return event.getClickedBlock(); }
+    @Nullable public BlockFace getBlockFace() { return event.getBlockFace(); }
+    @NotNull public GameManager getGameManager() { return gameManager; }
+
+    /** @return The item in the main hand; an empty stack if the hand is empty. */
+    @NotNull
+    public ItemStack getItem() {
+        return item;
+    }
+
+    /**
+     * @return The held item's meta, read once per event, or null for an empty hand.
+     * Treat it as read-only; it is a copy and changes are not written back to the item.
+     */
+    @Nullable
+    public ItemMeta getHeldItemMeta() {
+        if (!metaRead) {
+            metaRead = true;
+            heldItemMeta = item.getType().isAir() || !item.hasItemMeta() ? null : item.getItemMeta();
+        }
+        return heldItemMeta;
+    }
+
+    /** @return The classification of the held item, computed once per event from {@link #getHeldItemMeta()}. */
+    @NotNull
+    public ItemClassification getItemClassification() {
+        if (classification == null) {
+            classification = ItemManager.classify(getHeldItemMeta());
+        }
+        return classification;
+    }
+
+    /** @return The SoT tool type tag of the held item, or null if it is not a tool. */
+    @Nullable
+    public String getToolType() {
+        return getItemClassification().getToolType();
+    }
+
+    /** @return The player's team, or null if they are not on one. */
+    @Nullable
+    public UUID getTeamId() {
+        if (!teamResolved) {
+            teamResolved = true;
+            teamId = gameManager.getTeamManager().getPlayerTeamId(player);
+        }
+        return teamId;
+    }
+
+    /** @return The dungeon instance of the player's team, or null if there is none. */
+    @Nullable
+    public DungeonManager getDungeonManager() {
+        if (!dungeonResolved) {
+            dungeonResolved = true;
+            UUID team = getTeamId();
+            dungeonManager = team != null ? gameManager.getTeamDungeonManager(team) : null;
+        }
+        return dungeonManager;
+    }
+}
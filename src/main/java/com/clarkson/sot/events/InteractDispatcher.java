@@ -0,0 +1,69 @@
+package com.clarkson.sot.events;
+
+import com.clarkson.sot.main.GameManager;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.Action;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.inventory.EquipmentSlot;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * The plugin's only {@link PlayerInteractEvent} listener.
+ * <ol>
+ *     <li>Main-hand events are wrapped in a reused {@link InteractContext}, which resolves the player's
+ *     team/dungeon and the held item's classification at most once, on demand.</li>
+ *     <li>Right-clicks on a block registered in the {@link InteractableRegistry} (vaults, doors) are handled
+ *     by that block's interactable; a consumed click stops here.</li>
+ *     <li>Otherwise, if the held item carries a SoT tool tag, the handler registered for that tag runs.</li>
+ * </ol>
+ */
+public final class InteractDispatcher implements Listener {
+
+    private final GameManager gameManager;
+    private final Map<String, Consumer<InteractContext>> toolHandlers = new HashMap<>(); // Tool type tag -> handler
+    private final InteractContext context;
+
+    public InteractDispatcher(@NotNull GameManager gameManager) {
+        this.gameManager = Objects.requireNonNull(gameManager, "GameManager cannot be null");
+        this.context = new InteractContext(gameManager);
+    }
+
+    /**
+     * Routes clicks made while holding an item tagged with {@code toolType} to {@code handler}.
+     * Replaces any handler previously registered for the same tag.
+     */
+    public void registerToolHandler(@NotNull String toolType, @NotNull Consumer<InteractContext> handler) {
+        toolHandlers.put(toolType, handler);
+    }
+
+    @EventHandler(priority = EventPriority.HIGH)
+    public void onPlayerInteract(PlayerInteractEvent event) {
+        if (event.getHand() != EquipmentSlot.HAND) return; // Only handle main hand
+        if (event.getAction() == Action.PHYSICAL) return;
+
+        // A handler may trigger a nested interact event; give it its own context instead of clobbering ours
+        InteractContext ctx = context.inUse ? new InteractContext(gameManager) : context;
+        ctx.reset(event);
+        try {
+            if (event.getAction() == Action.RIGHT_CLICK_BLOCK && gameManager.getInteractableRegistry().dispatch(ctx)) {
+                event.setCancelled(true);
+                return;
+            }
+            if (toolHandlers.isEmpty() || ctx.getItem().getType().isAir()) return;
+            String toolType = ctx.getToolType();
+            if (toolType == null) return; // Not one of our tools
+            Consumer<InteractContext> handler = toolHandlers.get(toolType);
+            if (handler != null) handler.accept(ctx);
+        } finally {
+            ctx.clear();
+        }
+    }
+}
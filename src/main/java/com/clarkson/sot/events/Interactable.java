@@ -0,0 +1,20 @@
+package com.clarkson.sot.events;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A block inside a dungeon instance that reacts to being right-clicked (vault marker, door lock, ...).
+ * Registered with the {@link InteractableRegistry}, which only dispatches clicks from members of the
+ * team the block was registered for, while the game is running.
+ */
+@FunctionalInterface
+public interface Interactable {
+
+    /**
+     * Handles a right-click on the registered block.
+     *
+     * @param context The click; its player is a member of the owning team and its clicked block is the registered one.
+     * @return true if the click was consumed; the interact event is then cancelled.
+     */
+    boolean interact(@NotNull InteractContext context);
+}
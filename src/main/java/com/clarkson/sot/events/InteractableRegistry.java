@@ -0,0 +1,150 @@
+package com.clarkson.sot.events;
+
+import com.clarkson.sot.main.GameManager;
+import com.clarkson.sot.main.GameState;
+import com.clarkson.sot.utils.BlockKeys;
+import com.clarkson.sot.utils.LongKeyTable;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Lookup of every interactive block in the dungeon instances (vaults, doors, ...), consulted by the
+ * {@link InteractDispatcher} on right-clicks.
+ * <ul>
+ *     <li>Blocks are keyed by their packed block position in a {@link LongKeyTable}; a registration
+ *     also stores its world id, so a click costs one hash lookup plus a world check, with no allocation.</li>
+ *     <li>The clicking player's team is only resolved once a registered block was hit, and the click is
+ *     ignored unless it matches the team the block was registered for.</li>
+ *     <li>Each block has at most one interactable; the first registration wins.</li>
+ * </ul>
+ * Registrations are tagged with an owner (the registering manager) so each manager can drop its own
+ * blocks when a team's instance is cleaned up. Main thread only.
+ */
+public final class InteractableRegistry {
+
+    private final GameManager gameManager;
+
+    private LongKeyTable<Registration> entries = new LongKeyTable<>(); // Packed block position -> registration chain
+
+    private final Map<UUID, List<Registration>> registrationsByTeam = new HashMap<>();
+
+    public InteractableRegistry(@NotNull GameManager gameManager) {
+        this.gameManager = Objects.requireNonNull(gameManager, "GameManager cannot be null");
+    }
+
+    /**
+     * Registers an interactable block for a team.
+     *
+     * @param location     The block location. Must have a world.
+     * @param teamId       The team allowed to interact with it.
+     * @param owner        Tag used by {@link #unregisterAll(UUID, Object)}, normally the registering manager.
+     * @param interactable The click handler.
+     * @return false if another interactable is already registered at that block.
+     */
+    public boolean register(@NotNull Location location, @NotNull UUID teamId, @NotNull Object owner,
+                            @NotNull Interactable interactable) {
+        World world = location.getWorld();
+        if (world == null) {
+            throw new IllegalArgumentException("Interactable location must have a world");
+        }
+        UUID worldId = world.getUID();
+        long key = BlockKeys.pack(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+        if (find(worldId, key) != null) return false;
+
+        Registration registration = new Registration(worldId, key, teamId, owner, interactable);
+        insert(registration);
+        registrationsByTeam.computeIfAbsent(teamId, k -> new ArrayList<>()).add(registration);
+        return true;
+    }
+
+    /** Removes every block registered by {@code owner} for a team. */
+    public void unregisterAll(@NotNull UUID teamId, @NotNull Object owner) {
+        List<Registration> teamRegistrations = registrationsByTeam.get(teamId);
+        if (teamRegistrations == null) return;
+        if (!teamRegistrations.removeIf(r -> r.owner == owner)) return;
+        if (teamRegistrations.isEmpty()) registrationsByTeam.remove(teamId);
+        rebuild(); // Only happens on instance cleanup, so a full rebuild keeps removal simple
+    }
+
+    /** Removes every registration. */
+    public void clear() {
+        registrationsByTeam.clear();
+        entries = new LongKeyTable<>(); // Drop the capacity grown for the last game
+    }
+
+    /** @return The interactable registered at the block, or null. */
+    @Nullable
+    public Interactable get(@NotNull Block block) {
+        Registration registration = find(block.getWorld().getUID(), BlockKeys.pack(block.getX(), block.getY(), block.getZ()));
+        return registration != null ? registration.interactable : null;
+    }
+
+    /**
+     * Hands a right-click to the interactable registered at the clicked block, if any.
+     * Clicks are only dispatched while the game is running and from members of the block's team.
+     * @return true if an interactable consumed the click.
+     */
+    boolean dispatch(@NotNull InteractContext context) {
+        if (entries.isEmpty()) return false;
+        Block clickedBlock = context.getClickedBlock();
+        if (clickedBlock == null) return false;
+
+        Registration registration = find(clickedBlock.getWorld().getUID(),
+                BlockKeys.pack(clickedBlock.getX(), clickedBlock.getY(), clickedBlock.getZ()));
+        if (registration == null) return false;
+        if (gameManager.getCurrentState() != GameState.RUNNING) return false;
+        if (!registration.teamId.equals(context.getTeamId())) return false;
+
+        return registration.interactable.interact(context);
+    }
+
+    // --- Internals ---
+
+    @Nullable
+    private Registration find(UUID worldId, long key) {
+        // Same position in different worlds share a key; the chain is almost always one entry long
+        for (Registration r = entries.get(key); r != null; r = r.next) {
+            if (r.worldId.equals(worldId)) return r;
+        }
+        return null;
+    }
+
+    private void insert(Registration registration) {
+        registration.next = entries.put(registration.key, registration);
+    }
+
+    private void rebuild() {
+        List<Registration> all = new ArrayList<>();
+        for (List<Registration> teamRegistrations : registrationsByTeam.values()) all.addAll(teamRegistrations);
+        entries = new LongKeyTable<>(all.size());
+        for (Registration r : all) insert(r);
+    }
+
+    private static final class Registration {
+        final UUID worldId;
+        final long key;
+        final UUID teamId;
+        final Object owner;
+        final Interactable interactable;
+        @Nullable Registration next; // Next registration at the same position in another world
+
+        Registration(UUID worldId, long key, UUID teamId, Object owner, Interactable interactable) {
+            this.worldId = worldId;
+            this.key = key;
+            this.teamId = teamId;
+            this.owner = owner;
+            this.interactable = interactable;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.clarkson.sot.events;
+
+import com.clarkson.sot.dungeon.segment.PlacedSegment;
+
+import org.bukkit.entity.Player;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.player.PlayerEvent;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.UUID;
+
+/**
+ * Fired by the {@link SegmentTracker} when a player moves out of a segment of their team's dungeon instance,
+ * teleports away from it, or quits while inside it.
+ */
+public class SegmentLeaveEvent extends PlayerEvent {
+
+    private static final HandlerList HANDLERS = new HandlerList();
+
+    private final UUID teamId;
+    private final PlacedSegment segment;
+    private final int segmentIndex;
+
+    public SegmentLeaveEvent(@NotNull Player player, @NotNull UUID teamId, @NotNull PlacedSegment segment, int segmentIndex) {
+        super(player);
+        this.teamId = teamId;
+        this.segment = segment;
+        this.segmentIndex = segmentIndex;
+    }
+
+    /** @return The team whose dungeon instance the segment belongs to. */
+    @NotNull public UUID getTeamId() { return teamId; }
+    /** @return The segment left, with absolute world bounds. */
+    @NotNull public PlacedSegment getSegment() { return segment; }
+    /** @return The segment's index in its instance's {@link com.clarkson.sot.dungeon.SegmentLocator}. */
+    public int getSegmentIndex() { return segmentIndex; }
+    /** @return The segment's depth (0 for the hub). */
+    public int getDepth() { return segment.getDepth(); }
+
+    @NotNull
+    @Override
+    public HandlerList getHandlers() {
+        return HANDLERS;
+    }
+
+    @NotNull
+    public static HandlerList getHandlerList() {
+        return HANDLERS;
+    }
+}
@@ -0,0 +1,196 @@
+package com.clarkson.sot.events;
+
+import com.clarkson.sot.dungeon.DungeonManager;
+import com.clarkson.sot.dungeon.SegmentLocator;
+import com.clarkson.sot.dungeon.segment.PlacedSegment;
+import com.clarkson.sot.main.GameManager;
+import com.clarkson.sot.main.GameState;
+import com.clarkson.sot.main.SoT;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Keeps track of which segment of their team's dungeon instance each player is in.
+ * <ul>
+ *     <li>Only moves that change block are looked at, and each costs one {@link SegmentLocator} lookup;
+ *     events fire only when the segment actually changes.</li>
+ *     <li>The current segment index and depth of each tracked player sit in array slots, so
+ *     {@link #getDepth(int)} and friends are plain array reads.</li>
+ *     <li>On a change, {@link SegmentLeaveEvent} fires for the old segment, then {@link SegmentEnterEvent} for the
+ *     new one. The tracker already reports the new segment when they fire.</li>
+ * </ul>
+ * Tracking happens while the game is running. Main thread only.
+ */
+public final class SegmentTracker implements Listener {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final GameManager gameManager;
+
+    private final Map<UUID, Integer> slotByPlayer = new HashMap<>(); // Main thread only
+    private UUID[] teams = new UUID[INITIAL_CAPACITY];
+    private SegmentLocator[] locators = new SegmentLocator[INITIAL_CAPACITY]; // Locator the slot's index refers to
+    private int[] segmentIndices = new int[INITIAL_CAPACITY];
+    private int[] depths = new int[INITIAL_CAPACITY];
+    private int[] freeSlots = new int[INITIAL_CAPACITY];
+    private int freeCount;
+    private int nextSlot;
+
+    public SegmentTracker(@NotNull SoT plugin, @NotNull GameManager gameManager) {
+        this.gameManager = gameManager;
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+    }
+
+    // --- Queries ---
+
+    /** @return The player's tracking slot, or -1 if they are not tracked. Stable until they quit or the game ends. */
+    public int getSlot(@NotNull UUID playerId) {
+        Integer slot = slotByPlayer.get(playerId);
+        return slot != null ? slot : -1;
+    }
+
+    /** @return Index (in the instance's {@link SegmentLocator}) of the segment the slot's player is in, or {@link SegmentLocator#NONE}. */
+    public int getSegmentIndex(int slot) {
+        return slot >= 0 && slot < nextSlot ? segmentIndices[slot] : SegmentLocator.NONE;
+    }
+
+    /** @return Depth of the segment the slot's player is in, or 0 outside every segment. */
+    public int getDepth(int slot) {
+        return slot >= 0 && slot < nextSlot ? depths[slot] : 0;
+    }
+
+    /** @return The segment the player is in, or null. */
+    @Nullable
+    public PlacedSegment getCurrentSegment(@NotNull Player player) {
+        int slot = getSlot(player.getUniqueId());
+        if (slot < 0 || segmentIndices[slot] == SegmentLocator.NONE) return null;
+        return locators[slot].getSegment(segmentIndices[slot]);
+    }
+
+    /** @return Depth of the segment the player is in, or 0 outside every segment. */
+    public int getCurrentDepth(@NotNull Player player) {
+        return getDepth(getSlot(player.getUniqueId()));
+    }
+
+    /** Forgets every player without firing events. Called when a game is set up or ends. */
+    public void clear() {
+        slotByPlayer.clear();
+        Arrays.fill(teams, null);
+        Arrays.fill(locators, null);
+        freeCount = 0;
+        nextSlot = 0;
+    }
+
+    // --- Event Handling ---
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerMove(PlayerMoveEvent event) {
+        if (event.hasChangedBlock()) update(event.getPlayer(), event.getTo());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerTeleport(PlayerTeleportEvent event) {
+        if (event.hasChangedBlock()) update(event.getPlayer(), event.getTo());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        Player player = event.getPlayer();
+        Integer slot = slotByPlayer.remove(player.getUniqueId());
+        if (slot == null) return;
+        int oldIndex = segmentIndices[slot];
+        SegmentLocator oldLocator = locators[slot];
+        UUID oldTeam = teams[slot];
+        release(slot);
+        if (oldIndex != SegmentLocator.NONE) {
+            fireLeave(player, oldTeam, oldLocator, oldIndex);
+        }
+    }
+
+    private void update(@NotNull Player player, @NotNull Location to) {
+        if (gameManager.getCurrentState() != GameState.RUNNING) return;
+
+        UUID teamId = gameManager.getTeamManager().getPlayerTeamId(player);
+        DungeonManager dungeon = teamId != null ? gameManager.getTeamDungeonManager(teamId) : null;
+        SegmentLocator locator = dungeon != null ? dungeon.getSegmentLocator() : SegmentLocator.empty();
+
+        Integer tracked = slotByPlayer.get(player.getUniqueId());
+        if (tracked == null && locator.size() == 0) return; // Not tracked and no instance to be in
+        int slot = tracked != null ? tracked : allocate(player.getUniqueId());
+
+        int index = locator.indexAt(to);
+        if (locator == locators[slot] && index == segmentIndices[slot]) return; // Still in the same segment
+
+        int oldIndex = segmentIndices[slot];
+        SegmentLocator oldLocator = locators[slot];
+        UUID oldTeam = teams[slot];
+        teams[slot] = teamId;
+        locators[slot] = locator;
+        segmentIndices[slot] = index;
+        depths[slot] = index != SegmentLocator.NONE ? locator.getSegment(index).getDepth() : 0;
+
+        if (oldIndex != SegmentLocator.NONE) {
+            fireLeave(player, oldTeam, oldLocator, oldIndex);
+        }
+        // A leave listener may have moved the player again; only announce the segment if they are still in it
+        if (index != SegmentLocator.NONE && teamId != null && locators[slot] == locator && segmentIndices[slot] == index
+                && slotByPlayer.containsKey(player.getUniqueId())
+                && SegmentEnterEvent.getHandlerList().getRegisteredListeners().length > 0) {
+            player.getServer().getPluginManager().callEvent(new SegmentEnterEvent(player, teamId, locator.getSegment(index), index));
+        }
+    }
+
+    private static void fireLeave(Player player, @Nullable UUID teamId, SegmentLocator locator, int index) {
+        if (teamId == null || SegmentLeaveEvent.getHandlerList().getRegisteredListeners().length == 0) return;
+        player.getServer().getPluginManager().callEvent(new SegmentLeaveEvent(player, teamId, locator.getSegment(index), index));
+    }
+
+    // --- Slots ---
+
+    private int allocate(UUID playerId) {
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            slot = nextSlot++;
+            if (slot == segmentIndices.length) grow();
+        }
+        teams[slot] = null;
+        locators[slot] = SegmentLocator.empty();
+        segmentIndices[slot] = SegmentLocator.NONE;
+        depths[slot] = 0;
+        slotByPlayer.put(playerId, slot);
+        return slot;
+    }
+
+    private void release(int slot) {
+        teams[slot] = null;
+        locators[slot] = null;
+        segmentIndices[slot] = SegmentLocator.NONE;
+        depths[slot] = 0;
+        if (freeCount == freeSlots.length) freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        freeSlots[freeCount++] = slot;
+    }
+
+    private void grow() {
+        int capacity = segmentIndices.length * 2;
+        teams = Arrays.copyOf(teams, capacity);
+        locators = Arrays.copyOf(locators, capacity);
+        segmentIndices = Arrays.copyOf(segmentIndices, capacity);
+        depths = Arrays.copyOf(depths, capacity);
+    }
+}
@@ -18,12 +18,8 @@ import org.bukkit.entity.Entity; // Import base Entity class
 import org.bukkit.entity.EntityType;
 import org.bukkit.entity.ItemDisplay;
 import org.bukkit.entity.Player;
-import org.bukkit.event.EventHandler;
-import org.bukkit.event.EventPriority;
-import org.bukkit.event.Listener;
 import org.bukkit.event.block.Action;
 import org.bukkit.event.player.PlayerInteractEvent;
-import org.bukkit.inventory.EquipmentSlot;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.persistence.PersistentDataContainer;
@@ -31,6 +27,8 @@ import org.bukkit.persistence.PersistentDataType;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.util.RayTraceResult; // Import for entity ray tracing
 import org.bukkit.util.Transformation;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.joml.AxisAngle4f;
 import org.joml.Quaternionf; // Using Quaternion for potentially easier rotation
 import org.joml.Vector3f;
@@ -39,11 +37,11 @@ import java.util.logging.Level;
 import java.util.function.Predicate; // For ray trace filter
 
 /**
- * Listens for interactions with SoT tools.
+ * Handles interactions with SoT tools, routed here by the {@link InteractDispatcher} by tool type tag.
  * Right-click places markers OR rotates existing entry point markers.
  * Left-click removes markers the player is looking at.
  */
-public class ToolListener implements Listener {
+public class ToolListener {
 
     private final SoT plugin;
 
@@ -56,8 +54,6 @@ public class ToolListener implements Listener {
     private static final Material ENTRY_POINT_MARKER_ITEM_MATERIAL = Material.ARROW; // Item to display for entry points
 
     // --- PDC Keys (Define consistently) ---
-    private final NamespacedKey TOOL_TYPE_KEY;
-    private final NamespacedKey TOOL_VALUE_KEY; // Used by coin tool
     private final NamespacedKey MARKER_TYPE_KEY; // Used for the marker entity (ItemDisplay or ArmorStand)
     private final NamespacedKey DIRECTION_KEY; // Used for entry point marker entity
     private final NamespacedKey VAULT_COLOR_KEY; // Used for vault/key marker entity
@@ -66,33 +62,28 @@ public class ToolListener implements Listener {
     public ToolListener(SoT plugin) {
         this.plugin = plugin;
         // Initialize keys
-        TOOL_TYPE_KEY = new NamespacedKey(plugin, "sot_tool_type");
-        TOOL_VALUE_KEY = new NamespacedKey(plugin, "sot_tool_value");
         MARKER_TYPE_KEY = new NamespacedKey(plugin, "sot_marker_type");
         DIRECTION_KEY = new NamespacedKey(plugin, "sot_direction");
         VAULT_COLOR_KEY = new NamespacedKey(plugin, "sot_vault_color");
         BUILD_MARKER_TAG = new NamespacedKey(plugin, "sot_build_marker"); // Key for the general build marker tag
     }
 
-    @EventHandler(priority = EventPriority.HIGH)
-    public void onPlayerInteract(PlayerInteractEvent event) {
-        if (event.getHand() != EquipmentSlot.HAND) return; // Only handle main hand
-
-        Player player = event.getPlayer();
-        ItemStack itemInHand = event.getItem();
-
-        if (itemInHand == null || itemInHand.getType() == Material.AIR) return;
-        ItemMeta meta = itemInHand.getItemMeta();
-        if (meta == null) return;
-        PersistentDataContainer pdc = meta.getPersistentDataContainer();
-        if (!pdc.has(TOOL_TYPE_KEY, PersistentDataType.STRING)) return; // Not one of our tools
+    /** Registers this class's tool handlers with the interact dispatcher, keyed by tool type tag. */
+    public void registerHandlers(@NotNull InteractDispatcher dispatcher) {
+        dispatcher.registerToolHandler("COIN_PLACER", this::onToolInteract);
+        dispatcher.registerToolHandler("ITEM_SPAWN_PLACER", this::onToolInteract);
+        dispatcher.registerToolHandler("ENTRY_POINT_PLACER", this::onToolInteract);
+    }
 
-        String toolType = pdc.get(TOOL_TYPE_KEY, PersistentDataType.STRING);
+    private void onToolInteract(InteractContext context) {
+        PlayerInteractEvent event = context.getEvent();
+        Player player = context.getPlayer();
+        String toolType = context.getToolType();
 
         // --- Handle Right-Click (Placement or Rotation) ---
         if (event.getAction() == Action.RIGHT_CLICK_AIR || event.getAction() == Action.RIGHT_CLICK_BLOCK) {
             if ("COIN_PLACER".equals(toolType)) {
-                handleCoinPlacerTool(event, player, pdc);
+                handleCoinPlacerTool(event, player, context.getItemClassification().getCoinValue());
             } else if ("ITEM_SPAWN_PLACER".equals(toolType)) {
                 handleItemSpawnPlacerTool(event, player);
             } else if ("ENTRY_POINT_PLACER".equals(toolType)) {
@@ -102,21 +93,18 @@ public class ToolListener implements Listener {
         }
         // --- Handle Left-Click (Removal) ---
         else if (event.getAction() == Action.LEFT_CLICK_AIR || event.getAction() == Action.LEFT_CLICK_BLOCK) {
-            // Check if the tool held is *any* of our placement tools
-            if ("COIN_PLACER".equals(toolType) || "ITEM_SPAWN_PLACER".equals(toolType) || "ENTRY_POINT_PLACER".equals(toolType)) {
-                 handleMarkerRemoval(event, player);
-            }
+            // Every tool routed here is one of our placement tools
+            handleMarkerRemoval(event, player);
         }
     }
 
     // --- Tool Handlers ---
 
-    private void handleCoinPlacerTool(PlayerInteractEvent event, Player player, PersistentDataContainer toolPdc) {
+    private void handleCoinPlacerTool(PlayerInteractEvent event, Player player, @Nullable Integer toolValue) {
         event.setCancelled(true);
         if (!player.hasPermission("sot.admin.placedisplay")) { /* ... perm msg ... */ return; }
-        if (!toolPdc.has(TOOL_VALUE_KEY, PersistentDataType.INTEGER)) { /* ... missing value msg ... */ return; }
-        int baseValue = toolPdc.get(TOOL_VALUE_KEY, PersistentDataType.INTEGER);
-        spawnCoinDisplayVisual(player, baseValue, event.getClickedBlock(), event.getBlockFace());
+        if (toolValue == null) { /* ... missing value msg ... */ return; }
+        spawnCoinDisplayVisual(player, toolValue, event.getClickedBlock(), event.getBlockFace());
     }
 
     private void handleItemSpawnPlacerTool(PlayerInteractEvent event, Player player) {
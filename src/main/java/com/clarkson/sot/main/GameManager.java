@@ -4,8 +4,12 @@ package com.clarkson.sot.main;
 import com.clarkson.sot.dungeon.*; // Includes Dungeon, DungeonBlueprint, VaultColor, VaultManager
 import com.clarkson.sot.dungeon.DoorManager; // Import DoorManager
 import com.clarkson.sot.events.FloorItemManager; // Import FloorItemManager
+import com.clarkson.sot.events.InteractableRegistry;
+import com.clarkson.sot.events.SegmentTracker;
 import com.clarkson.sot.scoring.BankingManager;
 import com.clarkson.sot.scoring.ScoreManager;
+import com.clarkson.sot.timer.GameLoop;
+import com.clarkson.sot.timer.VisualSandTimerDisplay;
 import com.clarkson.sot.utils.*; // PlayerStateManager, PlayerStatus, SandManager, SoTTeam, TeamDefinition, TeamManager
 
 import org.bukkit.Bukkit;
@@ -19,8 +23,13 @@ import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import net.kyori.adventure.text.format.TextDecoration;
 
+import java.io.File;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap; // Added for maps accessed by listeners
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Level;
 
 import javax.annotation.Nullable;
 
@@ -40,8 +49,20 @@ public class GameManager {
     private final ScoreManager scoreManager;
     private final BankingManager bankingManager;
     private final VaultManager vaultManager;
+    private final InteractableRegistry interactableRegistry; // Single right-click dispatch for vaults and doors
+    private final AnimationScheduler animationScheduler; // One task steps every door and vault animation
+    private final GameLoop gameLoop; // One task advances every team timer and its sand display
+    private final VisualSandTimerDisplay.RenderMode sandTimerRenderMode; // How team sand timers are drawn
     private final DungeonGenerator dungeonGenerator;
+    private final SchematicCache schematicCache; // Shared by all DungeonManager instances
+    private final DungeonBuildPipeline buildPipeline; // Builds team instances across ticks
+    private final SegmentPaster segmentPaster; // Paste backend shared by all DungeonManager instances
+    private final int pasteSectionsPerStep;
+    private final boolean instancingEnabled; // Paste one instance, replicate it for the other teams
+    @Nullable private final InstanceWorldManager instanceWorldManager; // Void world with team slots, null if disabled
+    private final Map<UUID, Integer> teamWorldSlots; // TeamID -> slot in the instance world
     private final FloorItemManager floorItemManager; // Added
+    private final SegmentTracker segmentTracker; // Which segment each player is in
     private final DoorManager doorManager; // Added
     private final Map<UUID, DungeonManager> teamDungeonManagers; // TeamID -> Manager for their instance
     private final Map<UUID, SoTTeam> activeTeamsInGame; // TeamID -> Active team object
@@ -54,6 +75,12 @@ public class GameManager {
     // --- Constants ---
     private static final Vector DUNGEON_BASE_OFFSET = new Vector(10000, 100, 10000); // Offset from world spawn/anchor
     private static final Vector TEAM_DUNGEON_SPACING = new Vector(5000, 0, 0); // Space between team instances
+    private static final int DEFAULT_SCHEMATIC_CACHE_SIZE = 64; // Max parsed schematics kept in memory
+    private static final double DEFAULT_BUILD_TICK_BUDGET_MS = 10.0; // Max ms per tick spent building instances
+    private static final double DEFAULT_ANIMATION_TICK_BUDGET_MS = 2.0; // Max ms per tick spent stepping animations
+    private static final int DEFAULT_PASTE_SECTIONS_PER_STEP = 8; // Chunk sections committed per fast paste step
+    private static final int DEFAULT_SLOT_SPACING_CHUNKS = 128; // 2048 blocks between instance world slots
+    private static final int DEFAULT_PRELOAD_RADIUS_CHUNKS = 6; // Chunks kept loaded around each slot origin
 
     /**
      * Constructor for GameManager (Refactored).
@@ -74,14 +101,29 @@ public class GameManager {
         this.scoreManager = new ScoreManager(teamManager, this, plugin);
         this.bankingManager = new BankingManager(scoreManager);
         this.sandManager = new SandManager(this); // Pass self
+        this.interactableRegistry = new InteractableRegistry(this); // Before the managers that register into it
+        this.animationScheduler = new AnimationScheduler(plugin,
+                plugin.getConfig().getDouble("animation.tick-budget-ms", DEFAULT_ANIMATION_TICK_BUDGET_MS));
+        this.gameLoop = new GameLoop(plugin, this::checkGameEndCondition); // Before any SoTTeam creates its timer
+        this.sandTimerRenderMode = readSandTimerRenderMode();
         this.vaultManager = new VaultManager((SoT) plugin, this); // Pass SoT plugin, GameManager
         this.floorItemManager = new FloorItemManager((SoT) plugin, this, scoreManager); // Pass SoT plugin, GameManager, ScoreManager
+        this.segmentTracker = new SegmentTracker((SoT) plugin, this); // Registers its own move listener
         this.doorManager = new DoorManager((SoT) plugin, this); // Pass SoT plugin, GameManager
-        this.dungeonGenerator = new DungeonGenerator(plugin);
+        this.schematicCache = new SchematicCache(plugin, new File(plugin.getDataFolder(), "schematics"),
+                Math.max(1, plugin.getConfig().getInt("schematic-cache.max-entries", DEFAULT_SCHEMATIC_CACHE_SIZE)));
+        this.dungeonGenerator = new DungeonGenerator(plugin, schematicCache);
+        this.pasteSectionsPerStep = Math.max(1, plugin.getConfig().getInt("paste.sections-per-step", DEFAULT_PASTE_SECTIONS_PER_STEP));
+        this.segmentPaster = createSegmentPaster();
+        this.instancingEnabled = plugin.getConfig().getBoolean("instancing.enabled", true);
+        this.buildPipeline = new DungeonBuildPipeline(plugin,
+                plugin.getConfig().getDouble("instantiation.tick-budget-ms", DEFAULT_BUILD_TICK_BUDGET_MS));
+        this.instanceWorldManager = createInstanceWorldManager();
 
         // Initialize maps
         this.activeTeamsInGame = new ConcurrentHashMap<>(); // Use concurrent maps if accessed by events/tasks
         this.teamDungeonManagers = new ConcurrentHashMap<>();
+        this.teamWorldSlots = new ConcurrentHashMap<>();
 
         // Set initial state
         this.currentState = GameState.SETUP;
@@ -95,6 +137,58 @@ public class GameManager {
         plugin.getLogger().info("GameManager initialized.");
     }
 
+    /**
+     * Creates the segment paste backend selected by "paste.mode" in the config.
+     * "fast" (default) skips history and neighbour updates and batches commits; "worldedit" is the plain WorldEdit paste.
+     */
+    private SegmentPaster createSegmentPaster() {
+        WorldEditSegmentPaster worldEditPaster = new WorldEditSegmentPaster(plugin);
+        String mode = plugin.getConfig().getString("paste.mode", "fast");
+        if ("worldedit".equalsIgnoreCase(mode)) {
+            plugin.getLogger().info("Using plain WorldEdit segment pasting.");
+            return worldEditPaster;
+        }
+        if (!"fast".equalsIgnoreCase(mode)) {
+            plugin.getLogger().warning("Unknown paste.mode '" + mode + "', using 'fast'.");
+        }
+        return new FastSegmentPaster(plugin, ForkJoinPool.commonPool(), pasteSectionsPerStep, worldEditPaster);
+    }
+
+    /**
+     * Reads "visual-timer.renderer" from the config.
+     * "blocks" (default) places real sand blocks; "display" uses a client-interpolated block display entity.
+     */
+    private VisualSandTimerDisplay.RenderMode readSandTimerRenderMode() {
+        String mode = plugin.getConfig().getString("visual-timer.renderer", "blocks");
+        if ("display".equalsIgnoreCase(mode)) {
+            plugin.getLogger().info("Using block display entities for visual sand timers.");
+            return VisualSandTimerDisplay.RenderMode.DISPLAY_ENTITY;
+        }
+        if (!"blocks".equalsIgnoreCase(mode)) {
+            plugin.getLogger().warning("Unknown visual-timer.renderer '" + mode + "', using 'blocks'.");
+        }
+        return VisualSandTimerDisplay.RenderMode.BLOCKS;
+    }
+
+    /**
+     * Creates the void instance world from the "instance-world" config section.
+     * @return The manager, or null if disabled or the world could not be created (dungeons then use the lobby world).
+     */
+    @Nullable
+    private InstanceWorldManager createInstanceWorldManager() {
+        if (!plugin.getConfig().getBoolean("instance-world.enabled", true)) return null;
+        InstanceWorldManager manager = new InstanceWorldManager(plugin,
+                plugin.getConfig().getString("instance-world.name", "sot_instances"),
+                plugin.getConfig().getInt("instance-world.base-y", DUNGEON_BASE_OFFSET.getBlockY()),
+                plugin.getConfig().getInt("instance-world.slot-spacing-chunks", DEFAULT_SLOT_SPACING_CHUNKS),
+                plugin.getConfig().getInt("instance-world.preload-radius-chunks", DEFAULT_PRELOAD_RADIUS_CHUNKS));
+        if (!manager.initialize()) {
+            plugin.getLogger().warning("Instance world unavailable; dungeons will be built in the lobby world.");
+            return null;
+        }
+        return manager;
+    }
+
     /**
      * Sets up the participating teams for the current game instance.
      * Creates SoTTeam objects and stores them.
@@ -109,14 +203,16 @@ public class GameManager {
         plugin.getLogger().info("Setting up game with " + participatingTeamIds.size() + " teams.");
 
         // Clear state from previous games (call clear methods on managers)
-        activeTeamsInGame.clear();
+        clearActiveTeams();
         teamDungeonManagers.clear();
         playerStateManager.clearAllStates();
-        scoreManager.clearAllUnbankedScores();
+        scoreManager.resetForNewMatch(); // Also drops the previous match's score journal
         vaultManager.clearAllTeamStates(); // Assuming VaultManager has this
         doorManager.clearAllTeamStates(); // Assuming DoorManager has this
         floorItemManager.clearAllTeamStates(); // Assuming FloorItemManager has this
+        segmentTracker.clear();
         dungeonLayoutBlueprint = null;
+        releaseUnusedWorldSlots(); // Slots from a setup that never started
 
         // ... (Validate player assignments - same as before) ...
 
@@ -130,6 +226,12 @@ public class GameManager {
 
             SoTTeam activeTeam = new SoTTeam(definition, plugin, this, visualTimerBottom, visualTimerTop);
             activeTeamsInGame.put(teamId, activeTeam);
+            if (instanceWorldManager != null) {
+                // Reserve the team's slot and start loading its chunks now, well ahead of the first paste
+                int slot = instanceWorldManager.acquireSlot();
+                teamWorldSlots.put(teamId, slot);
+                instanceWorldManager.preloadSlot(slot);
+            }
             plugin.getLogger().info("Initialized SoTTeam for: " + definition.getName());
 
             // Add members and initialize state
@@ -146,18 +248,49 @@ public class GameManager {
     }
 
     /**
-     * Starts the actual game: generates layout, creates dungeon instances,
-     * teleports players to their instance-specific hubs, and starts timers.
+     * Starts the actual game with a random layout seed.
+     * @see #startGame(long)
      */
     public void startGame() {
+        startGame(ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Starts the actual game: generates the layout off the main thread, then (back on the main thread)
+     * queues a dungeon instance build per team. Each team is teleported to its hub and its timer
+     * started once its own instance has been built.
+     *
+     * @param layoutSeed Seed for the dungeon layout. Reusing a logged seed replays the same layout.
+     */
+    public void startGame(long layoutSeed) {
         if (currentState != GameState.SETUP) { /* ... error ... */ return; }
         if (activeTeamsInGame.isEmpty()) { /* ... error ... */ return; }
         // Removed check for vaultManager/dungeonGenerator null as constructor handles it
 
-        plugin.getLogger().info("Starting Sands of Time game generation...");
+        plugin.getLogger().info("Starting Sands of Time game generation (layout seed " + layoutSeed + ")...");
+        this.currentState = GameState.GENERATING;
 
-        // 1. Generate Dungeon Layout Blueprint (Relative Structure)
-        this.dungeonLayoutBlueprint = dungeonGenerator.generateDungeonLayout();
+        // 1. Generate Dungeon Layout Blueprint (Relative Structure) on worker threads
+        dungeonGenerator.generateDungeonLayoutAsync(layoutSeed).whenComplete((blueprint, error) -> {
+            if (!plugin.isEnabled()) return; // Plugin disabled while generating
+            Bukkit.getScheduler().runTask(plugin, () -> finishGameStart(blueprint, error));
+        });
+    }
+
+    /**
+     * Second half of startGame, run on the main thread once layout generation completes.
+     * @param blueprint The generated blueprint, or null if generation failed.
+     * @param error     The exception thrown by generation, if any.
+     */
+    private void finishGameStart(@Nullable DungeonBlueprint blueprint, @Nullable Throwable error) {
+        if (currentState != GameState.GENERATING) {
+            plugin.getLogger().warning("Game state changed to " + currentState + " during layout generation. Discarding generated layout.");
+            return;
+        }
+        if (error != null) {
+            plugin.getLogger().log(Level.SEVERE, "Dungeon layout generation threw an exception.", error);
+        }
+        this.dungeonLayoutBlueprint = blueprint;
         if (this.dungeonLayoutBlueprint == null || this.dungeonLayoutBlueprint.getRelativeSegments().isEmpty()) {
              plugin.getLogger().severe("Failed to generate dungeon layout blueprint. Aborting game start.");
              currentState = GameState.ENDED; return;
@@ -166,50 +299,109 @@ public class GameManager {
         World gameWorld = lobbyLocation.getWorld();
         if (gameWorld == null) { /* ... error ... */ currentState = GameState.ENDED; return; }
 
-        // 2. Create and Initialize Dungeon Instance for Each Team
+        // 2. Create a Dungeon Instance for Each Team
         int teamIndex = 0;
         Location currentDungeonBase = gameWorld.getSpawnLocation().clone().add(DUNGEON_BASE_OFFSET); // Or use lobbyLocation as base?
         teamDungeonManagers.clear();
+        DungeonManager instanceSource = null; // First team's instance, replicated for the others when instancing
+        List<CompletableFuture<Void>> footprintLoads = new ArrayList<>();
 
         for (SoTTeam team : activeTeamsInGame.values()) {
             UUID teamId = team.getTeamId();
-            Location teamOrigin = currentDungeonBase.clone().add(TEAM_DUNGEON_SPACING.clone().multiply(teamIndex));
+            Integer slot = teamWorldSlots.get(teamId);
+            Location teamOrigin;
+            if (slot != null) {
+                teamOrigin = instanceWorldManager.getSlotOrigin(slot);
+                footprintLoads.add(instanceWorldManager.loadFootprint(slot, dungeonLayoutBlueprint));
+            } else {
+                teamOrigin = currentDungeonBase.clone().add(TEAM_DUNGEON_SPACING.clone().multiply(teamIndex));
+            }
             plugin.getLogger().info("Creating dungeon instance for team " + team.getTeamName() + " at " + teamOrigin.toVector());
 
             // *** CORRECTED: Instantiate DungeonManager correctly ***
             // It retrieves other managers via 'this' (GameManager) passed to its constructor
             DungeonManager teamDungeon = new DungeonManager(plugin, this, teamId, teamOrigin, dungeonLayoutBlueprint);
-
-            // Initialize the instance (pastes segments, populates features, creates Dungeon data object)
-            if (!teamDungeon.initializeInstance()) {
-                plugin.getLogger().severe("Failed to initialize dungeon instance for team " + team.getTeamName() + ". This team may not be playable.");
-                // Handle failure? Skip team? Abort? For now, just log.
-            }
             teamDungeonManagers.put(teamId, teamDungeon); // Store the manager
-
-            // 3. Teleport Team Members to their specific Hub
-            Location teamHubLocation = getTeamHubLocation(teamId); // Get instance-specific hub
-            if (teamHubLocation != null) {
-                 for (UUID memberId : team.getMemberUUIDs()) {
-                     Player player = Bukkit.getPlayer(memberId);
-                     if (player != null && player.isOnline()) {
-                         final Location teleportTarget = teamHubLocation.clone().add(0.5, 0.1, 0.5);
-                         teleportTarget.setYaw(player.getLocation().getYaw());
-                         teleportTarget.setPitch(0);
-                         Bukkit.getScheduler().runTask(plugin, () -> { if (player.isValid()) player.teleport(teleportTarget); });
-                     }
-                 }
-            } else { /* ... warning ... */ }
+            if (instancingEnabled) {
+                if (instanceSource == null) {
+                    teamDungeon.useAsInstanceSource(pasteSectionsPerStep);
+                    instanceSource = teamDungeon;
+                } else {
+                    teamDungeon.replicateFrom(instanceSource); // Builds after the source in the FIFO pipeline
+                }
+            }
             teamIndex++;
         }
 
-        // 4. Start All Team Timers
-        for (SoTTeam team : activeTeamsInGame.values()) { team.startTimer(); }
+        // 3. Queue the builds once every instance's chunks are loaded (already done for preloaded slots)
+        CompletableFuture.allOf(footprintLoads.toArray(new CompletableFuture[0])).whenComplete((ignored, loadError) -> {
+            if (loadError != null) {
+                plugin.getLogger().log(Level.WARNING, "Failed to preload some instance chunks; they will load during the build.", loadError);
+            }
+            if (Bukkit.isPrimaryThread()) submitInstanceBuilds();
+            else Bukkit.getScheduler().runTask(plugin, this::submitInstanceBuilds);
+        });
+    }
 
-        // 5. Set Game State & Announce
+    /** Final part of game start: queues every team's instance build and marks the game as running. */
+    private void submitInstanceBuilds() {
+        if (currentState != GameState.GENERATING) return; // Game state changed while chunks were loading
+        for (SoTTeam team : activeTeamsInGame.values()) {
+            DungeonManager teamDungeon = teamDungeonManagers.get(team.getTeamId());
+            if (teamDungeon == null) continue;
+            // Pastes segments, populates features, teleports members to the hub.
+            // The team's timer starts once its own instance is ready.
+            buildPipeline.submit(teamDungeon, team.getMemberUUIDs(), (manager, success) -> onTeamInstanceBuilt(team, success));
+        }
+
+        // 4. Set Game State & Announce
         this.currentState = GameState.RUNNING;
         Bukkit.getServer().broadcast(Component.text("Sands of Time has begun!", NamedTextColor.GOLD, TextDecoration.BOLD));
         plugin.getLogger().info("Sands of Time game started with per-team dungeons.");
+        checkGameEndCondition(); // Ends immediately if no instance could even be queued
+    }
+
+    /**
+     * Called by the build pipeline on the main thread once a team's dungeon instance is built.
+     * @param team    The team whose instance finished.
+     * @param success Whether the instance was built completely.
+     */
+    private void onTeamInstanceBuilt(SoTTeam team, boolean success) {
+        if (currentState != GameState.RUNNING && currentState != GameState.GENERATING) return; // Game ended while building
+        if (!success) {
+            plugin.getLogger().severe("Failed to initialize dungeon instance for team " + team.getTeamName() + ". This team may not be playable.");
+            checkGameEndCondition();
+            return;
+        }
+        team.startTimer();
+        Component message = Component.text("Your dungeon is ready. The sands are falling!", NamedTextColor.GOLD);
+        for (UUID memberId : team.getMemberUUIDs()) {
+            Player player = Bukkit.getPlayer(memberId);
+            if (player != null && player.isOnline()) player.sendMessage(message);
+        }
+    }
+
+    /** Releases world slots of teams without a dungeon instance to clean up. */
+    private void releaseUnusedWorldSlots() {
+        if (instanceWorldManager != null) {
+            for (int slot : teamWorldSlots.values()) instanceWorldManager.releaseSlot(slot);
+        }
+        teamWorldSlots.clear();
+    }
+
+    /** Drops the active teams, removing their sand timer display entities. */
+    private void clearActiveTeams() {
+        for (SoTTeam team : activeTeamsInGame.values()) team.disposeVisuals();
+        activeTeamsInGame.clear();
+    }
+
+    /** Releases the instance world's chunk tickets and stops running animations and timers. Called when the plugin is disabled. */
+    public void shutdown() {
+        buildPipeline.cancelAll();
+        gameLoop.stopAll();
+        for (SoTTeam team : activeTeamsInGame.values()) team.disposeVisuals();
+        animationScheduler.cancelAll();
+        if (instanceWorldManager != null) instanceWorldManager.shutdown();
     }
 
     /** Forcefully ends the current Sands of Time game */
@@ -220,7 +412,7 @@ public class GameManager {
         endGameInternal("Game forcefully ended.");
     }
 
-    /** Handles consequences when a specific team's timer expires. */
+    /** Handles consequences when a specific team's timer expires. Called by the game loop via the team's TeamTimer. */
     public void handleTeamTimerEnd(SoTTeam team) {
         // ... (Implementation remains mostly the same, trapping players, checking game end) ...
          if (team == null) { /* ... warning ... */ return; }
@@ -252,12 +444,13 @@ public class GameManager {
          final Component message = teamWiped ? Component.text("Team " + team.getTeamName() + " got locked in!", NamedTextColor.RED)
                                              : Component.text("Team " + team.getTeamName() + "'s timer ran out!", NamedTextColor.YELLOW);
          Bukkit.getServer().broadcast(message);
-         checkGameEndCondition(); // Check if game should end now
+         // The game loop evaluates the end condition once, after every timer that expired this tick
     }
 
     /** Checks if all active teams' timers have expired. */
     private void checkGameEndCondition() {
         if (currentState != GameState.RUNNING) return;
+        if (buildPipeline.hasPendingBuilds()) return; // Teams still waiting for their instance have not started yet
         for (SoTTeam team : activeTeamsInGame.values()) { if (team.isTimerRunning()) return; } // Game continues if any timer runs
         plugin.getLogger().info("Game end condition met: All team timers have expired.");
         endGameInternal("All timers expired.");
@@ -270,6 +463,7 @@ public class GameManager {
         this.currentState = GameState.ENDED;
 
         for (SoTTeam team : activeTeamsInGame.values()) { if (team.isTimerRunning()) team.stopTimer(); }
+        buildPipeline.cancelAll(); // Stop building instances that are still queued
 
         // TODO: Final score calculations & display
 
@@ -277,13 +471,24 @@ public class GameManager {
 
         // Cleanup dungeon instances and manager states
         for (DungeonManager dm : teamDungeonManagers.values()) {
-            dm.cleanupInstance(); // Calls clearTeamState on Vault/Door/FloorItem managers
+            // Calls clearTeamState on Vault/Door/FloorItem managers, then clears blocks over the next ticks.
+            // The team's world slot is recycled once its instance is cleared.
+            Integer slot = teamWorldSlots.remove(dm.getTeamId());
+            Runnable releaseSlot = () -> { if (slot != null && instanceWorldManager != null) instanceWorldManager.releaseSlot(slot); };
+            if (plugin.isEnabled()) {
+                buildPipeline.submitCleanup(dm, releaseSlot);
+            } else {
+                dm.cleanupInstance(); // Scheduler unavailable while disabling
+                releaseSlot.run();
+            }
         }
-        activeTeamsInGame.clear();
+        releaseUnusedWorldSlots();
+        clearActiveTeams();
         teamDungeonManagers.clear();
         playerStateManager.clearAllStates();
         scoreManager.clearAllUnbankedScores();
-        // No need to call clearTeamState here again, cleanupInstance does it
+        segmentTracker.clear();
+        // No need to call clearTeamState here again, the instance cleanup does it
         dungeonLayoutBlueprint = null;
 
         Bukkit.getServer().broadcast(Component.text("Sands of Time has ended!", NamedTextColor.GOLD, TextDecoration.BOLD));
@@ -366,8 +571,16 @@ public class GameManager {
     public ScoreManager getScoreManager() { return scoreManager; }
     public BankingManager getBankingManager() { return bankingManager; }
     public VaultManager getVaultManager() { return vaultManager; }
+    public InteractableRegistry getInteractableRegistry() { return interactableRegistry; }
+    public AnimationScheduler getAnimationScheduler() { return animationScheduler; }
+    public GameLoop getGameLoop() { return gameLoop; }
+    public VisualSandTimerDisplay.RenderMode getSandTimerRenderMode() { return sandTimerRenderMode; }
     public DungeonGenerator getDungeonGenerator() { return dungeonGenerator; }
+    public SchematicCache getSchematicCache() { return schematicCache; }
+    public SegmentPaster getSegmentPaster() { return segmentPaster; }
+    @Nullable public InstanceWorldManager getInstanceWorldManager() { return instanceWorldManager; }
     public FloorItemManager getFloorItemManager() { return floorItemManager; } // Added Getter
+    public SegmentTracker getSegmentTracker() { return segmentTracker; }
     public DoorManager getDoorManager() { return doorManager; } // Added Getter
     public Location getTrappedLocation() { return configTrappedLocation; }
     public Location getLobbyLocation() { return lobbyLocation; }
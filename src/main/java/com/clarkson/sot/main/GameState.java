@@ -1,5 +1,5 @@
 package com.clarkson.sot.main;
 
 public enum GameState {
-    SETUP, RUNNING, PAUSED, ENDED
-}
\ No newline at end of file
+    SETUP, GENERATING, RUNNING, PAUSED, ENDED
+}
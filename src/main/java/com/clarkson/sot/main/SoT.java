@@ -15,6 +15,7 @@ import com.clarkson.sot.dungeon.DungeonGenerator;
 import com.clarkson.sot.dungeon.VaultManager;
 import com.clarkson.sot.scoring.BankingManager;
 import com.clarkson.sot.scoring.ScoreManager;
+import com.clarkson.sot.utils.ItemManager;
 import com.clarkson.sot.utils.PlayerStateManager;
 import com.clarkson.sot.utils.SandManager;
 import com.clarkson.sot.utils.StructureLoader;
@@ -22,6 +23,7 @@ import com.clarkson.sot.utils.TeamManager;
 // Import Commands
 import com.clarkson.sot.commands.*;
 // Import Listeners
+import com.clarkson.sot.events.InteractDispatcher;
 import com.clarkson.sot.events.ToolListener;
 // Import Entities if needed for static init
 import com.clarkson.sot.entities.CoinStack;
@@ -88,9 +90,9 @@ public class SoT extends JavaPlugin {
         scoreManager = new ScoreManager(teamManager, gameManager, this);
         bankingManager = new BankingManager(scoreManager);
         sandManager = new SandManager(gameManager);
-        vaultManager = new VaultManager(this, gameManager);
+        vaultManager = gameManager.getVaultManager(); // Vault clicks are dispatched through GameManager's InteractableRegistry
         structureLoader = new StructureLoader(this);
-        dungeonGenerator = new DungeonGenerator(this);
+        dungeonGenerator = new DungeonGenerator(this, gameManager.getSchematicCache());
 
         // 3. Load segment templates (needs StructureLoader)
         if (!dungeonGenerator.loadSegmentTemplates(getDataFolder())) {
@@ -99,6 +101,7 @@ public class SoT extends JavaPlugin {
 
         // 4. Initialize static keys if needed
         CoinStack.initializeKeys(this);
+        ItemManager.initializeKeys(this); // Needed by ItemManager.classify (keys, tools)
 
 
         // --- Register Commands ---
@@ -111,8 +114,10 @@ public class SoT extends JavaPlugin {
 
 
         // --- Register Listeners ---
-        getServer().getPluginManager().registerEvents(new ToolListener(this), this);
-        getServer().getPluginManager().registerEvents(vaultManager, this); // VaultManager handles vault interactions
+        // Single PlayerInteractEvent listener: vault/door blocks via GameManager's registry, tools by tag
+        InteractDispatcher interactDispatcher = new InteractDispatcher(gameManager);
+        new ToolListener(this).registerHandlers(interactDispatcher);
+        getServer().getPluginManager().registerEvents(interactDispatcher, this);
 
 
         getLogger().info("Sands of Time Enabled Successfully.");
@@ -122,6 +127,12 @@ public class SoT extends JavaPlugin {
     public void onDisable() {
         getLogger().info("Sands of Time Disabling...");
         // Plugin shutdown logic
+        if (gameManager != null) {
+            getLogger().info("Schematic cache stats: " + gameManager.getSchematicCache().getStatsSummary());
+            getLogger().info("Animation scheduler stats: " + gameManager.getAnimationScheduler().getStatsSummary());
+            getLogger().info("Game loop stats: " + gameManager.getGameLoop().getStatsSummary());
+            gameManager.shutdown();
+        }
         getLogger().info("Sands of Time Disabled.");
     }
 
@@ -1,5 +1,8 @@
 package com.clarkson.sot.scoring;
 
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
 import org.bukkit.event.Listener;
@@ -23,12 +26,13 @@ public class BankingManager implements Listener {
     // Could be triggered by interaction event or command
     public void attemptBanking(Player player, int coinsToBank) {
         // Check if player is near sphinxLocation (optional)
-        // Check if player actually has coinsToBank (needs PlayerData/Inventory tracking)
-        // Calculate tax amount (coinsToBank * BANKING_TAX)
-        // Calculate banked amount (coinsToBank - tax)
-        // Remove coinsToBank from player's tracked coins
-        // Add banked amount to team's score via ScoreManager
-        // Provide feedback to player
+        // Check, remove, tax and add to the team's score in one atomic transfer
+        int banked = scoreManager.bankUnbankedScore(player.getUniqueId(), coinsToBank, BANKING_TAX);
+        if (banked < 0) {
+            player.sendMessage(Component.text("You can't bank " + coinsToBank + " coins right now.", NamedTextColor.RED));
+            return;
+        }
+        player.sendMessage(Component.text("Banked " + banked + " coins (" + (coinsToBank - banked) + " taxed).", NamedTextColor.GOLD));
     }
 
     // @EventHandler // Needs registration
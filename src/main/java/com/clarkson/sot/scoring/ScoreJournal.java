@@ -0,0 +1,92 @@
+package com.clarkson.sot.scoring;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Append-only record of every change to the players' unbanked scores during a match: one
+ * (tick, ledger slot, delta, reason) entry per change, kept in a ring of primitive arrays.
+ * <ul>
+ *     <li>Appending writes four array cells and allocates nothing, so it is cheap enough for the coin pickup path.</li>
+ *     <li>The {@link ScoreLedger} holds the live totals, updated by the same deltas as they are appended; summing
+ *     the journal's deltas per slot ({@link #replayTotals(int)}) reproduces them after the match.</li>
+ *     <li>Once full, the oldest entries are overwritten; {@link #isComplete()} tells whether a replay covers the
+ *     whole match.</li>
+ * </ul>
+ * Appends and reads synchronize on the journal, so it may be used from any thread.
+ */
+public final class ScoreJournal {
+
+    /** Receives journal entries, oldest first. */
+    @FunctionalInterface
+    public interface EntryVisitor {
+        void visit(long sequence, int tick, int slot, int delta, @NotNull ScoreReason reason);
+    }
+
+    private static final ScoreReason[] REASONS = ScoreReason.values();
+
+    private final int mask;
+    private final int[] ticks;
+    private final int[] slots;
+    private final int[] deltas;
+    private final byte[] reasons;
+    private long appended; // Total entries ever appended; the next entry's sequence number
+
+    /** @param capacity Entries kept before the oldest are overwritten (rounded up to a power of two). */
+    public ScoreJournal(int capacity) {
+        int size = Integer.highestOneBit(Math.max(16, Math.min(capacity, 1 << 24)) - 1) << 1;
+        this.mask = size - 1;
+        this.ticks = new int[size];
+        this.slots = new int[size];
+        this.deltas = new int[size];
+        this.reasons = new byte[size];
+    }
+
+    /** Records one change. Zero deltas are not recorded. */
+    public synchronized void append(int tick, int slot, int delta, @NotNull ScoreReason reason) {
+        if (delta == 0) return;
+        int i = (int) (appended & mask);
+        ticks[i] = tick;
+        slots[i] = slot;
+        deltas[i] = delta;
+        reasons[i] = (byte) reason.ordinal();
+        appended++;
+    }
+
+    /** Calls {@code visitor} for every retained entry, oldest first. */
+    public synchronized void forEach(@NotNull EntryVisitor visitor) {
+        for (long seq = firstRetained(); seq < appended; seq++) {
+            int i = (int) (seq & mask);
+            visitor.visit(seq, ticks[i], slots[i], deltas[i], REASONS[reasons[i]]);
+        }
+    }
+
+    /**
+     * Sums the retained deltas per ledger slot.
+     * @param slotCount Number of slots to total (entries for higher slots are skipped).
+     * @return Totals indexed by slot; the final unbanked scores if {@link #isComplete()}.
+     */
+    @NotNull
+    public synchronized int[] replayTotals(int slotCount) {
+        int[] totals = new int[Math.max(0, slotCount)];
+        for (long seq = firstRetained(); seq < appended; seq++) {
+            int i = (int) (seq & mask);
+            int slot = slots[i];
+            if (slot >= 0 && slot < totals.length) totals[slot] += deltas[i];
+        }
+        return totals;
+    }
+
+    /** Forgets every entry. Called when a new match starts. */
+    public synchronized void clear() {
+        appended = 0;
+    }
+
+    public synchronized long getAppendedCount() { return appended; }
+    public synchronized long getOverwrittenCount() { return firstRetained(); }
+    public synchronized boolean isComplete() { return appended <= ticks.length; }
+    public int getCapacity() { return ticks.length; }
+
+    private long firstRetained() {
+        return Math.max(0L, appended - ticks.length);
+    }
+}
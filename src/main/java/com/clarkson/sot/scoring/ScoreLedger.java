@@ -0,0 +1,164 @@
+package com.clarkson.sot.scoring;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Unbanked scores of the players in one game, safe to use from any thread.
+ * <ul>
+ *     <li>Each player gets a dense slot on first use. Scores live in fixed-size blocks of
+ *     {@link AtomicIntegerArray} cells that are allocated once and never moved, so adding players
+ *     never loses a concurrent update and no operation takes a lock.</li>
+ *     <li>Every change is a single atomic cell update (compare-and-set where the result depends on the old
+ *     value), and scores never go below zero.</li>
+ *     <li>Reads by slot allocate nothing, for scoreboards refreshed every tick.</li>
+ * </ul>
+ */
+public final class ScoreLedger {
+
+    /** Returned by {@link #slotOf(UUID)} for a player with no slot. */
+    public static final int NO_SLOT = -1;
+
+    private static final int BLOCK_BITS = 6;
+    private static final int BLOCK_SIZE = 1 << BLOCK_BITS; // Slots per block
+    private static final int MAX_BLOCKS = 1024; // 65536 players per game
+
+    private final ConcurrentHashMap<UUID, Integer> slots = new ConcurrentHashMap<>();
+    private final AtomicInteger nextSlot = new AtomicInteger();
+    private final AtomicReferenceArray<AtomicIntegerArray> blocks = new AtomicReferenceArray<>(MAX_BLOCKS);
+
+    /** @return The player's slot, assigning the next free one on first use. */
+    public int slotFor(@NotNull UUID playerId) {
+        Integer slot = slots.get(playerId);
+        if (slot != null) return slot;
+        return slots.computeIfAbsent(playerId, id -> {
+            int assigned = nextSlot.getAndIncrement();
+            if (assigned >= MAX_BLOCKS * BLOCK_SIZE) {
+                throw new IllegalStateException("Score ledger is full (" + MAX_BLOCKS * BLOCK_SIZE + " players)");
+            }
+            ensureBlock(assigned >> BLOCK_BITS);
+            return assigned;
+        });
+    }
+
+    /** @return The player's slot, or {@link #NO_SLOT} if they have never scored. */
+    public int slotOf(@NotNull UUID playerId) {
+        Integer slot = slots.get(playerId);
+        return slot != null ? slot : NO_SLOT;
+    }
+
+    /** @return Number of slots handed out; valid slots are {@code 0 .. size() - 1}. */
+    public int size() {
+        return Math.min(nextSlot.get(), MAX_BLOCKS * BLOCK_SIZE);
+    }
+
+    /** @return The unbanked score in {@code slot}, or 0 for {@link #NO_SLOT}. */
+    public int get(int slot) {
+        if (slot < 0) return 0;
+        AtomicIntegerArray block = blocks.get(slot >> BLOCK_BITS);
+        return block != null ? block.get(slot & (BLOCK_SIZE - 1)) : 0;
+    }
+
+    /**
+     * Adds {@code delta} (which may be negative) to {@code slot}, stopping at zero.
+     * @return The change actually applied (smaller than {@code delta} when clamped).
+     */
+    public int add(int slot, int delta) {
+        AtomicIntegerArray block = block(slot);
+        int index = slot & (BLOCK_SIZE - 1);
+        while (true) {
+            int current = block.get(index);
+            int updated = clampedSum(current, delta);
+            if (block.compareAndSet(index, current, updated)) return updated - current;
+        }
+    }
+
+    /** Sets {@code slot} to {@code amount} (at least zero). @return The previous score. */
+    public int set(int slot, int amount) {
+        return block(slot).getAndSet(slot & (BLOCK_SIZE - 1), Math.max(0, amount));
+    }
+
+    /** Empties {@code slot}. @return The score it held. */
+    public int takeAll(int slot) {
+        return block(slot).getAndSet(slot & (BLOCK_SIZE - 1), 0);
+    }
+
+    /**
+     * Removes exactly {@code amount} from {@code slot} if it holds at least that much.
+     * @return true if the amount was removed; false (and nothing changed) otherwise.
+     */
+    public boolean take(int slot, int amount) {
+        if (amount <= 0) return false;
+        AtomicIntegerArray block = block(slot);
+        int index = slot & (BLOCK_SIZE - 1);
+        while (true) {
+            int current = block.get(index);
+            if (current < amount) return false;
+            if (block.compareAndSet(index, current, current - amount)) return true;
+        }
+    }
+
+    /**
+     * Removes {@code fraction} of the score in {@code slot}, rounded down.
+     * @return The amount removed.
+     */
+    public int takeFraction(int slot, double fraction) {
+        AtomicIntegerArray block = block(slot);
+        int index = slot & (BLOCK_SIZE - 1);
+        while (true) {
+            int current = block.get(index);
+            int removed = (int) Math.floor(current * Math.max(0.0, Math.min(1.0, fraction)));
+            if (removed == 0) return 0;
+            if (block.compareAndSet(index, current, current - removed)) return removed;
+        }
+    }
+
+    /** @return The sum of every slot. Not a consistent snapshot while scores are changing. */
+    public long total() {
+        long sum = 0;
+        int size = size();
+        for (int slot = 0; slot < size; slot++) sum += get(slot);
+        return sum;
+    }
+
+    /** @return The player of each slot, indexed by slot. Allocates; meant for audits, not hot paths. */
+    @NotNull
+    public UUID[] playersBySlot() {
+        UUID[] players = new UUID[size()];
+        slots.forEach((player, slot) -> { if (slot < players.length) players[slot] = player; });
+        return players;
+    }
+
+    /** Zeroes every score and forgets every player. Only call between games, when nothing else is writing. */
+    public void clear() {
+        slots.clear();
+        nextSlot.set(0);
+        for (int i = 0; i < MAX_BLOCKS; i++) {
+            AtomicIntegerArray block = blocks.get(i);
+            if (block == null) continue;
+            for (int j = 0; j < BLOCK_SIZE; j++) block.set(j, 0);
+        }
+    }
+
+    @NotNull
+    private AtomicIntegerArray block(int slot) {
+        if (slot < 0) throw new IllegalArgumentException("Invalid score slot: " + slot);
+        AtomicIntegerArray block = blocks.get(slot >> BLOCK_BITS);
+        if (block == null) throw new IllegalArgumentException("Unassigned score slot: " + slot);
+        return block;
+    }
+
+    private void ensureBlock(int blockIndex) {
+        if (blocks.get(blockIndex) == null) blocks.compareAndSet(blockIndex, null, new AtomicIntegerArray(BLOCK_SIZE));
+    }
+
+    private static int clampedSum(int current, int delta) {
+        long sum = (long) current + delta;
+        return (int) Math.max(0L, Math.min(Integer.MAX_VALUE, sum));
+    }
+}
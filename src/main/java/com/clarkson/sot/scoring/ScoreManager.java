@@ -3,6 +3,7 @@ package com.clarkson.sot.scoring; // Example package
 import com.clarkson.sot.main.GameManager; // Need GameManager access
 import com.clarkson.sot.dungeon.segment.PlacedSegment; // Need PlacedSegment
 import com.clarkson.sot.dungeon.segment.Segment; // Need Segment template
+import com.clarkson.sot.entities.CoinStack;
 import com.clarkson.sot.entities.FloorItem;
 import com.clarkson.sot.utils.SoTTeam;
 import com.clarkson.sot.utils.TeamManager; // Assuming dependency
@@ -17,12 +18,11 @@ import org.bukkit.persistence.PersistentDataContainer;
 import org.bukkit.persistence.PersistentDataType;
 import org.bukkit.plugin.Plugin; // ScoreManager might not need Plugin directly anymore
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Optional;
 import java.util.UUID;
 import java.util.logging.Level;
-import java.util.HashMap; // Import HashMap
-import java.util.Map; // Import Map
 
 
 public class ScoreManager {
@@ -31,13 +31,18 @@ public class ScoreManager {
     private final Plugin plugin; // Still useful for logging
 
 
-    // TODO: Add tracking for player unbanked scores
-    private Map<UUID, Integer> playerUnbankedScores = new HashMap<>();
+    private final ScoreLedger unbankedScores = new ScoreLedger(); // Player unbanked scores, by dense per-game slot
+    private final ScoreJournal journal; // Every unbanked score change of the match, for replay and audit
+    @Nullable private UUID[] journalPlayers; // Slot -> player of the finished match, kept once the ledger is cleared
+
+    private static final double DEATH_PENALTY_FRACTION = 0.20; // Share of unbanked coins lost on death
+    private static final int DEFAULT_JOURNAL_CAPACITY = 65536; // Score changes kept per match
 
     public ScoreManager(TeamManager teamManager, GameManager gameManager, Plugin plugin) {
         this.teamManager = teamManager;
         this.gameManager = gameManager;
         this.plugin = plugin; // Keep for logging
+        this.journal = new ScoreJournal(plugin.getConfig().getInt("score-journal.capacity", DEFAULT_JOURNAL_CAPACITY));
     }
 
     /**
@@ -65,61 +70,168 @@ public class ScoreManager {
 
 
     /**
-     * Calculates the scaled value of a coin based on metadata attached to the ItemStack.
-     * It retrieves the originating PlacedSegment ID from the item's metadata,
-     * finds that segment via GameManager, and uses the segment's coinMultiplier.
+     * Calculates the scaled value of a coin.
+     * Depth scaling is applied when the dungeon blueprint is built (see {@code CoinValueCurve}), so the
+     * value a coin carries is already scaled and is returned unchanged.
      *
-     * @param coinItem The coin ItemStack containing the segment ID in its PDC.
-     * @param baseValue The base value of the coin before scaling.
-     * @return The calculated scaled value, or the baseValue if scaling fails.
+     * @param coinItem The coin ItemStack.
+     * @param baseValue The coin's value, as precomputed by the blueprint.
+     * @return The value to award.
      */
     private int calculateScaledValue(ItemStack coinItem, int baseValue) {
-        return -1;
+        return baseValue;
     }
 
     // --- Unbanked Score Tracking ---
-    // Basic implementation - consider thread safety if accessed async
+    // Backed by the lock-free ledger, so pickups, async tasks and banking may call these from any thread
     public void updatePlayerUnbankedScore(UUID playerUUID, int delta) {
-        playerUnbankedScores.put(playerUUID, getPlayerUnbankedScore(playerUUID) + delta);
+        applyDelta(unbankedScores.slotFor(playerUUID), delta, ScoreReason.ADJUSTMENT);
     }
 
     public int getPlayerUnbankedScore(UUID playerUUID) {
-        return playerUnbankedScores.getOrDefault(playerUUID, 0);
+        return unbankedScores.get(unbankedScores.slotOf(playerUUID));
     }
 
     public void setPlayerUnbankedScore(UUID playerUUID, int amount) {
-         playerUnbankedScores.put(playerUUID, Math.max(0, amount)); // Ensure score doesn't go below 0
+        int slot = unbankedScores.slotFor(playerUUID);
+        int previous = unbankedScores.set(slot, amount); // Ensures score doesn't go below 0
+        journal.append(Bukkit.getCurrentTick(), slot, Math.max(0, amount) - previous, ScoreReason.ADJUSTMENT);
     }
 
     public void clearPlayerUnbankedScore(UUID playerUUID) {
-        playerUnbankedScores.remove(playerUUID);
+        int slot = unbankedScores.slotOf(playerUUID);
+        if (slot != ScoreLedger.NO_SLOT) takeAll(slot, ScoreReason.ADJUSTMENT);
     }
 
+    /**
+     * Clears every unbanked score at the end of a match. The journal and its slot-to-player mapping are kept
+     * for auditing until {@link #resetForNewMatch()}.
+     */
     public void clearAllUnbankedScores() {
-        playerUnbankedScores.clear();
+        if (unbankedScores.size() > 0) journalPlayers = unbankedScores.playersBySlot();
+        unbankedScores.clear();
+        plugin.getLogger().info("Score journal: " + journal.getAppendedCount() + " entries, "
+                + (journal.isComplete() ? "complete" : journal.getOverwrittenCount() + " oldest overwritten") + ".");
     }
 
+    /** Clears the unbanked scores and the previous match's journal. Called during game setup. */
+    public void resetForNewMatch() {
+        unbankedScores.clear();
+        journal.clear();
+        journalPlayers = null;
+    }
 
-    // --- Other ScoreManager methods ---
+    /**
+     * @return The player's ledger slot, or {@link ScoreLedger#NO_SLOT}. Scoreboards can resolve it once
+     * and then read {@link #getUnbankedScore(int)} every refresh without allocating.
+     */
+    public int getPlayerSlot(UUID playerUUID) {
+        return unbankedScores.slotOf(playerUUID);
+    }
 
-    /** Applies death penalty (e.g., lose 20% of unbanked coins) */
-    public void applyDeathPenalty(UUID playerUUID) {
+    /** @return The unbanked score in a ledger slot (0 for {@link ScoreLedger#NO_SLOT}). */
+    public int getUnbankedScore(int slot) {
+        return unbankedScores.get(slot);
+    }
+
+
+    // --- Other ScoreManager methods ---
 
+    /** Applies death penalty (lose 20% of unbanked coins, rounded down). @return Coins lost. */
+    public int applyDeathPenalty(UUID playerUUID) {
+        int slot = unbankedScores.slotOf(playerUUID);
+        if (slot == ScoreLedger.NO_SLOT) return 0;
+        int lost = unbankedScores.takeFraction(slot, DEATH_PENALTY_FRACTION);
+        journal.append(Bukkit.getCurrentTick(), slot, -lost, ScoreReason.DEATH_PENALTY);
+        plugin.getLogger().fine("Death penalty for " + playerUUID + ": lost " + lost + " unbanked coins.");
+        return lost;
     }
 
     /** Finalizes score when player escapes safely (adds all unbanked to team score) */
     public void playerEscaped(UUID playerUUID) {
-
+        SoTTeam team = findActiveTeam(playerUUID);
+        if (team == null) {
+            plugin.getLogger().warning("Escaped player " + playerUUID + " is not on an active team; unbanked score kept.");
+            return;
+        }
+        int slot = unbankedScores.slotOf(playerUUID);
+        if (slot == ScoreLedger.NO_SLOT) return;
+        team.addBankedScore(takeAll(slot, ScoreReason.ESCAPED));
     }
 
     /** Clears unbanked score when player is trapped by timer */
     public void applyTimerEndPenalty(UUID playerUUID) {
+        int slot = unbankedScores.slotOf(playerUUID);
+        if (slot == ScoreLedger.NO_SLOT) return;
+        int lost = takeAll(slot, ScoreReason.TIMER_END_PENALTY);
+        plugin.getLogger().fine("Timer end penalty for " + playerUUID + ": lost " + lost + " unbanked coins.");
+    }
+
+    /**
+     * Moves {@code amount} unbanked coins to the player's team, minus {@code taxRate} of it (rounded down).
+     * The coins are taken in one atomic step, so concurrent pickups and penalties are never lost or double counted.
+     *
+     * @return The amount added to the team's banked score, or -1 if the player is not on an active team
+     * or does not hold {@code amount} unbanked coins (nothing changes then).
+     */
+    public int bankUnbankedScore(UUID playerUUID, int amount, double taxRate) {
+        if (amount <= 0) return -1;
+        SoTTeam team = findActiveTeam(playerUUID);
+        int slot = unbankedScores.slotOf(playerUUID);
+        if (team == null || slot == ScoreLedger.NO_SLOT || !unbankedScores.take(slot, amount)) return -1;
+        journal.append(Bukkit.getCurrentTick(), slot, -amount, ScoreReason.BANKED);
+        int banked = amount - (int) Math.floor(amount * Math.max(0.0, Math.min(1.0, taxRate)));
+        team.addBankedScore(banked);
+        return banked;
+    }
 
+    // --- Journal ---
+
+    /** @return The journal of unbanked score changes for the current (or last finished) match. */
+    public ScoreJournal getJournal() {
+        return journal;
+    }
+
+    /** @return The player a journal entry's slot refers to, or null if unknown. */
+    @Nullable
+    public UUID getJournalPlayer(int slot) {
+        UUID[] players = journalPlayers;
+        if (players != null) return slot >= 0 && slot < players.length ? players[slot] : null;
+        UUID[] current = unbankedScores.playersBySlot();
+        return slot >= 0 && slot < current.length ? current[slot] : null;
     }
 
+    /** Applies {@code delta} to {@code slot} and journals the change actually made. */
+    private void applyDelta(int slot, int delta, ScoreReason reason) {
+        int applied = unbankedScores.add(slot, delta);
+        journal.append(Bukkit.getCurrentTick(), slot, applied, reason);
+    }
+
+    /** Empties {@code slot} and journals it. @return The score it held. */
+    private int takeAll(int slot, ScoreReason reason) {
+        int taken = unbankedScores.takeAll(slot);
+        journal.append(Bukkit.getCurrentTick(), slot, -taken, reason);
+        return taken;
+    }
+
+    @Nullable
+    private SoTTeam findActiveTeam(UUID playerUUID) {
+        for (SoTTeam team : gameManager.getActiveTeams().values()) {
+            if (team.isMember(playerUUID)) return team;
+        }
+        return null;
+    }
+
+    /**
+     * Credits a picked-up floor item to the player's unbanked score. Coin stacks are worth their base value;
+     * other floor items (loot) are given to the inventory on pickup and score nothing here.
+     * Allocation-free: one ledger update and one journal append.
+     */
     public void collectFloorItem(Player player, FloorItem item) {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'collectFloorItem'");
+        if (!(item instanceof CoinStack)) return;
+        int value = ((CoinStack) item).getBaseValue();
+        if (value <= 0) return;
+        applyDelta(unbankedScores.slotFor(player.getUniqueId()), value, ScoreReason.COIN_PICKUP);
     }
 
 }
\ No newline at end of file
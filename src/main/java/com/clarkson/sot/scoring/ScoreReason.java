@@ -0,0 +1,20 @@
+package com.clarkson.sot.scoring;
+
+/**
+ * Why a player's unbanked score changed, as recorded in the {@link ScoreJournal}.
+ * Stored by ordinal, so new reasons must be added at the end.
+ */
+public enum ScoreReason {
+    /** Coins picked up from the dungeon floor. */
+    COIN_PICKUP,
+    /** Share of unbanked coins lost on death. */
+    DEATH_PENALTY,
+    /** Unbanked coins lost when trapped by the team timer. */
+    TIMER_END_PENALTY,
+    /** Unbanked coins moved to the team's banked score (before tax). */
+    BANKED,
+    /** Unbanked coins moved to the team's banked score on a safe escape. */
+    ESCAPED,
+    /** Direct changes through the ScoreManager's unbanked score setters. */
+    ADJUSTMENT
+}
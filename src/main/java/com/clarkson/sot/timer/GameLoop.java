@@ -0,0 +1,210 @@
+package com.clarkson.sot.timer;
+
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Level;
+
+/**
+ * The single repeating task that advances every running {@link TeamTimer}, replacing a countdown task and a
+ * visual update task per team. Each tick:
+ * <ol>
+ *     <li>Running timers are checked in slot order against flat arrays of {@link System#nanoTime()} deadlines,
+ *     so a lagging server delays when expiry is noticed (by at most one late tick) but never stretches the
+ *     clock itself.</li>
+ *     <li>The sand displays of timers whose whole-second count changed this tick are updated, in one batch.</li>
+ *     <li>Timers that reached zero are stopped and their expiry callbacks run, in slot order.</li>
+ *     <li>If any timer expired, the game end condition is evaluated once.</li>
+ * </ol>
+ * The task only runs while a timer is running, and its per-tick cost is measured. Main thread only.
+ */
+public final class GameLoop {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private final Plugin plugin;
+    private final Runnable endConditionCheck;
+    @Nullable private BukkitTask task;
+
+    // Running timers, one slot each (swap-removed on stop)
+    private TeamTimer[] timers = new TeamTimer[INITIAL_CAPACITY];
+    private long[] deadlineNanos = new long[INITIAL_CAPACITY]; // System.nanoTime() at which the timer expires
+    private int[] lastWholeSeconds = new int[INITIAL_CAPACITY]; // Remaining whole seconds (rounded up) last shown
+    private int size;
+
+    private boolean[] visualDirty = new boolean[INITIAL_CAPACITY];
+    private final List<TeamTimer> expiredThisTick = new ArrayList<>();
+
+    // --- Metrics ---
+    private long ticks;
+    private long expirations;
+    private long maxExpiryLatenessNanos; // Longest delay between a deadline and its expiry firing
+    private long lastTickNanos;
+    private long maxTickNanos;
+    private double averageTickNanos; // Exponential moving average
+
+    /**
+     * @param plugin            The main plugin instance.
+     * @param endConditionCheck Run once at the end of any tick in which a timer expired.
+     */
+    public GameLoop(@NotNull Plugin plugin, @NotNull Runnable endConditionCheck) {
+        this.plugin = plugin;
+        this.endConditionCheck = endConditionCheck;
+    }
+
+    /** Adds a timer to the loop. Called by {@link TeamTimer#start()}. @return The timer's slot. */
+    int add(@NotNull TeamTimer timer, long remainingNanos) {
+        if (size == timers.length) grow();
+        int slot = size++;
+        timers[slot] = timer;
+        deadlineNanos[slot] = System.nanoTime() + remainingNanos;
+        lastWholeSeconds[slot] = wholeSeconds(remainingNanos);
+        visualDirty[slot] = false;
+        ensureRunning();
+        return slot;
+    }
+
+    /** Removes a timer from the loop. Called by {@link TeamTimer#stop()}. @return Its remaining time in nanoseconds. */
+    long remove(int slot) {
+        long remaining = getRemainingNanos(slot);
+        int last = --size;
+        if (slot != last) {
+            timers[slot] = timers[last];
+            deadlineNanos[slot] = deadlineNanos[last];
+            lastWholeSeconds[slot] = lastWholeSeconds[last];
+            visualDirty[slot] = visualDirty[last];
+            timers[slot].setSlot(slot);
+        }
+        timers[last] = null;
+        if (size == 0) stopTask();
+        return remaining;
+    }
+
+    /** @return Time left before the timer in {@code slot} expires, never negative. */
+    long getRemainingNanos(int slot) {
+        return Math.max(0L, deadlineNanos[slot] - System.nanoTime());
+    }
+
+    /** Moves the deadline of the timer in {@code slot} to {@code remainingNanos} from now. */
+    void setRemainingNanos(int slot, long remainingNanos) {
+        deadlineNanos[slot] = System.nanoTime() + remainingNanos;
+        lastWholeSeconds[slot] = wholeSeconds(remainingNanos); // The caller syncs the display itself
+    }
+
+    /** @return Whole seconds left, rounded up (a timer with 0.2s left still shows 1s). */
+    static int wholeSeconds(long remainingNanos) {
+        if (remainingNanos <= 0) return 0;
+        return (int) Math.min(Integer.MAX_VALUE, (remainingNanos + 999_999_999L) / 1_000_000_000L);
+    }
+
+    /** Stops every running timer without firing expiry callbacks. Called when the plugin is disabled. */
+    public void stopAll() {
+        while (size > 0) {
+            timers[size - 1].stop();
+        }
+        stopTask();
+    }
+
+    private void ensureRunning() {
+        if (task == null) {
+            task = new BukkitRunnable() {
+                @Override
+                public void run() {
+                    tick();
+                }
+            }.runTaskTimer(plugin, 1L, 1L);
+        }
+    }
+
+    private void stopTask() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    private void tick() {
+        long start = System.nanoTime();
+        ticks++;
+
+        // 1. Check every running timer against the same clock reading
+        boolean anyDirty = false;
+        for (int i = 0; i < size; i++) {
+            long remaining = deadlineNanos[i] - start;
+            int whole = wholeSeconds(remaining);
+            if (whole != lastWholeSeconds[i]) {
+                lastWholeSeconds[i] = whole;
+                visualDirty[i] = true;
+                anyDirty = true;
+            }
+            if (remaining <= 0) {
+                maxExpiryLatenessNanos = Math.max(maxExpiryLatenessNanos, -remaining);
+                expiredThisTick.add(timers[i]);
+            }
+        }
+
+        // 2. Batched visual updates
+        if (anyDirty) {
+            for (int i = 0; i < size; i++) {
+                if (!visualDirty[i]) continue;
+                visualDirty[i] = false;
+                try {
+                    timers[i].updateVisual();
+                } catch (Exception e) {
+                    plugin.getLogger().log(Level.SEVERE, "[GameLoop] Visual timer update failed.", e);
+                }
+            }
+        }
+
+        // 3. Expiries, after the arrays are no longer being iterated (expiring stops the timer, which moves slots)
+        if (!expiredThisTick.isEmpty()) {
+            for (TeamTimer timer : expiredThisTick) {
+                expirations++;
+                timer.expire();
+            }
+            expiredThisTick.clear();
+
+            // 4. Once per tick, however many teams ran out
+            try {
+                endConditionCheck.run();
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.SEVERE, "[GameLoop] Game end condition check failed.", e);
+            }
+        }
+
+        lastTickNanos = System.nanoTime() - start;
+        maxTickNanos = Math.max(maxTickNanos, lastTickNanos);
+        averageTickNanos = averageTickNanos == 0 ? lastTickNanos : averageTickNanos * 0.95 + lastTickNanos * 0.05;
+    }
+
+    private void grow() {
+        int capacity = timers.length * 2;
+        timers = Arrays.copyOf(timers, capacity);
+        deadlineNanos = Arrays.copyOf(deadlineNanos, capacity);
+        lastWholeSeconds = Arrays.copyOf(lastWholeSeconds, capacity);
+        visualDirty = Arrays.copyOf(visualDirty, capacity);
+    }
+
+    // --- Metrics ---
+    public int getRunningTimerCount() { return size; }
+    public long getTickCount() { return ticks; }
+    public long getExpirationCount() { return expirations; }
+    public long getMaxExpiryLatenessNanos() { return maxExpiryLatenessNanos; }
+    public long getLastTickNanos() { return lastTickNanos; }
+    public long getMaxTickNanos() { return maxTickNanos; }
+    public double getAverageTickNanos() { return averageTickNanos; }
+
+    /** @return A one-line summary of the metrics, for logs. */
+    @NotNull
+    public String getStatsSummary() {
+        return "Running timers: " + size + ", ticks: " + ticks + ", expirations: " + expirations
+                + String.format(", max expiry lateness %.1f ms", maxExpiryLatenessNanos / 1_000_000.0)
+                + String.format(", tick cost avg %.3f ms / max %.3f ms", averageTickNanos / 1_000_000.0, maxTickNanos / 1_000_000.0);
+    }
+}
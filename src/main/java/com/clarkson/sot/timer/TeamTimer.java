@@ -2,7 +2,6 @@ package com.clarkson.sot.timer;
 
 import org.bukkit.Bukkit;
 import org.bukkit.plugin.Plugin;
-import org.bukkit.scheduler.BukkitTask;
 
 import java.util.Objects;
 import java.util.logging.Level;
@@ -11,6 +10,9 @@ import java.util.logging.Level;
  * Manages the countdown logic for a single team's timer in Sands of Time.
  * Handles starting, stopping, adding time, and notifying on expiry via a callback.
  * Also interacts with a VisualSandTimerDisplay to keep visuals synced.
+ * The countdown itself is tracked by the shared {@link GameLoop}: while running, the timer is a
+ * {@link System#nanoTime()} deadline in the loop's arrays, so server lag cannot stretch the game clock,
+ * and {@link #getRemainingMillis()} is a subtraction rather than a scheduled count.
  */
 public class TeamTimer {
 
@@ -25,59 +27,58 @@ public class TeamTimer {
 
     // --- Dependencies ---
     private final Plugin plugin;
+    private final GameLoop gameLoop; // Advances the countdown while running
     private final TimerCallback expiryCallback; // Called when timer hits 0
     private final VisualSandTimerDisplay visualNotifier; // To sync visual display (can be null)
 
     // --- Configuration ---
     private final int maxSeconds; // Maximum time allowed
-    private final long timerIntervalTicks; // Ticks between each second decrement (e.g., 20L)
+    private final long maxNanos;
 
     // --- State ---
-    private int remainingSeconds; // Current time left
-    private BukkitTask timerTask; // Reference to the scheduled Bukkit task
-    private boolean isRunning; // Flag indicating if the timer countdown is active
+    private long remainingNanos; // Time left while stopped (while running, the game loop holds the deadline)
+    private int slot = -1; // Slot in the game loop while running, -1 while stopped
 
     // --- Constants (Example Defaults - Consider making these configurable) ---
     public static final int DEFAULT_MAX_TIMER_SECONDS = 150; // Default max time (2m 30s)
-    public static final long DEFAULT_TIMER_INTERVAL_TICKS = 20L; // Default interval (1 second)
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
 
     /**
      * Constructor for TeamTimer.
      *
-     * @param plugin           The Bukkit plugin instance for scheduling tasks.
+     * @param plugin           The Bukkit plugin instance, for logging.
+     * @param gameLoop         The game loop that advances the countdown.
      * @param expiryCallback   A callback function to execute when the timer expires.
      * @param visualNotifier   The VisualSandTimerDisplay associated with this timer (can be null).
      * @param startSeconds     The initial time in seconds.
      * @param maxSeconds       The maximum time the timer can hold in seconds.
-     * @param intervalTicks    The number of server ticks between each second decrement (usually 20).
      */
-    public TeamTimer(Plugin plugin, TimerCallback expiryCallback, VisualSandTimerDisplay visualNotifier,
-                     int startSeconds, int maxSeconds, long intervalTicks) {
+    public TeamTimer(Plugin plugin, GameLoop gameLoop, TimerCallback expiryCallback, VisualSandTimerDisplay visualNotifier,
+                     int startSeconds, int maxSeconds) {
 
         this.plugin = Objects.requireNonNull(plugin, "Plugin cannot be null");
+        this.gameLoop = Objects.requireNonNull(gameLoop, "GameLoop cannot be null");
         this.expiryCallback = Objects.requireNonNull(expiryCallback, "Expiry callback cannot be null");
         this.visualNotifier = visualNotifier; // Allow null visual notifier
 
         // Validate and store configuration
         this.maxSeconds = Math.max(1, maxSeconds); // Ensure max is at least 1 second
-        this.timerIntervalTicks = Math.max(1L, intervalTicks); // Ensure interval is at least 1 tick
+        this.maxNanos = this.maxSeconds * NANOS_PER_SECOND;
 
         // Initialize state
         // Ensure startSeconds is within valid bounds (0 to maxSeconds)
-        this.remainingSeconds = Math.max(0, Math.min(startSeconds, this.maxSeconds));
-        this.isRunning = false;
-        this.timerTask = null;
+        this.remainingNanos = Math.max(0, Math.min(startSeconds, this.maxSeconds)) * NANOS_PER_SECOND;
 
-        plugin.getLogger().config("TeamTimer created: start=" + startSeconds + "s, max=" + this.maxSeconds + "s, interval=" + this.timerIntervalTicks + "t");
+        plugin.getLogger().config("TeamTimer created: start=" + startSeconds + "s, max=" + this.maxSeconds + "s");
     }
 
     /**
      * Starts the timer countdown. Does nothing if already running.
-     * Syncs the visual display before starting the task.
+     * Syncs the visual display before adding the timer to the game loop.
      */
     public void start() {
-        // Prevent starting multiple tasks
-        if (isRunning || (timerTask != null && !timerTask.isCancelled())) {
+        // Prevent starting twice
+        if (isRunning()) {
             plugin.getLogger().log(Level.FINE, "Timer start requested but already running.");
             return;
         }
@@ -85,10 +86,8 @@ public class TeamTimer {
         // Ensure visual state matches current time before starting countdown
         syncVisual();
 
-        plugin.getLogger().log(Level.INFO, "Starting timer with " + remainingSeconds + "s remaining.");
-        isRunning = true;
-        // Schedule the repeating task using the plugin's scheduler
-        this.timerTask = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, timerIntervalTicks, timerIntervalTicks);
+        plugin.getLogger().log(Level.INFO, "Starting timer with " + getRemainingMillis() + "ms remaining.");
+        this.slot = gameLoop.add(this, remainingNanos);
 
         // Start the visual updates if a notifier is attached
         if (visualNotifier != null) {
@@ -97,19 +96,16 @@ public class TeamTimer {
     }
 
     /**
-     * Stops the timer countdown task and visual updates.
+     * Stops the timer countdown and visual updates.
      */
     public void stop() {
-        boolean wasRunning = isRunning; // Track if it was considered running
-
-        // Cancel the Bukkit task if it exists and is active
-        if (timerTask != null) {
-             if (!timerTask.isCancelled()) {
-                 timerTask.cancel();
-             }
-             timerTask = null; // Clear the reference
+        boolean wasRunning = isRunning();
+
+        // Take the remaining time back from the game loop
+        if (wasRunning) {
+            this.remainingNanos = gameLoop.remove(slot);
+            this.slot = -1;
         }
-        isRunning = false; // Set running state to false
 
         // Stop visual updates if a notifier is attached
         if (visualNotifier != null) {
@@ -130,42 +126,39 @@ public class TeamTimer {
     public void reset(int startSeconds) {
         stop(); // Ensure any existing task is stopped first
         // Set remaining time, respecting bounds 0 to maxSeconds
-        this.remainingSeconds = Math.max(0, Math.min(startSeconds, this.maxSeconds));
-        plugin.getLogger().log(Level.INFO, "Timer reset to " + remainingSeconds + "s.");
+        int seconds = Math.max(0, Math.min(startSeconds, this.maxSeconds));
+        this.remainingNanos = seconds * NANOS_PER_SECOND;
+        plugin.getLogger().log(Level.INFO, "Timer reset to " + seconds + "s.");
         // Update the visual display immediately to reflect the reset time
         syncVisual();
     }
 
     /**
-     * Internal method called periodically by the Bukkit scheduler task.
-     * Decrements remaining time and triggers the expiry callback if time runs out.
+     * Called by the game loop when the countdown reaches zero.
+     * Stops the timer and triggers the expiry callback.
      */
-    private void tick() {
-        // Safety check: If something external set isRunning to false, stop the task.
-        if (!isRunning) {
-            plugin.getLogger().warning("Timer tick called while isRunning is false. Stopping task.");
-            stop();
-            return;
+    void expire() {
+        if (!isRunning()) return; // Stopped by an earlier expiry callback in the same tick
+        plugin.getLogger().log(Level.WARNING, "Timer expired!");
+        stop();
+        // Execute the provided callback function
+        try {
+             expiryCallback.onTimerExpire();
+        } catch (Exception e) {
+             plugin.getLogger().log(Level.SEVERE, "Error executing timer expiry callback", e);
         }
+    }
 
-        // Decrement time if positive
-        if (remainingSeconds > 0) {
-            remainingSeconds--;
-            // Optional: Add a TickCallback here if external components need second-by-second updates
-            // tickCallback.onTick(remainingSeconds);
+    /** Called by the game loop, in its batched visual pass, when the remaining whole seconds changed. */
+    void updateVisual() {
+        if (visualNotifier != null) {
+            visualNotifier.updateVisuals();
         }
+    }
 
-        // Check if timer has reached zero
-        if (remainingSeconds <= 0) {
-            plugin.getLogger().log(Level.WARNING, "Timer expired!");
-            stop(); // Stop the timer task
-            // Execute the provided callback function
-            try {
-                 expiryCallback.onTimerExpire();
-            } catch (Exception e) {
-                 plugin.getLogger().log(Level.SEVERE, "Error executing timer expiry callback", e);
-            }
-        }
+    /** Called by the game loop when another timer's removal moves this one to a new slot. */
+    void setSlot(int slot) {
+        this.slot = slot;
     }
 
     /**
@@ -180,13 +173,17 @@ public class TeamTimer {
             return;
         }
 
-        int oldSeconds = this.remainingSeconds;
+        long oldNanos = getRemainingNanos();
         // Add time, but ensure it doesn't exceed maxSeconds
-        this.remainingSeconds = Math.min(oldSeconds + amount, maxSeconds);
-        int actualAdded = this.remainingSeconds - oldSeconds;
+        long newNanos = Math.min(oldNanos + amount * NANOS_PER_SECOND, maxNanos);
+        if (isRunning()) {
+            gameLoop.setRemainingNanos(slot, newNanos);
+        } else {
+            this.remainingNanos = newNanos;
+        }
 
-        if (actualAdded > 0) {
-            plugin.getLogger().log(Level.INFO, "Added " + actualAdded + "s. New time: " + remainingSeconds + "s");
+        if (newNanos > oldNanos) {
+            plugin.getLogger().log(Level.INFO, "Added " + (newNanos - oldNanos) / 1_000_000L + "ms. New time: " + newNanos / 1_000_000L + "ms");
             // Sync visual display to show the added time
             syncVisual();
         } else {
@@ -196,23 +193,36 @@ public class TeamTimer {
     }
 
     /**
-     * Gets the number of seconds currently remaining on the timer.
+     * Gets the number of seconds currently remaining on the timer, rounded up
+     * (the timer shows 1 until its last second has fully elapsed).
      *
      * @return The remaining time in seconds.
      */
     public int getSecondsLeft() {
-        return remainingSeconds;
+        return GameLoop.wholeSeconds(getRemainingNanos());
+    }
+
+    /**
+     * Gets the time remaining on the timer, read from the monotonic clock. Cheap enough to call every
+     * frame of a HUD.
+     *
+     * @return The remaining time in milliseconds, never negative.
+     */
+    public long getRemainingMillis() {
+        return getRemainingNanos() / 1_000_000L;
+    }
+
+    private long getRemainingNanos() {
+        return isRunning() ? gameLoop.getRemainingNanos(slot) : remainingNanos;
     }
 
     /**
-     * Checks if the timer's countdown task is currently scheduled and running.
+     * Checks if the timer is currently counting down in the game loop.
      *
      * @return True if the timer is actively counting down, false otherwise.
      */
     public boolean isRunning() {
-        // Check both the flag and the task state for robustness
-        // A task might exist but be cancelled, or isRunning might be false unexpectedly.
-        return isRunning && timerTask != null && !timerTask.isCancelled();
+        return slot >= 0;
     }
 
     /**
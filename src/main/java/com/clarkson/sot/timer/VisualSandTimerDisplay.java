@@ -2,13 +2,16 @@ package com.clarkson.sot.timer; // Or com.clarkson.sot.visuals based on original
 
 import com.clarkson.sot.utils.SoTTeam; // Assuming SoTTeam provides getRemainingSeconds()
 
-import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.World;
 import org.bukkit.block.Block;
+import org.bukkit.entity.BlockDisplay;
 import org.bukkit.plugin.Plugin;
-import org.bukkit.scheduler.BukkitTask;
+import org.bukkit.util.Transformation;
+import org.jetbrains.annotations.Nullable;
+import org.joml.AxisAngle4f;
+import org.joml.Vector3f;
 
 import java.util.Objects;
 import java.util.logging.Level;
@@ -18,9 +21,23 @@ import java.util.logging.Level;
  * This class is responsible ONLY for the visual representation.
  * The actual game time is obtained from the associated SoTTeam object.
  * (Note: Dependency might change to TeamTimer if SoTTeam no longer holds time directly).
+ * Periodic updates are driven by the {@link GameLoop}, in its batched visual pass.
+ * The column's fill level is tracked here rather than re-read from the world, so an update writes only the
+ * blocks that change. The world is read again only on {@link #resyncWithWorld()} or after the column's chunk
+ * has been unloaded.
+ * In {@link RenderMode#DISPLAY_ENTITY} mode the column is instead a single scaled {@link BlockDisplay}, which the
+ * client interpolates between updates, and the world is never modified.
  */
 public class VisualSandTimerDisplay {
 
+    /** How the sand column is drawn. */
+    public enum RenderMode {
+        /** Real sand blocks in the world (the default). */
+        BLOCKS,
+        /** One non-persistent block display entity, scaled to the time left and drained smoothly client-side. */
+        DISPLAY_ENTITY
+    }
+
     private final Plugin plugin;
     // TODO: Consider changing dependency from SoTTeam to TeamTimer or Supplier<Integer>
     // if SoTTeam no longer directly holds remainingSeconds after refactoring.
@@ -28,13 +45,26 @@ public class VisualSandTimerDisplay {
     private final Location bottomLocation; // Block *below* the lowest sand block
     private final Location topLocation;    // Highest possible sand block location
     private final int totalHeight;         // Max number of sand blocks possible (topY - bottomY)
+    private final RenderMode renderMode;
+
+    private boolean updating; // Whether the game loop's visual pass should update this display
+    private int fillLevel = UNKNOWN_FILL; // Sand blocks currently in the column, stacked from its base; authoritative once known
+    private final int columnX;
+    private final int columnZ;
+    private final int baseY; // Y of the lowest sand block
+
+    private static final int UNKNOWN_FILL = -1; // Column not read from the world yet, or its chunk was unloaded
 
-    private BukkitTask visualUpdateTask; // The Bukkit scheduler task for updates
-    private int lastKnownVisualBlocks = -1; // Tracks the last calculated target block count
+    // DISPLAY_ENTITY mode
+    @Nullable private BlockDisplay display; // Null until spawned, and again once its chunk unloads
+    private float displayHeight = -1f; // Height (in blocks) of the display's current target transformation
 
     // Configuration constants
     private static final int SECONDS_PER_BLOCK_VISUAL = 10; // How many seconds each sand block represents
-    private static final long VISUAL_UPDATE_INTERVAL_TICKS = 20L; // How often to check (20 ticks = 1 second)
+    private static final long MILLIS_BETWEEN_UPDATES = 1000L; // The game loop updates the display once per second
+    private static final int UPDATE_INTERPOLATION_TICKS = 20; // Drain over the full second until the next update
+    private static final int SYNC_INTERPOLATION_TICKS = 5; // Short ease when time is added or the timer is reset
+    private static final float DISPLAY_INSET = 0.01f; // Keeps the display's faces off the column walls
 
     /**
      * Constructor for VisualSandTimerDisplay.
@@ -45,6 +75,17 @@ public class VisualSandTimerDisplay {
      * @param topLocation    The Location of the highest possible sand block in the column.
      */
     public VisualSandTimerDisplay(Plugin plugin, SoTTeam team, Location bottomLocation, Location topLocation) {
+        this(plugin, team, bottomLocation, topLocation, RenderMode.BLOCKS);
+    }
+
+    /**
+     * Constructor for VisualSandTimerDisplay with an explicit renderer.
+     *
+     * @param renderMode     Whether the column is drawn with real sand blocks or a display entity.
+     * @see #VisualSandTimerDisplay(Plugin, SoTTeam, Location, Location)
+     */
+    public VisualSandTimerDisplay(Plugin plugin, SoTTeam team, Location bottomLocation, Location topLocation, RenderMode renderMode) {
+        this.renderMode = Objects.requireNonNull(renderMode, "Render mode cannot be null");
         this.plugin = Objects.requireNonNull(plugin, "Plugin cannot be null");
         this.team = Objects.requireNonNull(team, "SoTTeam cannot be null");
 
@@ -75,17 +116,19 @@ public class VisualSandTimerDisplay {
         } else {
              plugin.getLogger().log(Level.INFO, "VisualSandTimerDisplay created for team " + team.getTeamName() + ". Height: " + totalHeight + " blocks.");
         }
-        this.lastKnownVisualBlocks = -1; // Initialize tracking
+        this.columnX = this.bottomLocation.getBlockX();
+        this.columnZ = this.bottomLocation.getBlockZ();
+        this.baseY = this.bottomLocation.getBlockY() + 1;
     }
 
     /**
-     * Starts the scheduled task that periodically updates the visual sand display
-     * by removing blocks as time decreases. Also performs an initial sync.
+     * Starts the periodic updates (made by the game loop) that remove blocks as time decreases.
+     * Also performs an initial sync.
      */
     public void startVisualUpdates() {
         // Don't start if already running or if height is invalid
-        if (visualUpdateTask != null && !visualUpdateTask.isCancelled()) {
-            plugin.getLogger().fine("Visual update task already running for team " + team.getTeamName());
+        if (updating) {
+            plugin.getLogger().fine("Visual updates already running for team " + team.getTeamName());
             return;
         }
         if (totalHeight <= 0) {
@@ -97,90 +140,71 @@ public class VisualSandTimerDisplay {
         plugin.getLogger().fine("Performing initial visual sync for team " + team.getTeamName());
         syncVisualState(); // Set initial state based on current time
 
-        // Schedule the repeating task
-        plugin.getLogger().info("Starting visual timer updates task for team " + team.getTeamName());
-        visualUpdateTask = Bukkit.getScheduler().runTaskTimer(plugin, this::updateVisuals, VISUAL_UPDATE_INTERVAL_TICKS, VISUAL_UPDATE_INTERVAL_TICKS);
+        plugin.getLogger().info("Starting visual timer updates for team " + team.getTeamName());
+        updating = true;
     }
 
     /**
-     * Stops the scheduled task that updates the visual sand display.
+     * Stops the periodic updates of the visual sand display.
      */
     public void stopVisualUpdates() {
-        if (visualUpdateTask != null) {
-            if (!visualUpdateTask.isCancelled()) {
-                visualUpdateTask.cancel();
+        if (updating) {
+            updating = false;
+            if (renderMode == RenderMode.DISPLAY_ENTITY) {
+                applyDisplayHeight(team.getRemainingMillis(), 0); // Freeze where the time actually stopped
             }
-            visualUpdateTask = null; // Clear the task reference
-            plugin.getLogger().log(Level.INFO, "Stopped visual timer updates task for team " + team.getTeamName());
+            plugin.getLogger().log(Level.INFO, "Stopped visual timer updates for team " + team.getTeamName());
         }
     }
 
     /**
-     * Internal method run periodically by the scheduler.
-     * Checks the logical time and removes one sand block if the visual display
-     * has more blocks than the target count dictates. Designed for the "draining" effect.
+     * Called by the game loop each time the team's timer loses a second.
+     * Moves the column to the block count the remaining time dictates. Usually nothing changes and
+     * the world is not touched; when one block's worth of time has drained, it costs a single block write.
      */
-    private void updateVisuals() {
-        // Stop if task was cancelled externally or height is invalid
-        if (totalHeight <= 0 || visualUpdateTask == null || visualUpdateTask.isCancelled()) {
-            stopVisualUpdates(); // Ensure stopped state
-            return;
-        }
-
-        // Get current logical time and calculate target block count
-        int remainingSeconds = team.getRemainingSeconds(); // Assumes SoTTeam provides this
-        int targetBlocks = getTargetBlockCount(remainingSeconds);
-
-        // Optimization: If the target hasn't changed since the last check, do nothing.
-        // This prevents unnecessary block counting if time hasn't dropped enough to change target.
-        // Note: This differs slightly from syncVisualState which always checks physical blocks.
-        if (targetBlocks == lastKnownVisualBlocks) {
+    void updateVisuals() {
+        if (!updating || totalHeight <= 0) return;
+        if (renderMode == RenderMode.DISPLAY_ENTITY) {
+            // Aim at where the column will be on the next update; the client interpolates in between
+            applyDisplayHeight(team.getRemainingMillis() - MILLIS_BETWEEN_UPDATES, UPDATE_INTERPOLATION_TICKS);
             return;
         }
-
-        // Get the current number of physical blocks (more expensive check)
-        int currentBlocks = countCurrentSandBlocks();
-
-        // If the visual display has more blocks than it should, remove one from the bottom
-        if (targetBlocks < currentBlocks) {
-            removeBottomSandBlock();
-            // Update last known count based on the new target, not the physical count,
-            // so it continues trying to remove blocks on subsequent ticks if needed.
-            lastKnownVisualBlocks = targetBlocks;
-        } else {
-            // If target >= current, syncVisualState handles adding blocks if needed.
-            // Update last known count even if no change occurred this tick.
-            lastKnownVisualBlocks = targetBlocks;
-        }
+        applyFillLevel(getTargetBlockCount(team.getRemainingSeconds()));
     }
 
     /**
-     * Forces the visual sand blocks to exactly match the team's current remaining seconds.
-     * Compares the target number of blocks to the physically present blocks and adds/removes
-     * the difference. Useful after time is added or when starting/resetting the timer.
+     * Moves the visual sand column to match the team's current remaining seconds, writing only the
+     * blocks that differ from the tracked fill level. Useful after time is added or when starting/resetting the timer.
      */
     public void syncVisualState() {
         if (totalHeight <= 0) return; // Don't run for invalid timers
+        if (renderMode == RenderMode.DISPLAY_ENTITY) {
+            applyDisplayHeight(team.getRemainingMillis(), SYNC_INTERPOLATION_TICKS);
+            return;
+        }
+        int targetBlocks = getTargetBlockCount(team.getRemainingSeconds());
+        plugin.getLogger().log(Level.FINEST, "Syncing visual state for " + team.getTeamName() + ". Target: " + targetBlocks + ", Current: " + fillLevel);
+        applyFillLevel(targetBlocks);
+    }
 
-        // Get current logical time and calculate target block count
-        int remainingSeconds = team.getRemainingSeconds(); // Assumes SoTTeam provides this
-        int targetBlocks = getTargetBlockCount(remainingSeconds);
-
-        // Check the actual number of sand blocks currently in the world
-        int currentBlocks = countCurrentSandBlocks();
-
-        plugin.getLogger().log(Level.FINEST, "Syncing visual state for " + team.getTeamName() + ". Target: " + targetBlocks + ", Current: " + currentBlocks);
+    /**
+     * Re-reads the column from the world (e.g. after it was edited by hand), then moves it to the
+     * team's current remaining seconds.
+     */
+    public void resyncWithWorld() {
+        if (totalHeight <= 0) return;
+        fillLevel = UNKNOWN_FILL;
+        dispose(); // A display entity is respawned by the sync below
+        syncVisualState();
+    }
 
-        // Add or remove blocks to match the target
-        if (targetBlocks > currentBlocks) {
-            addSandToTop(targetBlocks - currentBlocks);
-        } else if (targetBlocks < currentBlocks) {
-            removeSandFromBottom(currentBlocks - targetBlocks);
+    /** Removes the display entity, if any. Real sand blocks are left in place. */
+    public void dispose() {
+        if (display != null) {
+            display.remove();
+            display = null;
         }
-        // else: currentBlocks == targetBlocks, no change needed
-
-        // Update the tracker to the target state
-        lastKnownVisualBlocks = targetBlocks;
+        displayHeight = -1f;
     }
 
     /**
@@ -193,105 +217,110 @@ public class VisualSandTimerDisplay {
         if (remainingSeconds <= 0) return 0;
         // Calculate blocks needed: ceiling(time / seconds_per_block)
         // Example: 1s -> 1 block, 10s -> 1 block, 11s -> 2 blocks
-        int blocks = (int) Math.ceil((double) remainingSeconds / SECONDS_PER_BLOCK_VISUAL);
+        int blocks = (remainingSeconds + SECONDS_PER_BLOCK_VISUAL - 1) / SECONDS_PER_BLOCK_VISUAL;
         // Ensure calculated blocks don't exceed the physical height of the column
         return Math.min(blocks, this.totalHeight);
     }
 
     /**
-     * Adds a specified number of sand blocks visually to the top of the column,
-     * starting from the lowest available air/passable block.
-     *
-     * @param blocksToAdd Number of sand blocks to add.
+     * Writes only the blocks between the tracked fill level and {@code targetBlocks}: sand is stacked onto
+     * the top of the column and drained from the top, so the column stays contiguous from its base.
+     * While the column's chunk is unloaded nothing is written (and no chunk is loaded for it); the fill
+     * level is then re-read from the world on the first update after the chunk is back.
      */
-    private void addSandToTop(int blocksToAdd) {
-        if (blocksToAdd <= 0 || totalHeight <= 0) return;
-        World world = topLocation.getWorld(); // Assumes world is loaded and valid
+    private void applyFillLevel(int targetBlocks) {
+        if (targetBlocks == fillLevel) return; // Steady state: nothing to do
+        World world = bottomLocation.getWorld();
         if (world == null) {
-             plugin.getLogger().severe("Cannot add sand: World is null for team " + team.getTeamName());
-             return;
+            plugin.getLogger().severe("Cannot update sand timer: World is null for team " + team.getTeamName());
+            return;
+        }
+        if (!world.isChunkLoaded(columnX >> 4, columnZ >> 4)) {
+            fillLevel = UNKNOWN_FILL; // The chunk may come back with different blocks (or be regenerated)
+            return;
+        }
+        if (fillLevel == UNKNOWN_FILL) {
+            fillLevel = readFillLevel(world);
+            if (targetBlocks == fillLevel) return;
         }
 
-        int blocksAdded = 0;
-        // Start from the block ABOVE the bottom marker and go upwards
-        for (int y = bottomLocation.getBlockY() + 1; y <= topLocation.getBlockY() && blocksAdded < blocksToAdd; y++) {
-            Location currentLocation = new Location(world, topLocation.getBlockX(), y, topLocation.getBlockZ());
-            Block block = currentLocation.getBlock();
-            // Place sand if the block is air or passable (e.g., water, tall grass)
-            if (block.getType() == Material.AIR || block.isPassable()) {
+        if (targetBlocks > fillLevel) {
+            int y = baseY + fillLevel;
+            for (; y < baseY + targetBlocks; y++) {
+                Block block = world.getBlockAt(columnX, y, columnZ);
+                if (block.getType() != Material.SAND && !block.isPassable()) {
+                    plugin.getLogger().warning("Visual timer path obstructed at Y=" + y + " for team " + team.getTeamName() + " (" + block.getType() + ")");
+                    break; // Stop adding if path is blocked by non-sand/non-air
+                }
                 // Set to sand, false = don't apply physics immediately (prevents chain reactions)
                 block.setType(Material.SAND, false);
-                blocksAdded++;
             }
-            // If we hit a solid block, assume the column is full up to this point
-            else if (block.getType() == Material.SAND) {
-                 continue; // Already sand, check next block up
-            } else {
-                 plugin.getLogger().warning("Visual timer path obstructed at Y=" + y + " for team " + team.getTeamName() + " (" + block.getType() + ")");
-                 break; // Stop adding if path is blocked by non-sand/non-air
+            plugin.getLogger().log(Level.FINE, "Visually added " + (y - baseY - fillLevel) + " sand blocks for team " + team.getTeamName());
+            fillLevel = y - baseY;
+        } else {
+            for (int y = baseY + fillLevel - 1; y >= baseY + targetBlocks; y--) {
+                world.getBlockAt(columnX, y, columnZ).setType(Material.AIR, false); // Set to air, no physics update
             }
+            plugin.getLogger().log(Level.FINE, "Visually removed " + (fillLevel - targetBlocks) + " sand blocks for team " + team.getTeamName());
+            fillLevel = targetBlocks;
         }
-        if (blocksAdded > 0) plugin.getLogger().log(Level.FINE, "Visually added " + blocksAdded + " sand blocks for team " + team.getTeamName());
     }
 
     /**
-     * Convenience method to remove one sand block from the bottom of the visual stack.
+     * Reads the current fill level from the world: the number of contiguous sand blocks from the column base.
+     * Sand above a gap is cleared so that the column matches the tracked state.
      */
-    private void removeBottomSandBlock() {
-        removeSandFromBottom(1);
+    private int readFillLevel(World world) {
+        int level = 0;
+        while (level < totalHeight && world.getBlockAt(columnX, baseY + level, columnZ).getType() == Material.SAND) {
+            level++;
+        }
+        for (int y = baseY + level + 1; y < baseY + totalHeight; y++) {
+            Block block = world.getBlockAt(columnX, y, columnZ);
+            if (block.getType() == Material.SAND) block.setType(Material.AIR, false);
+        }
+        return level;
     }
 
     /**
-     * Removes a specified number of sand blocks visually from the bottom of the column.
-     *
-     * @param blocksToRemove Number of blocks to remove.
+     * Scales the display entity to the height {@code remainingMillis} dictates, interpolating over
+     * {@code interpolationTicks} on the client: one entity metadata packet per call, and none if the height is unchanged.
+     * The entity is spawned on first use and not saved with its chunk; if the chunk unloads, it is spawned again on
+     * the first update after the chunk is back (no chunk is loaded for it).
      */
-    private void removeSandFromBottom(int blocksToRemove) {
-        if (blocksToRemove <= 0 || totalHeight <= 0) return;
+    private void applyDisplayHeight(long remainingMillis, int interpolationTicks) {
+        float height = Math.min(totalHeight, Math.max(0L, remainingMillis) / (SECONDS_PER_BLOCK_VISUAL * 1000f));
+        if (display != null && !display.isValid()) display = null; // Unloaded with its chunk, or removed
+        if (display != null && height == displayHeight) return;
+
         World world = bottomLocation.getWorld();
         if (world == null) {
-             plugin.getLogger().severe("Cannot remove sand: World is null for team " + team.getTeamName());
-             return;
+            plugin.getLogger().severe("Cannot update sand timer: World is null for team " + team.getTeamName());
+            return;
         }
-
-        int blocksRemoved = 0;
-        // Start checking from the block ABOVE the bottom marker upwards
-        for (int y = bottomLocation.getBlockY() + 1; y <= topLocation.getBlockY() && blocksRemoved < blocksToRemove; y++) {
-            Location currentLocation = new Location(world, bottomLocation.getBlockX(), y, bottomLocation.getBlockZ());
-            Block block = currentLocation.getBlock();
-            // If we find a sand block, remove it
-            if (block.getType() == Material.SAND) {
-                block.setType(Material.AIR, false); // Set to air, no physics update
-                blocksRemoved++;
-            } else {
-                // Stop if we hit air or any non-sand block, means we reached the current top of the stack
-                break;
-            }
+        if (!world.isChunkLoaded(columnX >> 4, columnZ >> 4)) return;
+
+        Transformation transformation = displayTransformation(height);
+        displayHeight = height;
+        if (display == null) {
+            display = world.spawn(new Location(world, columnX, baseY, columnZ), BlockDisplay.class, entity -> {
+                entity.setBlock(Material.SAND.createBlockData());
+                entity.setPersistent(false);
+                entity.setTransformation(transformation);
+            });
+            plugin.getLogger().log(Level.FINE, "Spawned sand timer display for team " + team.getTeamName());
+            return;
         }
-        if (blocksRemoved > 0) plugin.getLogger().log(Level.FINE, "Visually removed " + blocksRemoved + " sand blocks for team " + team.getTeamName());
+        display.setInterpolationDelay(0); // Start interpolating as soon as the client receives the change
+        display.setInterpolationDuration(interpolationTicks);
+        display.setTransformation(transformation);
     }
 
-
-    /**
-     * Counts the current number of physical sand blocks present in the timer column in the world.
-     *
-     * @return The number of Material.SAND blocks found within the defined column bounds.
-     */
-    private int countCurrentSandBlocks() {
-        if (totalHeight <= 0) return 0;
-        World world = bottomLocation.getWorld();
-        if (world == null) return 0; // Cannot count in null world
-
-        int count = 0;
-        // Iterate vertically from the block above bottomLocation up to topLocation (inclusive)
-        for (int y = bottomLocation.getBlockY() + 1; y <= topLocation.getBlockY(); y++) {
-            // Create location for the current Y level
-            Location currentLocation = new Location(world, bottomLocation.getBlockX(), y, bottomLocation.getBlockZ());
-            // Check if the block at this location is sand
-            if (currentLocation.getBlock().getType() == Material.SAND) {
-                count++;
-            }
-        }
-        return count;
+    private static Transformation displayTransformation(float height) {
+        return new Transformation(
+                new Vector3f(DISPLAY_INSET, 0f, DISPLAY_INSET),
+                new AxisAngle4f(),
+                new Vector3f(1f - 2 * DISPLAY_INSET, height, 1f - 2 * DISPLAY_INSET),
+                new AxisAngle4f());
     }
 }
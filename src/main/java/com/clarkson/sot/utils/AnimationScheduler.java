@@ -0,0 +1,294 @@
+package com.clarkson.sot.utils;
+
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Level;
+
+/**
+ * Runs every door and vault animation from one repeating task instead of a Bukkit task per animation.
+ * <ul>
+ *     <li>Active animations live in parallel arrays ordered by priority (highest first), so a tick is a
+ *     single pass over those arrays with no per-animation scheduler bookkeeping.</li>
+ *     <li>Each animation has its own step interval in ticks. Once the per-tick time budget is used up,
+ *     due animations of lower priority wait for the next tick (at least one step always runs).</li>
+ *     <li>The task only runs while something is animating.</li>
+ * </ul>
+ * Exposes active/started/completed/cancelled counts and per-tick cost. Main thread only.
+ */
+public final class AnimationScheduler {
+
+    /** One animation. {@link #step()} is called every interval until it returns true. */
+    @FunctionalInterface
+    public interface Animation {
+        /** @return true once the animation has finished. */
+        boolean step();
+
+        /** Called instead of further steps when the animation is cancelled. */
+        default void onCancel() { }
+    }
+
+    /** Lets the owner of an animation cancel it or check whether it is still running. */
+    public static final class Handle {
+        private boolean done;
+        private boolean cancelRequested;
+
+        /** Stops the animation before its next step. Does nothing if it has already finished. */
+        public void cancel() {
+            if (!done) {
+                done = true;
+                cancelRequested = true;
+            }
+        }
+
+        /** @return true until the animation finishes or is cancelled. */
+        public boolean isActive() {
+            return !done;
+        }
+    }
+
+    private static final class Pending {
+        final Animation animation;
+        final Handle handle;
+        final int intervalTicks;
+        final int priority;
+
+        Pending(Animation animation, Handle handle, int intervalTicks, int priority) {
+            this.animation = animation;
+            this.handle = handle;
+            this.intervalTicks = intervalTicks;
+            this.priority = priority;
+        }
+    }
+
+    public static final int PRIORITY_LOW = 0;
+    public static final int PRIORITY_NORMAL = 50;
+    public static final int PRIORITY_HIGH = 100;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Plugin plugin;
+    private final long tickBudgetNanos;
+    @Nullable private BukkitTask task;
+    private long currentTick;
+    private boolean ticking;
+    private final List<Pending> scheduledWhileTicking = new ArrayList<>(); // Started by a step; inserted after the tick
+
+    // Active animations, ordered by priority (highest first), then by start order
+    private Animation[] animations = new Animation[INITIAL_CAPACITY];
+    private Handle[] handles = new Handle[INITIAL_CAPACITY];
+    private int[] priorities = new int[INITIAL_CAPACITY];
+    private int[] intervals = new int[INITIAL_CAPACITY];
+    private long[] nextRunTicks = new long[INITIAL_CAPACITY];
+    private int size;
+
+    // --- Metrics ---
+    private long started;
+    private long completed;
+    private long cancelled;
+    private long deferredSteps; // Due steps pushed to a later tick by the budget
+    private long lastTickNanos;
+    private long maxTickNanos;
+    private double averageTickNanos; // Exponential moving average over ticks with work
+
+    /**
+     * @param plugin           The main plugin instance.
+     * @param tickBudgetMillis Maximum time spent advancing animations per server tick.
+     */
+    public AnimationScheduler(@NotNull Plugin plugin, double tickBudgetMillis) {
+        this.plugin = plugin;
+        this.tickBudgetNanos = (long) (Math.max(0.1, tickBudgetMillis) * 1_000_000L);
+    }
+
+    /**
+     * Starts an animation. Its first step runs on the scheduler's next tick.
+     *
+     * @param animation     The animation.
+     * @param intervalTicks Ticks between steps (at least 1).
+     * @param priority      Higher priorities are advanced first when the tick budget is tight.
+     * @return A handle for cancelling the animation.
+     */
+    @NotNull
+    public Handle schedule(@NotNull Animation animation, int intervalTicks, int priority) {
+        Handle handle = new Handle();
+        started++;
+        if (ticking) {
+            // A step started this animation; inserting now would shift entries under the running loop
+            scheduledWhileTicking.add(new Pending(animation, handle, intervalTicks, priority));
+            return handle;
+        }
+        insert(animation, handle, intervalTicks, priority);
+        ensureRunning();
+        return handle;
+    }
+
+    private void insert(Animation animation, Handle handle, int intervalTicks, int priority) {
+        if (size == animations.length) grow();
+
+        // Insert after every entry of the same or higher priority, keeping start order within a priority
+        int index = size;
+        while (index > 0 && priorities[index - 1] < priority) index--;
+        int tail = size - index;
+        if (tail > 0) {
+            System.arraycopy(animations, index, animations, index + 1, tail);
+            System.arraycopy(handles, index, handles, index + 1, tail);
+            System.arraycopy(priorities, index, priorities, index + 1, tail);
+            System.arraycopy(intervals, index, intervals, index + 1, tail);
+            System.arraycopy(nextRunTicks, index, nextRunTicks, index + 1, tail);
+        }
+        animations[index] = animation;
+        handles[index] = handle;
+        priorities[index] = priority;
+        intervals[index] = Math.max(1, intervalTicks);
+        nextRunTicks[index] = currentTick + 1;
+        size++;
+    }
+
+    /** Runs {@code action} once, on the scheduler's next tick. */
+    @NotNull
+    public Handle runNextTick(@NotNull Runnable action, int priority) {
+        return schedule(() -> {
+            action.run();
+            return true;
+        }, 1, priority);
+    }
+
+    /** Cancels every active animation (their {@link Animation#onCancel()} is called) and stops the task. */
+    public void cancelAll() {
+        for (int i = 0; i < size; i++) {
+            handles[i].cancel();
+        }
+        for (Pending pending : scheduledWhileTicking) {
+            pending.handle.cancel();
+        }
+        if (ticking) return; // The running tick compacts and stops the task once it has no entries left
+        compact();
+        stopTask();
+    }
+
+    private void ensureRunning() {
+        if (task == null) {
+            task = new BukkitRunnable() {
+                @Override
+                public void run() {
+                    tick();
+                }
+            }.runTaskTimer(plugin, 1L, 1L);
+        }
+    }
+
+    private void stopTask() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    private void tick() {
+        currentTick++;
+        long start = System.nanoTime();
+        long deadline = start + tickBudgetNanos;
+        boolean ranStep = false;
+
+        ticking = true;
+        for (int i = 0; i < size; i++) {
+            Handle handle = handles[i];
+            if (handle.done || nextRunTicks[i] > currentTick) continue;
+            if (ranStep && System.nanoTime() >= deadline) {
+                deferredSteps++; // Stays due; runs first thing next tick if its priority allows
+                continue;
+            }
+            ranStep = true;
+            boolean finished;
+            try {
+                finished = animations[i].step();
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.SEVERE, "[AnimationScheduler] Animation step failed; dropping the animation.", e);
+                finished = true;
+            }
+            if (finished) {
+                if (!handle.done) completed++;
+                handle.done = true;
+            } else {
+                nextRunTicks[i] = currentTick + intervals[i];
+            }
+        }
+        ticking = false;
+        compact();
+        for (Pending pending : scheduledWhileTicking) {
+            insert(pending.animation, pending.handle, pending.intervalTicks, pending.priority);
+        }
+        scheduledWhileTicking.clear();
+        compact(); // Drops any of those that were cancelled before being inserted
+
+        if (ranStep) {
+            lastTickNanos = System.nanoTime() - start;
+            maxTickNanos = Math.max(maxTickNanos, lastTickNanos);
+            averageTickNanos = averageTickNanos == 0 ? lastTickNanos : averageTickNanos * 0.95 + lastTickNanos * 0.05;
+        }
+        if (size == 0) stopTask();
+    }
+
+    /** Removes finished and cancelled entries, preserving order. */
+    private void compact() {
+        int write = 0;
+        for (int read = 0; read < size; read++) {
+            Handle handle = handles[read];
+            if (handle.done) {
+                if (handle.cancelRequested) {
+                    cancelled++;
+                    try {
+                        animations[read].onCancel();
+                    } catch (Exception e) {
+                        plugin.getLogger().log(Level.WARNING, "[AnimationScheduler] Animation cancel hook failed.", e);
+                    }
+                }
+                continue;
+            }
+            if (write != read) {
+                animations[write] = animations[read];
+                handles[write] = handle;
+                priorities[write] = priorities[read];
+                intervals[write] = intervals[read];
+                nextRunTicks[write] = nextRunTicks[read];
+            }
+            write++;
+        }
+        Arrays.fill(animations, write, size, null);
+        Arrays.fill(handles, write, size, null);
+        size = write;
+    }
+
+    private void grow() {
+        int capacity = animations.length * 2;
+        animations = Arrays.copyOf(animations, capacity);
+        handles = Arrays.copyOf(handles, capacity);
+        priorities = Arrays.copyOf(priorities, capacity);
+        intervals = Arrays.copyOf(intervals, capacity);
+        nextRunTicks = Arrays.copyOf(nextRunTicks, capacity);
+    }
+
+    // --- Metrics ---
+    public int getActiveCount() { return size; }
+    public long getStartedCount() { return started; }
+    public long getCompletedCount() { return completed; }
+    public long getCancelledCount() { return cancelled; }
+    public long getDeferredStepCount() { return deferredSteps; }
+    public long getLastTickNanos() { return lastTickNanos; }
+    public long getMaxTickNanos() { return maxTickNanos; }
+    public double getAverageTickNanos() { return averageTickNanos; }
+
+    /** @return A one-line summary of the metrics, for logs. */
+    @NotNull
+    public String getStatsSummary() {
+        return "Active: " + size + ", started: " + started + ", completed: " + completed + ", cancelled: " + cancelled
+                + ", deferred steps: " + deferredSteps
+                + String.format(", tick cost avg %.3f ms / max %.3f ms", averageTickNanos / 1_000_000.0, maxTickNanos / 1_000_000.0);
+    }
+}
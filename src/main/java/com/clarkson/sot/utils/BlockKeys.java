@@ -0,0 +1,47 @@
+package com.clarkson.sot.utils;
+
+/**
+ * Packs integer coordinates into single long keys, for hash tables keyed by position (see {@link LongKeyTable}).
+ * {@link #pack} mirrors Minecraft's block position packing: 26 bits X, 26 bits Z, 12 bits Y. That covers the whole
+ * world border and build height for block coordinates, and any coarser grid (cells, chunk sections) as well.
+ */
+public final class BlockKeys {
+
+    private BlockKeys() {
+    }
+
+    /** @return The packed key of (x, y, z). */
+    public static long pack(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    /** @return The X coordinate of a key made by {@link #pack} (sign-extended). */
+    public static int unpackX(long key) {
+        return (int) (key >> 38);
+    }
+
+    /** @return The Y coordinate of a key made by {@link #pack} (sign-extended). */
+    public static int unpackY(long key) {
+        return (int) (key << 52 >> 52);
+    }
+
+    /** @return The Z coordinate of a key made by {@link #pack} (sign-extended). */
+    public static int unpackZ(long key) {
+        return (int) (key << 26 >> 38);
+    }
+
+    /** @return The packed key of a column (x, z), e.g. chunk coordinates. Uses all 32 bits of each. */
+    public static long packColumn(int x, int z) {
+        return ((long) x << 32) | (z & 0xFFFFFFFFL);
+    }
+
+    /** @return The X coordinate of a key made by {@link #packColumn}. */
+    public static int unpackColumnX(long key) {
+        return (int) (key >> 32);
+    }
+
+    /** @return The Z coordinate of a key made by {@link #packColumn}. */
+    public static int unpackColumnZ(long key) {
+        return (int) key;
+    }
+}
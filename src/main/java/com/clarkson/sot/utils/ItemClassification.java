@@ -0,0 +1,80 @@
+package com.clarkson.sot.utils;
+
+import com.clarkson.sot.dungeon.VaultColor;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * What a held item means to Sands of Time, decoded from its PDC tags in one pass by
+ * {@link ItemManager#classify(org.bukkit.inventory.ItemStack)}.
+ * Instances are immutable; untagged items and keys map to shared constants; only tool results are created per call.
+ */
+public final class ItemClassification {
+
+    public enum Kind {
+        /** No SoT tags (or no item). */
+        NONE,
+        /** A build tool; see {@link #getToolType()}. */
+        TOOL,
+        RUSTY_KEY,
+        VAULT_KEY
+    }
+
+    public static final ItemClassification NONE = new ItemClassification(Kind.NONE, null, null, null);
+    public static final ItemClassification RUSTY_KEY = new ItemClassification(Kind.RUSTY_KEY, null, null, null);
+    private static final Map<VaultColor, ItemClassification> VAULT_KEYS = new EnumMap<>(VaultColor.class);
+    static {
+        for (VaultColor color : VaultColor.values()) {
+            VAULT_KEYS.put(color, new ItemClassification(Kind.VAULT_KEY, null, color, null));
+        }
+    }
+
+    private final Kind kind;
+    @Nullable private final String toolType;
+    @Nullable private final VaultColor vaultColor;
+    @Nullable private final Integer coinValue;
+
+    private ItemClassification(@NotNull Kind kind, @Nullable String toolType, @Nullable VaultColor vaultColor, @Nullable Integer coinValue) {
+        this.kind = kind;
+        this.toolType = toolType;
+        this.vaultColor = vaultColor;
+        this.coinValue = coinValue;
+    }
+
+    /** @return The shared classification for a vault key of that color. A null color means the color tag is missing or invalid. */
+    @NotNull
+    static ItemClassification vaultKey(@Nullable VaultColor color) {
+        return color != null ? VAULT_KEYS.get(color) : new ItemClassification(Kind.VAULT_KEY, null, null, null);
+    }
+
+    @NotNull
+    static ItemClassification tool(@NotNull String toolType, @Nullable Integer coinValue) {
+        return new ItemClassification(Kind.TOOL, toolType, null, coinValue);
+    }
+
+    @NotNull public Kind getKind() { return kind; }
+    public boolean isVaultKey() { return kind == Kind.VAULT_KEY; }
+    public boolean isRustyKey() { return kind == Kind.RUSTY_KEY; }
+    public boolean isTool() { return kind == Kind.TOOL; }
+
+    /** @return The tool type tag (e.g. {@link ItemManager#TOOL_TYPE_COIN_PLACER}), or null if not a tool. */
+    @Nullable public String getToolType() { return toolType; }
+
+    /** @return The color of a vault key, or null if not a vault key or its color tag is missing/invalid. */
+    @Nullable public VaultColor getVaultColor() { return vaultColor; }
+
+    /** @return The coin value stored on a Coin Placer tool, or null if absent. */
+    @Nullable public Integer getCoinValue() { return coinValue; }
+
+    @Override
+    public String toString() {
+        return "ItemClassification{" + kind
+                + (toolType != null ? ", tool=" + toolType : "")
+                + (vaultColor != null ? ", color=" + vaultColor : "")
+                + (coinValue != null ? ", coinValue=" + coinValue : "") + "}";
+    }
+}
@@ -8,7 +8,9 @@ import net.kyori.adventure.text.format.TextDecoration;
 import net.kyori.adventure.text.minimessage.MiniMessage;
 import org.bukkit.Material;
 import org.bukkit.NamespacedKey;
+import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
 import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.persistence.PersistentDataContainer;
 import org.bukkit.persistence.PersistentDataType;
@@ -38,6 +40,7 @@ public final class ItemManager {
     private static final String VAULT_COLOR_STR = "sot_vault_color";
     private static final String TOOL_TYPE_STR = "sot_tool_type";
     private static final String TOOL_VALUE_STR = "sot_tool_value";
+    private static final String VAULT_KEY_TAG_STR = "sot_vault_key"; // BYTE tag on keys created by VaultManager
     // Add other key strings if needed (e.g., for floor items if managed here)
 
     // --- Public NamespacedKey Objects (Initialized once) ---
@@ -45,6 +48,7 @@ public final class ItemManager {
     public static NamespacedKey VAULT_COLOR;
     public static NamespacedKey TOOL_TYPE;
     public static NamespacedKey TOOL_VALUE;
+    public static NamespacedKey VAULT_KEY_TAG;
     // Add other public keys here...
 
     // --- Public Constant String Values ---
@@ -82,6 +86,7 @@ public final class ItemManager {
         VAULT_COLOR = new NamespacedKey(plugin, VAULT_COLOR_STR);
         TOOL_TYPE = new NamespacedKey(plugin, TOOL_TYPE_STR);
         TOOL_VALUE = new NamespacedKey(plugin, TOOL_VALUE_STR);
+        VAULT_KEY_TAG = new NamespacedKey(plugin, VAULT_KEY_TAG_STR);
         // Initialize other keys here...
 
         plugin.getLogger().info("ItemManager Keys initialized.");
@@ -201,86 +206,109 @@ public final class ItemManager {
 
     // --- Item Checking Methods ---
 
-    /** Safely gets the PDC from an ItemStack, handling nulls. */
-    @Nullable
-    private static PersistentDataContainer getPDC(@Nullable ItemStack item) {
+    /**
+     * Classifies an item by its SoT tags. Reads the item's meta (a copy) once and decodes every tag
+     * from that copy; callers that need several facts about one item should classify once and keep the result.
+     * @return The classification; {@link ItemClassification#NONE} for null, air, untagged items, or before {@link #initializeKeys}.
+     */
+    @NotNull
+    public static ItemClassification classify(@Nullable ItemStack item) {
         if (item == null || item.getType() == Material.AIR || !item.hasItemMeta()) {
-            return null;
+            return ItemClassification.NONE;
         }
-        ItemMeta meta = item.getItemMeta();
-        return (meta != null) ? meta.getPersistentDataContainer() : null;
+        return classify(item.getItemMeta());
+    }
+
+    /** Same as {@link #classify(ItemStack)}, for callers that already hold a copy of the item's meta. */
+    @NotNull
+    public static ItemClassification classify(@Nullable ItemMeta meta) {
+        if (meta == null || KEY_TYPE == null) return ItemClassification.NONE;
+        PersistentDataContainer pdc = meta.getPersistentDataContainer();
+        if (pdc.isEmpty()) return ItemClassification.NONE;
+
+        String toolType = pdc.get(TOOL_TYPE, PersistentDataType.STRING);
+        if (toolType != null) {
+            Integer coinValue = TOOL_TYPE_COIN_PLACER.equals(toolType) ? pdc.get(TOOL_VALUE, PersistentDataType.INTEGER) : null;
+            return ItemClassification.tool(toolType, coinValue);
+        }
+
+        String keyType = pdc.get(KEY_TYPE, PersistentDataType.STRING);
+        if (RUSTY_KEY_VALUE.equals(keyType)) return ItemClassification.RUSTY_KEY;
+        if (VAULT_KEY_VALUE.equals(keyType) || pdc.has(VAULT_KEY_TAG, PersistentDataType.BYTE)) {
+            return ItemClassification.vaultKey(parseVaultColor(pdc.get(VAULT_COLOR, PersistentDataType.STRING)));
+        }
+        return ItemClassification.NONE;
+    }
+
+    /**
+     * Removes one item from the stack in the player's main hand.
+     * Used to consume a key the caller has already classified from that hand, so no stack comparison is needed.
+     * @return false if the main hand is empty.
+     */
+    public static boolean consumeOneFromMainHand(@NotNull Player player) {
+        PlayerInventory inventory = player.getInventory();
+        ItemStack held = inventory.getItemInMainHand();
+        if (held.getType() == Material.AIR) return false;
+        if (held.getAmount() > 1) {
+            held.setAmount(held.getAmount() - 1);
+            inventory.setItemInMainHand(held);
+        } else {
+            inventory.setItemInMainHand(null);
+        }
+        return true;
     }
 
     /** Checks if an ItemStack is a Rusty Key. */
     public static boolean isRustyKey(@Nullable ItemStack item) {
-        PersistentDataContainer pdc = getPDC(item);
-        if (pdc == null || KEY_TYPE == null) return false;
-        return RUSTY_KEY_VALUE.equals(pdc.get(KEY_TYPE, PersistentDataType.STRING));
+        return classify(item).isRustyKey();
     }
 
     /** Checks if an ItemStack is any Vault Key. */
     public static boolean isVaultKey(@Nullable ItemStack item) {
-        PersistentDataContainer pdc = getPDC(item);
-        if (pdc == null || KEY_TYPE == null) return false;
-        return VAULT_KEY_VALUE.equals(pdc.get(KEY_TYPE, PersistentDataType.STRING));
+        return classify(item).isVaultKey();
     }
 
     /** Gets the VaultColor from a Vault Key ItemStack, returns null if not a valid vault key or color tag missing/invalid. */
     @Nullable
     public static VaultColor getVaultKeyColor(@Nullable ItemStack item) {
-        PersistentDataContainer pdc = getPDC(item);
-        if (pdc == null || KEY_TYPE == null || VAULT_COLOR == null) return null;
-
-        // Check if it's actually a vault key first
-        if (!VAULT_KEY_VALUE.equals(pdc.get(KEY_TYPE, PersistentDataType.STRING))) {
-            return null;
-        }
-
-        String colorString = pdc.get(VAULT_COLOR, PersistentDataType.STRING);
-        if (colorString != null) {
-            try {
-                return VaultColor.valueOf(colorString);
-            } catch (IllegalArgumentException e) {
-                if (pluginInstance != null) pluginInstance.getLogger().warning("Item has invalid VaultColor string in PDC: " + colorString);
-                return null;
-            }
-        }
-        if (pluginInstance != null) pluginInstance.getLogger().warning("Vault key item missing color tag!");
-        return null;
+        return classify(item).getVaultColor();
     }
 
      /** Checks if an ItemStack is the Coin Placer tool. */
      public static boolean isCoinPlacerTool(@Nullable ItemStack item) {
-         PersistentDataContainer pdc = getPDC(item);
-         if (pdc == null || TOOL_TYPE == null) return false;
-         return TOOL_TYPE_COIN_PLACER.equals(pdc.get(TOOL_TYPE, PersistentDataType.STRING));
+         return TOOL_TYPE_COIN_PLACER.equals(classify(item).getToolType());
      }
 
      /** Gets the value stored on a Coin Placer tool. Returns null if not a coin tool or value missing. */
      @Nullable
      public static Integer getCoinToolValue(@Nullable ItemStack item) {
-         PersistentDataContainer pdc = getPDC(item);
-         if (pdc == null || TOOL_TYPE == null || TOOL_VALUE == null) return null;
-         if (!TOOL_TYPE_COIN_PLACER.equals(pdc.get(TOOL_TYPE, PersistentDataType.STRING))) {
-             return null; // Not the right tool type
-         }
-         return pdc.get(TOOL_VALUE, PersistentDataType.INTEGER); // Returns null if key missing
+         return classify(item).getCoinValue();
      }
 
      /** Checks if an ItemStack is the Item Spawn Placer tool. */
      public static boolean isItemSpawnPlacerTool(@Nullable ItemStack item) {
-         PersistentDataContainer pdc = getPDC(item);
-         if (pdc == null || TOOL_TYPE == null) return false;
-         return TOOL_TYPE_ITEM_SPAWN_PLACER.equals(pdc.get(TOOL_TYPE, PersistentDataType.STRING));
+         return TOOL_TYPE_ITEM_SPAWN_PLACER.equals(classify(item).getToolType());
      }
 
       /** Checks if an ItemStack is the Entry Point Placer tool. */
       public static boolean isEntryPointPlacerTool(@Nullable ItemStack item) {
-          PersistentDataContainer pdc = getPDC(item);
-          if (pdc == null || TOOL_TYPE == null) return false;
-          return TOOL_TYPE_ENTRY_POINT_PLACER.equals(pdc.get(TOOL_TYPE, PersistentDataType.STRING));
+          return TOOL_TYPE_ENTRY_POINT_PLACER.equals(classify(item).getToolType());
       }
 
+    @Nullable
+    private static VaultColor parseVaultColor(@Nullable String colorString) {
+        if (colorString == null) {
+            if (pluginInstance != null) pluginInstance.getLogger().warning("Vault key item missing color tag!");
+            return null;
+        }
+        try {
+            return VaultColor.valueOf(colorString);
+        } catch (IllegalArgumentException e) {
+            if (pluginInstance != null) pluginInstance.getLogger().warning("Item has invalid VaultColor string in PDC: " + colorString);
+            return null;
+        }
+    }
+
     // --- Utility Methods ---
 
     /** Gets the Adventure API TextColor for a vault color. */
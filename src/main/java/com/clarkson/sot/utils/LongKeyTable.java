@@ -0,0 +1,122 @@
+package com.clarkson.sot.utils;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Open-addressed hash table from primitive long keys (normally {@link BlockKeys} packed positions) to non-null values.
+ * Linear probing over parallel key/value arrays, kept at a load factor of at most 0.5, so lookups neither box the
+ * key nor allocate. Entries cannot be removed one by one; owners clear or rebuild the table instead.
+ *
+ * Not thread-safe. A table that is no longer modified may be read from any thread once safely published.
+ */
+public final class LongKeyTable<V> {
+
+    private static final int MIN_CAPACITY = 16; // Must be a power of two
+
+    /** Receives the entries of a table, see {@link #forEach}. */
+    @FunctionalInterface
+    public interface EntryVisitor<V> {
+        void visit(long key, @NotNull V value);
+    }
+
+    private long[] keys;
+    private Object[] values; // null slot = empty
+    private int size;
+
+    public LongKeyTable() {
+        this(MIN_CAPACITY / 2);
+    }
+
+    /** @param expectedSize Number of entries the table should hold before it has to grow. */
+    public LongKeyTable(int expectedSize) {
+        int capacity = Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, expectedSize * 2 - 1)) << 1);
+        this.keys = new long[capacity];
+        this.values = new Object[capacity];
+    }
+
+    /** @return The value stored under {@code key}, or null. */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int mask = keys.length - 1;
+        for (int slot = hashSlot(key, mask); values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) return (V) values[slot];
+        }
+        return null;
+    }
+
+    /**
+     * Stores {@code value} under {@code key}.
+     * @return The value previously stored under the key, or null.
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V put(long key, @NotNull V value) {
+        Objects.requireNonNull(value, "value");
+        int mask = keys.length - 1;
+        int slot = hashSlot(key, mask);
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                V previous = (V) values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if ((size + 1) * 2 > keys.length) {
+            resize(keys.length * 2);
+            return put(key, value);
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+        return null;
+    }
+
+    /** @return Number of keys in the table. */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Removes every entry, keeping the current capacity. */
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /** Visits every entry, in no particular order. The visitor must not modify the table. */
+    @SuppressWarnings("unchecked")
+    public void forEach(@NotNull EntryVisitor<? super V> visitor) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (values[slot] != null) visitor.visit(keys[slot], (V) values[slot]);
+        }
+    }
+
+    private static int hashSlot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L; // Fibonacci hashing spreads the packed coordinates
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void resize(int newCapacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[newCapacity];
+        values = new Object[newCapacity];
+        int mask = newCapacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] == null) continue;
+            int slot = hashSlot(oldKeys[i], mask);
+            while (values[slot] != null) slot = (slot + 1) & mask;
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.clarkson.sot.utils;
+
+// WorldEdit imports
+import com.sk89q.worldedit.extent.clipboard.Clipboard;
+import com.sk89q.worldedit.extent.clipboard.io.ClipboardFormat;
+import com.sk89q.worldedit.extent.clipboard.io.ClipboardFormats;
+import com.sk89q.worldedit.extent.clipboard.io.ClipboardReader;
+
+// Bukkit imports
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+// Java IO and Util
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+/**
+ * Plugin-wide cache of parsed schematic clipboards, shared by every DungeonManager.
+ * Entries are keyed by schematic file name and validated against the file's last-modified
+ * time, so an edited schematic is re-read on next use. The cache is a size-bounded LRU.
+ *
+ * Cached clipboards are shared between team instances and must be treated as read-only:
+ * only paste from them, never modify their blocks or origin.
+ * All methods are thread-safe.
+ */
+public class SchematicCache {
+
+    private final Plugin plugin;
+    private final File schematicsDir;
+    private final int maxEntries;
+    private final LinkedHashMap<String, CachedClipboard> entries; // Access-ordered for LRU eviction (guarded by this)
+
+    // --- Metrics ---
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * @param plugin        The main plugin instance (for logging).
+     * @param schematicsDir Directory containing the .schem files.
+     * @param maxEntries    Maximum number of clipboards kept in memory (least recently used are evicted).
+     */
+    public SchematicCache(@NotNull Plugin plugin, @NotNull File schematicsDir, int maxEntries) {
+        if (maxEntries <= 0) throw new IllegalArgumentException("maxEntries must be positive");
+        this.plugin = plugin;
+        this.schematicsDir = schematicsDir;
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedClipboard> eldest) {
+                if (size() > SchematicCache.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Gets the clipboard for a schematic, reading and parsing the file only if it is not cached
+     * or has been modified since it was cached.
+     *
+     * @param schematicFileName File name relative to the schematics directory (e.g., "hub.schem").
+     * @return The shared clipboard, or null if the file is missing or cannot be read.
+     */
+    @Nullable
+    public Clipboard get(@NotNull String schematicFileName) {
+        File schematicFile = new File(schematicsDir, schematicFileName);
+        long lastModified = schematicFile.lastModified(); // 0 if the file does not exist
+        if (lastModified == 0L) {
+            plugin.getLogger().severe("[SchematicCache] Schematic file not found: " + schematicFile.getPath());
+            synchronized (this) {
+                entries.remove(schematicFileName);
+            }
+            return null;
+        }
+
+        synchronized (this) {
+            CachedClipboard cached = entries.get(schematicFileName);
+            if (cached != null && cached.lastModified == lastModified) {
+                hits.incrementAndGet();
+                return cached.clipboard;
+            }
+        }
+
+        // Parse outside the lock so other schematics can still be served meanwhile
+        misses.incrementAndGet();
+        Clipboard clipboard = read(schematicFile);
+        if (clipboard == null) return null;
+        synchronized (this) {
+            entries.put(schematicFileName, new CachedClipboard(clipboard, lastModified));
+        }
+        return clipboard;
+    }
+
+    /**
+     * Loads the given schematics into the cache ahead of time, so the first game start does not pay for parsing.
+     * @param schematicFileNames File names relative to the schematics directory.
+     * @return The number of schematics that are now cached.
+     */
+    public int warmUp(@NotNull Collection<String> schematicFileNames) {
+        int loaded = 0;
+        for (String fileName : schematicFileNames) {
+            if (get(fileName) != null) loaded++;
+        }
+        plugin.getLogger().info("[SchematicCache] Warmed up " + loaded + "/" + schematicFileNames.size() + " schematics. " + getStatsSummary());
+        return loaded;
+    }
+
+    /** Drops all cached clipboards. Metrics are kept. */
+    public synchronized void invalidateAll() {
+        entries.clear();
+    }
+
+    // --- Metrics ---
+    public long getHits() { return hits.get(); }
+    public long getMisses() { return misses.get(); }
+    public long getEvictions() { return evictions.get(); }
+    public synchronized int size() { return entries.size(); }
+    public int getMaxEntries() { return maxEntries; }
+
+    /** @return A one-line summary of the cache metrics, for logs and commands. */
+    @NotNull
+    public String getStatsSummary() {
+        long h = hits.get();
+        long m = misses.get();
+        long total = h + m;
+        String hitRate = total == 0 ? "n/a" : String.format("%.1f%%", 100.0 * h / total);
+        return "Entries: " + size() + "/" + maxEntries + ", hits: " + h + ", misses: " + m
+                + " (hit rate " + hitRate + "), evictions: " + evictions.get();
+    }
+
+    // --- Internals ---
+
+    @Nullable
+    private Clipboard read(@NotNull File schematicFile) {
+        ClipboardFormat format = ClipboardFormats.findByFile(schematicFile);
+        if (format == null) {
+            plugin.getLogger().severe("[SchematicCache] Unknown schematic format: " + schematicFile.getName());
+            return null;
+        }
+        try (ClipboardReader reader = format.getReader(new FileInputStream(schematicFile))) {
+            return reader.read();
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "[SchematicCache] Failed to read schematic " + schematicFile.getName(), e);
+            return null;
+        }
+    }
+
+    /** A parsed clipboard plus the file timestamp it was read at. */
+    private static final class CachedClipboard {
+        final Clipboard clipboard;
+        final long lastModified;
+
+        CachedClipboard(Clipboard clipboard, long lastModified) {
+            this.clipboard = clipboard;
+            this.lastModified = lastModified;
+        }
+    }
+}
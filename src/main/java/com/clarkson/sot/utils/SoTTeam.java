@@ -10,6 +10,7 @@ import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 
 /**
@@ -30,7 +31,7 @@ public class SoTTeam {
 
     // --- Game State ---
     // Removed: private int teamSandCount;
-    private int bankedScore;
+    private final AtomicInteger bankedScore = new AtomicInteger(); // Banked from any thread via the ScoreManager
 
     // --- Timer Control ---
     private transient VisualSandTimerDisplay visualTimerDisplay;
@@ -50,7 +51,7 @@ public class SoTTeam {
 
         // Create Visual Timer Display
         if (visualTimerBottom != null && visualTimerTop != null && visualTimerBottom.getWorld() != null && visualTimerTop.getWorld() != null) {
-            this.visualTimerDisplay = new VisualSandTimerDisplay(plugin, this, visualTimerBottom, visualTimerTop);
+            this.visualTimerDisplay = new VisualSandTimerDisplay(plugin, this, visualTimerBottom, visualTimerTop, gameManager.getSandTimerRenderMode());
         } else {
             plugin.getLogger().log(Level.WARNING, "Visual timer locations invalid for team " + teamDefinition.getName() + ". Visual timer disabled.");
             this.visualTimerDisplay = null;
@@ -59,11 +60,11 @@ public class SoTTeam {
         // Create the TeamTimer instance
         this.teamTimer = new TeamTimer(
                 plugin,
+                gameManager.getGameLoop(), // Shared loop advances every team's countdown
                 () -> this.gameManager.handleTeamTimerEnd(this), // Updated callback
                 this.visualTimerDisplay,
                 DEFAULT_START_SECONDS,
-                TeamTimer.DEFAULT_MAX_TIMER_SECONDS,
-                TeamTimer.DEFAULT_TIMER_INTERVAL_TICKS
+                TeamTimer.DEFAULT_MAX_TIMER_SECONDS
         );
 
         resetForNewGame();
@@ -74,7 +75,7 @@ public class SoTTeam {
      */
     public void resetForNewGame() {
         // Removed: this.teamSandCount = 0;
-        this.bankedScore = 0;
+        this.bankedScore.set(0);
         this.teamTimer.reset(DEFAULT_START_SECONDS);
         plugin.getLogger().log(Level.INFO, "Reset game state for team: " + getTeamName());
     }
@@ -94,12 +95,15 @@ public class SoTTeam {
     public void stopTimer() { this.teamTimer.stop(); }
     public void addSeconds(int secondsToAdd) { this.teamTimer.addSeconds(secondsToAdd); }
     public int getRemainingSeconds() { return this.teamTimer.getSecondsLeft(); }
+    public long getRemainingMillis() { return this.teamTimer.getRemainingMillis(); }
     public boolean isTimerRunning() { return this.teamTimer.isRunning(); }
+    /** Removes the visual timer's display entity, if it uses one. Called when the team leaves the game. */
+    public void disposeVisuals() { if (this.visualTimerDisplay != null) this.visualTimerDisplay.dispose(); }
 
     // --- Score Management ---
     // (getBankedScore, addBankedScore methods remain the same)
-    public int getBankedScore() { return this.bankedScore; }
-    public void addBankedScore(int scoreToAdd) { if (scoreToAdd > 0) { this.bankedScore += scoreToAdd; plugin.getLogger().fine("Added " + scoreToAdd + " to banked score for team " + getTeamName() + ". New total: " + this.bankedScore); } else if (scoreToAdd < 0) { plugin.getLogger().warning("Attempted to add negative score: " + scoreToAdd + " to team: " + getTeamName()); } }
+    public int getBankedScore() { return this.bankedScore.get(); }
+    public void addBankedScore(int scoreToAdd) { if (scoreToAdd > 0) { int total = this.bankedScore.addAndGet(scoreToAdd); plugin.getLogger().fine("Added " + scoreToAdd + " to banked score for team " + getTeamName() + ". New total: " + total); } else if (scoreToAdd < 0) { plugin.getLogger().warning("Attempted to add negative score: " + scoreToAdd + " to team: " + getTeamName()); } }
 
 
     // --- Getters for Team Definition Info ---
@@ -119,7 +123,7 @@ public class SoTTeam {
                 ", teamName='" + getTeamName() + '\'' +
                 ", members=" + memberUUIDs.size() +
                 // Removed: ", sand=" + teamSandCount +
-                ", score=" + bankedScore +
+                ", score=" + bankedScore.get() +
                 ", secondsLeft=" + getRemainingSeconds() +
                 ", timerRunning=" + isTimerRunning() +
                 '}';
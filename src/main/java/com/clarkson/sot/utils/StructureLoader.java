@@ -4,6 +4,7 @@ package com.clarkson.sot.utils;
 import com.clarkson.sot.dungeon.segment.*; // Import SegmentType
 import com.clarkson.sot.dungeon.VaultColor; // Import VaultColor
 import com.clarkson.sot.dungeon.segment.Segment;
+import com.clarkson.sot.dungeon.segment.Segment.RelativeDoor;
 import com.clarkson.sot.dungeon.segment.Segment.RelativeEntryPoint;
 
 // WorldEdit imports
@@ -11,6 +12,7 @@ import com.sk89q.worldedit.math.BlockVector3;
 
 // Gson imports
 import com.google.gson.*;
+import org.bukkit.Material;
 import org.bukkit.plugin.Plugin;
 import org.jetbrains.annotations.Nullable; // For nullable checks
 
@@ -19,6 +21,8 @@ import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 import java.util.logging.Level;
 
@@ -70,6 +74,9 @@ public class StructureLoader {
             return loadedSegments; // Return empty list
         }
 
+        // Sort by file name: listFiles order is platform-dependent, and seeded generation relies on a stable catalogue order
+        Arrays.sort(jsonFiles, Comparator.comparing(File::getName));
+
         plugin.getLogger().info("[StructureLoader] Found " + jsonFiles.length + " potential segment JSON files in " + dataDir.getAbsolutePath() + ". Attempting to load templates...");
 
         // --- Read, Parse, and Deserialize Each JSON File ---
@@ -142,6 +149,7 @@ public class StructureLoader {
             List<BlockVector3> sandSpawns = deserializeBlockVectorList(json.getAsJsonArray("sandSpawnLocations"), "sandSpawnLocations", name, sourceFileName);
             List<BlockVector3> itemSpawns = deserializeBlockVectorList(json.getAsJsonArray("itemSpawnLocations"), "itemSpawnLocations", name, sourceFileName);
             List<BlockVector3> coinSpawns = deserializeBlockVectorList(json.getAsJsonArray("coinSpawnLocations"), "coinSpawnLocations", name, sourceFileName);
+            List<RelativeDoor> doors = deserializeRelativeDoors(json.get("doors"), name, sourceFileName);
 
             // --- Deserialize Gameplay Metadata ---
             Integer totalCoins = getJsonInt(json, "totalCoins", sourceFileName);
@@ -180,7 +188,8 @@ public class StructureLoader {
                     containedVault,      // Can be null
                     containedVaultKey,   // Can be null
                     vaultLocationOffset, // Can be null
-                    keyLocationOffset    // Can be null
+                    keyLocationOffset,   // Can be null
+                    doors
             );
 
         } catch (JsonParseException | IllegalStateException | ClassCastException | NullPointerException e) {
@@ -352,4 +361,45 @@ public class StructureLoader {
         }
         return entryPoints;
     }
+
+    /**
+     * Deserializes a JSON array of segment door objects into a List of RelativeDoor.
+     * Expected door format: {"boundsMin": {...}, "boundsMax": {...}, "lockOffset": {...}, "material": "IRON_BARS"}
+     * ("material" is optional). Skips invalid elements. Returns an empty list if input is null/invalid.
+     */
+    private List<RelativeDoor> deserializeRelativeDoors(@Nullable JsonElement arrayElement, String segmentName, String sourceFileName) {
+        List<RelativeDoor> doors = new ArrayList<>();
+        if (arrayElement == null || !arrayElement.isJsonArray()) {
+            return doors;
+        }
+        JsonArray doorArray = arrayElement.getAsJsonArray();
+        for (int i = 0; i < doorArray.size(); i++) {
+            JsonElement doorElement = doorArray.get(i);
+            if (doorElement == null || !doorElement.isJsonObject()) {
+                plugin.getLogger().warning("[StructureLoader] Invalid element type in doors array at index " + i + " (expected JSON object) for template '" + segmentName + "' in " + sourceFileName);
+                continue;
+            }
+            JsonObject doorJson = doorElement.getAsJsonObject();
+            BlockVector3 boundsMin = deserializeBlockVector3(doorJson.get("boundsMin"), "doors[" + i + "].boundsMin", segmentName, sourceFileName);
+            BlockVector3 boundsMax = deserializeBlockVector3(doorJson.get("boundsMax"), "doors[" + i + "].boundsMax", segmentName, sourceFileName);
+            BlockVector3 lockOffset = deserializeBlockVector3(doorJson.get("lockOffset"), "doors[" + i + "].lockOffset", segmentName, sourceFileName);
+            if (boundsMin == null || boundsMax == null || lockOffset == null) {
+                plugin.getLogger().warning("[StructureLoader] Skipping doors[" + i + "] due to missing/invalid boundsMin, boundsMax or lockOffset in template '" + segmentName + "' from " + sourceFileName);
+                continue;
+            }
+
+            Material material = RelativeDoor.DEFAULT_MATERIAL;
+            String materialStr = getJsonString(doorJson, "material", sourceFileName);
+            if (materialStr != null) {
+                Material parsed = Material.matchMaterial(materialStr);
+                if (parsed != null && parsed.isBlock()) {
+                    material = parsed;
+                } else {
+                    plugin.getLogger().warning("[StructureLoader] Invalid door material '" + materialStr + "' in doors[" + i + "] for template '" + segmentName + "' from " + sourceFileName + ". Using " + material + ".");
+                }
+            }
+            doors.add(new RelativeDoor(boundsMin, boundsMax, lockOffset, material));
+        }
+        return doors;
+    }
 }
@@ -8,6 +8,7 @@ import org.bukkit.plugin.Plugin;
 
 // Local project imports
 import com.clarkson.sot.dungeon.segment.*;
+import com.clarkson.sot.dungeon.segment.Segment.RelativeDoor;
 import com.clarkson.sot.dungeon.segment.Segment.RelativeEntryPoint;
 import com.clarkson.sot.dungeon.VaultColor; // Import VaultColor if needed for serialization
 
@@ -221,6 +222,11 @@ public class StructureMetadataSaver {
                 json.add("keyLocationOffset", serializeBlockVector3(keyOffset));
             }
 
+            // Serialize segment doors only if the template defines any
+            if (!segmentTemplate.getDoors().isEmpty()) {
+                json.add("doors", serializeRelativeDoorList(segmentTemplate.getDoors()));
+            }
+
             // Return the completed JSON object
             return json;
 
@@ -276,6 +282,25 @@ public class StructureMetadataSaver {
         return jsonArray;
     }
 
+    /**
+     * Helper method to serialize a List of RelativeDoor objects into a JSON array.
+     * Each door object in the array will have "boundsMin", "boundsMax", "lockOffset" and "material".
+     * @param doors The list of RelativeDoor objects to serialize.
+     * @return A JsonArray containing the serialized doors.
+     */
+    private JsonArray serializeRelativeDoorList(List<RelativeDoor> doors) {
+        JsonArray jsonArray = new JsonArray();
+        for (RelativeDoor door : doors) {
+            JsonObject doorJson = new JsonObject();
+            doorJson.add("boundsMin", serializeBlockVector3(door.getBoundsMin()));
+            doorJson.add("boundsMax", serializeBlockVector3(door.getBoundsMax()));
+            doorJson.add("lockOffset", serializeBlockVector3(door.getLockOffset()));
+            doorJson.addProperty("material", door.getMaterial().name());
+            jsonArray.add(doorJson);
+        }
+        return jsonArray;
+    }
+
     /**
      * Helper method to serialize a List of WorldEdit BlockVector3 objects into a JSON array.
      * @param vectorList The list of BlockVector3 objects to serialize.
@@ -0,0 +1,39 @@
+package com.clarkson.sot.utils;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.generator.ChunkGenerator;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Random;
+
+/**
+ * Chunk generator that produces empty chunks: no noise, surface, caves, decorations, mobs or structures.
+ * Used for the dungeon instance world, where generating terrain would only be wasted work before
+ * the dungeon is pasted over it.
+ */
+public class VoidChunkGenerator extends ChunkGenerator {
+
+    @Override
+    public boolean shouldGenerateNoise() { return false; }
+
+    @Override
+    public boolean shouldGenerateSurface() { return false; }
+
+    @Override
+    public boolean shouldGenerateCaves() { return false; }
+
+    @Override
+    public boolean shouldGenerateDecorations() { return false; }
+
+    @Override
+    public boolean shouldGenerateMobs() { return false; }
+
+    @Override
+    public boolean shouldGenerateStructures() { return false; }
+
+    @Override
+    public Location getFixedSpawnLocation(@NotNull World world, @NotNull Random random) {
+        return new Location(world, 0.5, 64, 0.5);
+    }
+}